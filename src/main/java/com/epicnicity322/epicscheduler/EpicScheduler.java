@@ -25,40 +25,99 @@ import com.epicnicity322.epicpluginlib.core.config.ConfigurationHolder;
 import com.epicnicity322.epicpluginlib.core.config.ConfigurationLoader;
 import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.epicpluginlib.core.util.PathUtils;
+import com.epicnicity322.epicscheduler.api.EpicSchedulerService;
+import com.epicnicity322.epicscheduler.api.SchedulerService;
+import com.epicnicity322.epicscheduler.cluster.ClusterClaims;
+import com.epicnicity322.epicscheduler.command.CompletionIndex;
 import com.epicnicity322.epicscheduler.command.ScheduleCommand;
 import com.epicnicity322.epicscheduler.command.UnscheduleCommand;
+import com.epicnicity322.epicscheduler.command.subcommand.ExportSubCommand;
+import com.epicnicity322.epicscheduler.command.subcommand.ImportSubCommand;
 import com.epicnicity322.epicscheduler.command.subcommand.InfoSubCommand;
 import com.epicnicity322.epicscheduler.command.subcommand.ResetSubCommand;
-import com.epicnicity322.epicscheduler.result.*;
+import com.epicnicity322.epicscheduler.command.subcommand.StatsSubCommand;
+import com.epicnicity322.epicscheduler.command.subcommand.StorageSubCommand;
+import com.epicnicity322.epicscheduler.command.subcommand.TagSubCommand;
+import com.epicnicity322.epicscheduler.mailbox.Mailbox;
+import com.epicnicity322.epicscheduler.metrics.Histogram;
+import com.epicnicity322.epicscheduler.metrics.LoadMonitor;
+import com.epicnicity322.epicscheduler.metrics.OpenMetricsExporter;
+import com.epicnicity322.epicscheduler.metrics.ScheduleMetrics;
+import com.epicnicity322.epicscheduler.metrics.SchedulerEvents;
+import com.epicnicity322.epicscheduler.metrics.Watchdog;
+import com.epicnicity322.epicscheduler.result.type.PermissionIndex;
+import com.epicnicity322.epicscheduler.result.type.Picker;
 import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
+import com.epicnicity322.epicscheduler.result.type.ResultType;
+import com.epicnicity322.epicscheduler.result.type.ResultTypes;
 import com.epicnicity322.epicscheduler.result.type.ScheduleResult;
+import com.epicnicity322.epicscheduler.result.type.Target;
+import com.epicnicity322.epicscheduler.storage.PlayerStore;
+import com.epicnicity322.epicscheduler.storage.Shard;
+import com.epicnicity322.epicscheduler.storage.ShardedStorage;
+import com.epicnicity322.epicscheduler.storage.ScheduleTransfer;
+import com.epicnicity322.epicscheduler.storage.SqliteStorage;
+import com.epicnicity322.epicscheduler.util.SectionDigest;
 import com.epicnicity322.yamlhandler.Configuration;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
-import org.bukkit.boss.BarColor;
-import org.bukkit.boss.BarStyle;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 public class EpicScheduler extends JavaPlugin {
     public static final @NotNull DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final @NotNull HashMap<Schedule, BukkitTask> runningSchedules = new HashMap<>();
-    private static final @NotNull Set<Schedule> unmodifiableSchedules = Collections.unmodifiableSet(runningSchedules.keySet());
+    /*
+     * The running schedules and their indexes have a single writer at a time: they are only changed by track and
+     * untrack, while holding the lock of this class. Every block that changes them ends with publish, so reads are
+     * served lock-free from the last published snapshot instead.
+     */
+    private static final @NotNull ScheduleIndex<BukkitTask> running = new ScheduleIndex<>(PlayerStore::owner);
+    /**
+     * Writes to config that follow schedules firing or commands, run in the order they were submitted.
+     */
+    private static final @NotNull ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EpicScheduler Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final @NotNull ConcurrentHashMap<LocalDateTime, String> sectionDigests = new ConcurrentHashMap<>();
     private static final @NotNull Path folder = Paths.get("plugins", "EpicScheduler");
+    private static final @NotNull ShardedStorage storage = new ShardedStorage(folder.resolve("schedules"));
+    private static final @NotNull PlayerStore players = new PlayerStore(storage, folder.resolve("players"));
+    /**
+     * Dates of schedules whose removal from the database was not committed yet, so the pager does not set them again.
+     */
+    private static final @NotNull Set<LocalDateTime> pendingRemovals = ConcurrentHashMap.newKeySet();
+    private static volatile @Nullable SqliteStorage database;
+    private static volatile long window = 3600;
+    private static @Nullable BukkitTask pager;
+    private static @Nullable EpicSchedulerService service;
     private static final @NotNull Logger logger = new Logger("&8[&cEpicScheduler&8]&e ");
     private static final @NotNull MessageSender lang = new MessageSender(() -> "EN", Configurations.lang.getDefaultConfiguration());
     private static EpicScheduler instance;
@@ -86,25 +145,250 @@ public class EpicScheduler extends JavaPlugin {
     }
 
     /**
-     * Reloads all configurations in {@link Configurations}.
+     * Reloads all configurations in {@link Configurations} and applies their settings. Must be called on the main
+     * thread, since settings start and stop the tasks and services of the plugin.
      *
-     * @return true if main config failed to load and the plugin was disabled.
+     * @return Whether all configurations were loaded successfully.
      */
     private static boolean reloadConfigurations() {
         if (instance == null)
             throw new UnsupportedOperationException("Cannot reload configs while EpicScheduler is unloaded.");
+        var event = new SchedulerEvents.ConfigLoad();
+        event.begin();
         HashMap<ConfigurationHolder, Exception> exceptions = Configurations.loader.loadConfigurations();
         for (var exception : exceptions.entrySet()) {
             logger.log("'" + exception.getKey().getPath().getFileName() + "' could not be loaded due to an exception:", ConsoleLogger.Level.ERROR);
             exception.getValue().printStackTrace();
         }
-        if (exceptions.containsKey(Configurations.schedules)) {
-            // Removing all nodes from schedules config to avoid previous schedules from being started.
-            Configuration config = Configurations.schedules.getConfiguration();
-            config.getNodes().forEach((key, obj) -> config.set(key, null));
-            return true;
+        applySettings(Configurations.config.getConfiguration());
+        if (event.shouldCommit()) {
+            event.phase = "load";
+            event.failures = exceptions.size();
+            event.commit();
+        }
+        return exceptions.isEmpty();
+    }
+
+    /**
+     * Reloads the schedule shards, migrating the single schedules file of previous versions to shards if it exists.
+     *
+     * @return The schedule shards that failed to load.
+     */
+    private static @NotNull Set<Shard> reloadShards() {
+        // Schedules are loaded from the database instead.
+        if (database != null) return Collections.emptySet();
+        var event = new SchedulerEvents.ConfigLoad();
+        event.begin();
+
+        try {
+            if (storage.migrate(Configurations.schedules)) {
+                logger.log("Schedules of '" + Configurations.schedules.getPath().getFileName() + "' were moved to the '" + storage.folder().getFileName() + "' folder, in a file for each month.");
+            }
+        } catch (IOException e) {
+            logger.log("Unable to move schedules of '" + Configurations.schedules.getPath().getFileName() + "' to the '" + storage.folder().getFileName() + "' folder. They will not run until the file is fixed:", ConsoleLogger.Level.ERROR);
+            e.printStackTrace();
+        }
+
+        Map<Shard, Exception> failures;
+        try {
+            failures = storage.loadAll();
+        } catch (IOException e) {
+            logger.log("Unable to list the files of '" + storage.folder().getFileName() + "' folder:", ConsoleLogger.Level.ERROR);
+            e.printStackTrace();
+            failures = new HashMap<>();
+            for (Shard shard : storage.shards()) failures.put(shard, e);
+        }
+        for (var failure : failures.entrySet()) {
+            logger.log("'" + failure.getKey().path().getFileName() + "' could not be loaded due to an exception:", ConsoleLogger.Level.ERROR);
+            failure.getValue().printStackTrace();
+        }
+        if (event.shouldCommit()) {
+            event.phase = "load";
+            event.failures = failures.size();
+            event.commit();
+        }
+        return failures.keySet();
+    }
+
+    /**
+     * Applies the settings of {@link Configurations#config} to the components of the plugin.
+     *
+     * @param config The loaded main config.
+     */
+    private static void applySettings(@NotNull Configuration config) {
+        boolean metrics = config.getBoolean("Metrics.Enabled").orElse(true);
+        ScheduleMetrics.setEnabled(metrics);
+        ScheduleMetrics.setHistorySize(config.getNumber("Metrics.History Size").orElse(10).intValue());
+
+        int httpPort = metrics && config.getBoolean("Metrics.Exporter.HTTP.Enabled").orElse(false) ? config.getNumber("Metrics.Exporter.HTTP.Port").orElse(9464).intValue() : -1;
+        Path metricsFile = metrics && config.getBoolean("Metrics.Exporter.File.Enabled").orElse(false) ? folder.resolve(config.getString("Metrics.Exporter.File.Path").orElse("metrics.prom")) : null;
+        OpenMetricsExporter.start(instance, httpPort, metricsFile, config.getNumber("Metrics.Exporter.File.Interval").orElse(15).longValue());
+
+        InfoSubCommand.setPageSize(config.getNumber("Info.Page Size").orElse(10).intValue());
+        PermissionIndex.configure(instance, config.getNumber("Permission Targets.Reconcile").orElse(30).longValue());
+
+        var policies = new EnumMap<Schedule.Priority, LoadMonitor.Policy>(Schedule.Priority.class);
+        policies.put(Schedule.Priority.NORMAL, parsePolicy(config, "Normal", LoadMonitor.Policy.RUN));
+        policies.put(Schedule.Priority.COSMETIC, parsePolicy(config, "Cosmetic", LoadMonitor.Policy.DROP));
+        LoadMonitor.configure(instance, config.getBoolean("Load Shedding.Enabled").orElse(true),
+                config.getNumber("Load Shedding.Threshold").orElse(60).doubleValue(),
+                config.getNumber("Load Shedding.Sample Ticks").orElse(100).intValue(), policies,
+                config.getNumber("Load Shedding.Thin Share").orElse(0.25).doubleValue(),
+                config.getNumber("Load Shedding.Max Defer").orElse(60).longValue());
+
+        Watchdog.configure(config.getBoolean("Watchdog.Enabled").orElse(true),
+                config.getNumber("Watchdog.Schedule Result Budget").orElse(50).longValue(),
+                config.getNumber("Watchdog.Result Budget").orElse(10).longValue(),
+                config.getNumber("Watchdog.Strikes").orElse(3).intValue(),
+                config.getBoolean("Watchdog.Slice Offenders").orElse(false),
+                config.getNumber("Watchdog.Slice Budget").orElse(5).longValue());
+
+        Mailbox.configure(config.getBoolean("Mailbox.Enabled").orElse(false) ? folder.resolve("mailbox") : null,
+                config.getNumber("Mailbox.Size").orElse(20).intValue(),
+                TimeUnit.DAYS.toMillis(config.getNumber("Mailbox.Max Age").orElse(7).longValue()),
+                config.getNumber("Mailbox.Per Tick").orElse(1).intValue());
+
+        boolean cluster = config.getBoolean("Cluster.Enabled").orElse(false);
+        ClusterClaims.configure(instance, cluster ? folder.resolve(config.getString("Cluster.Claims Folder").orElse("claims")) : null,
+                config.getNumber("Cluster.Claim Bucket").orElse(60).longValue(), config.getString("Cluster.Server Name").orElse(""));
+        storage.setFileLocking(cluster);
+
+        boolean sqlite = config.getString("Storage.Type").orElse("YAML").equalsIgnoreCase("SQLITE");
+        if (sqlite && !SqliteStorage.isDriverAvailable()) {
+            logger.log("'Storage.Type' is SQLITE, but this server does not bundle the SQLite driver, so schedules will be stored in YAML. Set 'Storage.Type' to YAML to hide this error.", ConsoleLogger.Level.ERROR);
+            sqlite = false;
+        }
+        window = Math.max(1, config.getNumber("Storage.SQLite.Window").orElse(60).longValue()) * 60;
+        setDatabase(sqlite ? folder.resolve(config.getString("Storage.SQLite.File").orElse("schedules.db")) : null);
+
+        if (!sqlite && config.getBoolean("Watcher.Enabled").orElse(true)) {
+            SchedulesWatcher.start(storage.folder(), config.getNumber("Watcher.Debounce").orElse(1000).longValue(), EpicScheduler::reloadWatchedSchedules);
+        } else {
+            SchedulesWatcher.stop();
+        }
+    }
+
+    private static @NotNull LoadMonitor.Policy parsePolicy(@NotNull Configuration config, @NotNull String priority, @NotNull LoadMonitor.Policy def) {
+        String name = config.getString("Load Shedding." + priority).orElse(def.name());
+        try {
+            return LoadMonitor.Policy.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.log("Unknown load shedding policy '" + name + "' for " + priority + " schedules, so " + def.name() + " will be used.", ConsoleLogger.Level.WARN);
+            return def;
+        }
+    }
+
+    /**
+     * Opens the database in the file, closing the previous one if it is in another file.
+     *
+     * @param file The database file, or null to store schedules in YAML.
+     */
+    private static void setDatabase(@Nullable Path file) {
+        SqliteStorage previous = database;
+        if (previous != null && previous.file().equals(file)) return;
+        if (previous != null) previous.close();
+        if (pager != null) {
+            pager.cancel();
+            pager = null;
         }
-        return false;
+        database = null;
+        if (file == null) return;
+
+        var sqlite = new SqliteStorage(file);
+        // Statements run in order on the thread of the database, so the ones submitted meanwhile wait for it to open.
+        sqlite.open().whenComplete((ignored, throwable) -> {
+            if (throwable == null) return;
+            Bukkit.getScheduler().runTask(instance, () -> {
+                if (database != sqlite) return;
+                logger.log("Unable to open database '" + file.getFileName() + "', schedules will be stored in YAML:", ConsoleLogger.Level.ERROR);
+                throwable.printStackTrace();
+                database = null;
+                if (pager != null) {
+                    pager.cancel();
+                    pager = null;
+                }
+                // Closing waits for the statements that were submitted meanwhile, so it is not done on the main thread.
+                submitWrite(sqlite::close);
+                // Shards are not loaded while schedules are stored in the database.
+                reloadStoredSchedules();
+            });
+        });
+        database = sqlite;
+        long period = Math.max(1, window / 2) * 20;
+        pager = Bukkit.getScheduler().runTaskTimerAsynchronously(instance, EpicScheduler::pageSchedules, period, period);
+    }
+
+    /**
+     * @param schedule The schedule to check.
+     * @return Whether the schedule should be kept in memory, because schedules are stored in YAML or because it is due
+     * within the window of schedules loaded from the database.
+     */
+    private static boolean inWindow(@NotNull Schedule schedule) {
+        return database == null || !schedule.dueDate().isAfter(LocalDateTime.now().plusSeconds(window));
+    }
+
+    /**
+     * @param schedule The schedule to check.
+     * @return The player whose file keeps the schedule, or null if it is kept with the other schedules. Schedules are
+     * only kept in files of players when they are stored in YAML.
+     */
+    private static @Nullable UUID ownerOf(@NotNull Schedule schedule) {
+        return database == null ? PlayerStore.owner(schedule) : null;
+    }
+
+    /**
+     * @param schedule The schedule to check.
+     * @return Whether the schedule should be kept in memory and running, because it is within the window and it does
+     * not belong to a player that is offline.
+     */
+    private static boolean shouldTrack(@NotNull Schedule schedule) {
+        if (!inWindow(schedule)) return false;
+        UUID owner = ownerOf(schedule);
+        return owner == null || players.isArmed(owner);
+    }
+
+    /**
+     * @param schedule The schedule to save.
+     * @return The shard that keeps the schedule, either the shard of its month or the shard of its player.
+     */
+    private static @NotNull Shard shardOf(@NotNull Schedule schedule) {
+        UUID owner = ownerOf(schedule);
+        return owner == null ? storage.shard(schedule.dueDate()) : players.shard(owner);
+    }
+
+    /**
+     * @param shard The shard to sort.
+     * @return The key to sort the shard by, so shards of months are always locked before shards of players.
+     */
+    private static @NotNull String lockOrder(@NotNull Shard shard) {
+        return (players.owns(shard) ? "player:" : "month:") + shard.name();
+    }
+
+    /**
+     * Sets the schedules of the database that became due within the window since the last time it was paged.
+     */
+    private static void pageSchedules() {
+        SqliteStorage sqlite = database;
+        if (sqlite == null) return;
+
+        sqlite.load(LocalDateTime.now().plusSeconds(window)).whenComplete((stored, throwable) -> {
+            if (throwable != null) {
+                logger.log("Unable to load upcoming schedules from database:", ConsoleLogger.Level.ERROR);
+                throwable.printStackTrace();
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (EpicScheduler.class) {
+                for (SqliteStorage.Stored entry : stored) {
+                    Schedule schedule = entry.schedule();
+                    // Schedules already due were set before, and might have run already.
+                    if (!schedule.dueDate().isAfter(now) || running.get(schedule.dueDate()) != null
+                            || pendingRemovals.contains(schedule.dueDate())) continue;
+                    track(schedule, entry.paused());
+                }
+                publish();
+            }
+        });
     }
 
     /**
@@ -115,243 +399,1161 @@ public class EpicScheduler extends JavaPlugin {
      * @throws IOException                   If failed to save schedule to configuration.
      */
     public static void setSchedule(@NotNull Schedule schedule) throws IOException {
+        setSchedules(Collections.singletonList(schedule));
+    }
+
+    /**
+     * Sets the schedules to run once their time is due and saves them to config in a single write. If multiple
+     * schedules have the same due date, the last one is set.
+     *
+     * @param schedules The schedules to run later. Schedules without results are ignored.
+     * @return The amount of schedules set.
+     * @throws UnsupportedOperationException If EpicScheduler was not instantiated by bukkit yet.
+     * @throws IOException                   If failed to save the schedules to configuration.
+     */
+    public static int setSchedules(@NotNull Collection<Schedule> schedules) throws IOException {
+        if (instance == null)
+            throw new UnsupportedOperationException("Cannot run tasks while EpicScheduler is unloaded.");
+
+        var byDate = new LinkedHashMap<LocalDateTime, Schedule>();
+        for (Schedule schedule : schedules) {
+            if (!schedule.scheduleResults().isEmpty()) byDate.put(schedule.dueDate(), schedule);
+        }
+        if (byDate.isEmpty()) return 0;
+        var toSave = new LinkedHashMap<Schedule, Boolean>();
+        for (Schedule schedule : byDate.values()) toSave.put(schedule, false);
+        return setSchedules(toSave, "set");
+    }
+
+    /**
+     * Sets the schedules to run once their time is due, keeping the paused ones paused, and saves them to config in
+     * a single write. The running schedules are updated once, after all schedules were saved.
+     *
+     * @param schedules The schedules to set, and whether they are paused. Schedules without results are ignored.
+     * @return The amount of schedules set.
+     * @throws UnsupportedOperationException If EpicScheduler was not instantiated by bukkit yet.
+     * @throws IOException                   If failed to save the schedules to configuration.
+     */
+    public static int importSchedules(@NotNull Map<Schedule, Boolean> schedules) throws IOException {
         if (instance == null)
             throw new UnsupportedOperationException("Cannot run tasks while EpicScheduler is unloaded.");
 
-        List<ScheduleResult> scheduleResults = schedule.scheduleResults();
-        if (scheduleResults.isEmpty()) return;
+        var toSave = new LinkedHashMap<Schedule, Boolean>();
+        schedules.forEach((schedule, paused) -> {
+            if (!schedule.scheduleResults().isEmpty()) toSave.put(schedule, paused);
+        });
+        if (toSave.isEmpty()) return 0;
+        return setSchedules(toSave, "import");
+    }
 
-        ConfigurationHolder schedulesHolder = Configurations.schedules;
+    private static int setSchedules(@NotNull Map<Schedule, Boolean> toSave, @NotNull String operation) throws IOException {
+        persist(toSave, Collections.emptyList(), ScheduleMetrics.PERSISTENCE_SET, operation);
         synchronized (EpicScheduler.class) {
-            // Reloading to prevent losses of any changes made to the config since last reload.
-            // If schedules config fails to load, that's no issue, because it will be replaced by the last instance of
-            //successfully loaded config. So it's safe to ignore the result.
-            Configurations.loader.loadConfigurations();
-            Configuration upToDateSchedules = schedulesHolder.getConfiguration();
-            String dueDate = schedule.formatted();
+            for (Map.Entry<Schedule, Boolean> entry : toSave.entrySet()) {
+                Schedule schedule = entry.getKey();
+                if (shouldTrack(schedule)) {
+                    track(schedule, entry.getValue());
+                } else {
+                    // Schedule will be set once the pager reaches its date, or once its player joins.
+                    Schedule replaced = running.get(schedule.dueDate());
+                    if (replaced != null) untrack(replaced, true);
+                }
+            }
+            publish();
+        }
+        return toSave.size();
+    }
+
+    /**
+     * Sets the schedule to run right away, and saves it to config on the writer thread, so the caller does not wait
+     * for the write. If saving fails, the schedule is taken back out of the running schedules, and the schedule it
+     * replaced is set again, unless they were changed again in the meantime.
+     *
+     * @param schedule The schedule to run later.
+     * @return A future completed on the writer thread once the schedule is saved, or exceptionally with the
+     * {@link IOException} that made saving fail.
+     * @throws UnsupportedOperationException If EpicScheduler was not instantiated by bukkit yet.
+     */
+    public static @NotNull CompletableFuture<Void> submitSchedule(@NotNull Schedule schedule) {
+        if (instance == null)
+            throw new UnsupportedOperationException("Cannot run tasks while EpicScheduler is unloaded.");
 
-            upToDateSchedules.set(dueDate, null); // Removing outdated schedule section.
-            ConfigurationSection section = upToDateSchedules.createSection(dueDate);
+        Schedule replaced;
+        boolean replacedPaused, tracked;
+        synchronized (EpicScheduler.class) {
+            replaced = running.get(schedule.dueDate());
+            replacedPaused = replaced != null && running.isPaused(replaced);
+            tracked = shouldTrack(schedule);
+            if (tracked) track(schedule, false);
+            else if (replaced != null) untrack(replaced, true);
+            publish();
+        }
 
-            long repeat = schedule.repeat();
-            if (repeat != 0) {
-                section.set("Repeat", repeat + (repeat == 1 ? " second" : " seconds"));
-                section.set("Skip Missed Repeats", schedule.skipMissedRepeats());
+        var future = new CompletableFuture<Void>();
+        submitWrite(() -> {
+            try {
+                persist(Collections.singletonMap(schedule, false), Collections.emptyList(), ScheduleMetrics.PERSISTENCE_SET, "set");
+                future.complete(null);
+            } catch (IOException e) {
+                synchronized (EpicScheduler.class) {
+                    // Only rolling back if nothing else was set to this date since.
+                    Schedule current = running.get(schedule.dueDate());
+                    if (current == (tracked ? schedule : null)) {
+                        if (tracked) untrack(schedule, true);
+                        if (replaced != null && replaced.dueDate().isAfter(LocalDateTime.now())) track(replaced, replacedPaused);
+                    }
+                    publish();
+                }
+                future.completeExceptionally(e);
             }
+        });
+        return future;
+    }
 
-            for (ScheduleResult scheduleResult : scheduleResults) {
-                scheduleResult.set(section.createSection(scheduleResult.resultName()));
+    /**
+     * Cancels the schedule right away, and removes it from config on the writer thread, so the caller does not wait
+     * for the write. If removing fails, the schedule is set again, unless another schedule was set to its date in the
+     * meantime.
+     *
+     * @param schedule The running schedule to cancel.
+     * @return A future completed on the writer thread once the schedule is removed, or exceptionally with the
+     * {@link IOException} that made removing fail.
+     */
+    public static @NotNull CompletableFuture<Void> submitCancel(@NotNull Schedule schedule) {
+        boolean paused;
+        synchronized (EpicScheduler.class) {
+            paused = running.isPaused(schedule);
+            untrack(schedule, true);
+            publish();
+        }
+        ScheduleMetrics.removeHistory(schedule.dueDate());
+        Watchdog.removeOffenders(schedule.dueDate());
+
+        var future = new CompletableFuture<Void>();
+        submitWrite(() -> {
+            try {
+                persist(Collections.emptyMap(), Collections.singletonList(schedule), ScheduleMetrics.PERSISTENCE_CANCEL, "cancel");
+                future.complete(null);
+            } catch (IOException e) {
+                synchronized (EpicScheduler.class) {
+                    if (running.get(schedule.dueDate()) == null && schedule.dueDate().isAfter(LocalDateTime.now())
+                            && shouldTrack(schedule)) track(schedule, paused);
+                    publish();
+                }
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Saves and removes schedules from config, writing each touched shard once. Only the shards of the schedules are
+     * locked, so writes to schedules of different months don't wait for each other.
+     *
+     * @param toSave    The schedules to save, and whether they are paused.
+     * @param toRemove  The schedules to remove.
+     * @param histogram The histogram to record the time taken to.
+     * @param operation The name of the operation, for flight recorder events.
+     * @throws IOException If failed to load or save a shard.
+     */
+    private static void persist(@NotNull Map<Schedule, Boolean> toSave, @NotNull Collection<Schedule> toRemove,
+                                @NotNull Histogram histogram, @NotNull String operation) throws IOException {
+        SqliteStorage sqlite = database;
+        if (sqlite == null) {
+            persistShards(toSave, toRemove, histogram, operation);
+            return;
+        }
+
+        long start = ScheduleMetrics.start();
+        var event = new SchedulerEvents.PersistenceFlush();
+        event.begin();
+        var removals = new ArrayList<LocalDateTime>(toRemove.size());
+        for (Schedule schedule : toRemove) removals.add(schedule.dueDate());
+        pendingRemovals.addAll(removals);
+
+        // Not waiting for the database, the changes are already applied in memory.
+        sqlite.write(toSave, toRemove).whenComplete((result, throwable) -> {
+            removals.forEach(pendingRemovals::remove);
+            if (throwable != null) {
+                logger.log("Unable to save " + (toSave.size() + toRemove.size()) + " schedule changes to database:", ConsoleLogger.Level.ERROR);
+                throwable.printStackTrace();
+                return;
+            }
+            ScheduleMetrics.record(histogram, start);
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.schedule = (toSave.size() + toRemove.size()) + " schedules";
+                event.path = sqlite.file().toString();
+                event.commit();
+            }
+        });
+    }
+
+    private static void persistShards(@NotNull Map<Schedule, Boolean> toSave, @NotNull Collection<Schedule> toRemove,
+                                      @NotNull Histogram histogram, @NotNull String operation) throws IOException {
+        long start = ScheduleMetrics.start();
+        // Sorted, so shards are always locked in the same order.
+        var shards = new TreeMap<String, Shard>();
+        // Shards of players might be forgotten while this runs, so the shards locked are remembered for each schedule.
+        var shardOfSchedule = new HashMap<Schedule, Shard>();
+        for (Schedule schedule : toRemove) {
+            Shard shard = shardOf(schedule);
+            Shard previous = shards.putIfAbsent(lockOrder(shard), shard);
+            shardOfSchedule.put(schedule, previous == null ? shard : previous);
+        }
+        for (Schedule schedule : toSave.keySet()) {
+            Shard shard = shardOf(schedule);
+            Shard previous = shards.putIfAbsent(lockOrder(shard), shard);
+            shardOfSchedule.put(schedule, previous == null ? shard : previous);
+        }
+        var locked = new ArrayList<Shard>(shards.size());
+
+        try {
+            for (Shard shard : shards.values()) {
+                shard.lock().lock();
+                locked.add(shard);
+                shard.lockFile();
+
+                // Reloading shards changed since they were last loaded or saved, to prevent losses of these changes.
+                boolean loaded = shard.isLoaded();
+                if (loaded && !SchedulesWatcher.changedExternally(shard.path())) continue;
+                Exception exception = shard.load();
+                if (exception != null) {
+                    throw new IOException("Unable to load '" + shard.path().getFileName() + "', so it was not saved to not lose the changes made to it.", exception);
+                }
+                // The watcher did not apply the changes yet, so they are applied now.
+                if (loaded && SchedulesWatcher.isWatching() && !players.owns(shard)) applyScheduleChanges(Collections.singletonList(shard), null);
+            }
+
+            for (Schedule schedule : toRemove) {
+                Shard shard = shardOfSchedule.get(schedule);
+                shard.configuration().set(schedule.formatted(), null);
+                shard.markDirty();
+                if (!players.owns(shard)) sectionDigests.remove(schedule.dueDate());
+            }
+            for (Map.Entry<Schedule, Boolean> entry : toSave.entrySet()) {
+                Schedule schedule = entry.getKey();
+                String dueDate = schedule.formatted();
+                Shard shard = shardOfSchedule.get(schedule);
+                Configuration upToDateSchedules = shard.configuration();
+
+                upToDateSchedules.set(dueDate, null); // Removing outdated schedule section.
+                ConfigurationSection section = upToDateSchedules.createSection(dueDate);
+                writeSchedule(section, schedule, entry.getValue());
+                shard.markDirty();
+                // Reloads keep this schedule running unless its section is edited.
+                if (!players.owns(shard)) sectionDigests.put(schedule.dueDate(), SectionDigest.digest(section));
             }
 
-            Files.deleteIfExists(schedulesHolder.getPath()); // Deleting and saving config with the schedule.
-            upToDateSchedules.save(schedulesHolder.getPath());
+            var event = new SchedulerEvents.PersistenceFlush();
+            event.begin();
+            // Only the shards changed are written.
+            for (Shard shard : shards.values()) shard.save();
+            ScheduleMetrics.record(histogram, start);
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.schedule = toSave.size() + toRemove.size() == 1 ? (toSave.isEmpty() ? toRemove.iterator().next() : toSave.keySet().iterator().next()).formatted()
+                        : (toSave.size() + toRemove.size()) + " schedules";
+                event.path = shards.size() == 1 ? shards.firstEntry().getValue().path().toString() : storage.folder().toString();
+                event.commit();
+            }
+        } finally {
+            for (Shard shard : locked) {
+                shard.unlockFile();
+                shard.lock().unlock();
+                // Files of offline players are not kept in memory.
+                if (players.owns(shard)) players.unload(UUID.fromString(shard.name()));
+            }
+        }
+    }
 
-            BukkitTask previous = runningSchedules.put(schedule, Bukkit.getScheduler().runTaskLater(instance, schedule, LocalDateTime.now().until(schedule.dueDate(), ChronoUnit.SECONDS) * 20));
-            if (previous != null) previous.cancel();
+    /**
+     * Writes the schedule to the section, the same way it is written to config.
+     *
+     * @param section  The empty section of the schedule.
+     * @param schedule The schedule to write.
+     * @param paused   Whether the schedule is paused.
+     */
+    public static void writeSchedule(@NotNull ConfigurationSection section, @NotNull Schedule schedule, boolean paused) {
+        long repeat = schedule.repeat();
+        if (repeat != 0) {
+            section.set("Repeat", repeat + (repeat == 1 ? " second" : " seconds"));
+            section.set("Skip Missed Repeats", schedule.skipMissedRepeats());
         }
+        if (!schedule.tags().isEmpty()) section.set("Tags", new ArrayList<>(schedule.tags()));
+        if (schedule.priority() != Schedule.Priority.NORMAL) section.set("Priority", schedule.priority().name());
+        long splay = schedule.splay();
+        if (splay != 0) section.set("Splay", splay + (splay == 1 ? " second" : " seconds"));
+        if (paused) section.set("Paused", true);
+
+        for (ScheduleResult scheduleResult : schedule.scheduleResults()) {
+            scheduleResult.set(section.createSection(scheduleResult.resultName()));
+        }
+    }
+
+    /**
+     * Adds the schedule to the running schedules and their indexes, replacing any schedule with the same due date.
+     *
+     * @param schedule The schedule to run.
+     * @param paused   Whether the schedule should be kept without a task, so it does not run until resumed.
+     */
+    private static void track(@NotNull Schedule schedule, boolean paused) {
+        // A schedule with the same date was replaced in config, so it should not run anymore.
+        Schedule replaced = running.get(schedule.dueDate());
+        if (replaced != null) untrack(replaced, true);
+
+        // Schedules with a splay window fire a few ticks after their due date, so schedules due together are spread out.
+        // Schedules past due are spread from now, instead of all running on the next tick.
+        long delay = Math.max(0, LocalDateTime.now().until(schedule.dueDate(), ChronoUnit.SECONDS));
+        running.add(schedule, paused ? null : Bukkit.getScheduler().runTaskLater(instance, schedule, delay * 20 + schedule.splayTicks()));
+        CompletionIndex.DATES.add(schedule.formatted());
+        ScheduleMetrics.setPending(running.size());
     }
 
+    /**
+     * Removes the schedule from the running schedules and their indexes.
+     *
+     * @param schedule   The schedule to remove.
+     * @param cancelTask Whether the task of the schedule should be cancelled.
+     */
+    private static void untrack(@NotNull Schedule schedule, boolean cancelTask) {
+        if (!running.contains(schedule)) return;
+        BukkitTask task = running.remove(schedule);
+        if (cancelTask && task != null) task.cancel();
+        CompletionIndex.DATES.remove(schedule.formatted());
+        ScheduleMetrics.setPending(running.size());
+    }
+
+    /**
+     * Publishes a snapshot of the running schedules, if they changed since the last one. Must be called while holding
+     * the lock of this class, at the end of every block that tracks or untracks schedules.
+     */
+    private static void publish() {
+        running.publish();
+    }
+
+    /**
+     * Runs the task on the writer thread, after the tasks submitted before it.
+     *
+     * @param task The write to run.
+     */
+    static void submitWrite(@NotNull Runnable task) {
+        writer.execute(task);
+    }
+
+    /**
+     * @return The running schedules and their indexes, as of the last change.
+     */
+    public static @NotNull ScheduleSnapshot getSnapshot() {
+        return running.snapshot();
+    }
+
+    /**
+     * @return The running schedules, as of the last change. The set is a snapshot, and never changes.
+     */
     public static @NotNull Set<Schedule> getSchedules() {
-        LocalDateTime now = LocalDateTime.now();
-        // Removing any already due schedules.
-        runningSchedules.keySet().removeIf((schedule) -> now.until(schedule.dueDate(), ChronoUnit.SECONDS) <= 0);
-        return unmodifiableSchedules;
+        return running.snapshot().schedules();
+    }
+
+    /**
+     * @return The running schedules sorted by their due date, as of the last change. The map is a snapshot, and never
+     * changes.
+     */
+    public static @NotNull NavigableMap<LocalDateTime, Schedule> getSortedSchedules() {
+        return running.snapshot().sorted();
+    }
+
+    /**
+     * @param dueDate The due date of the schedule.
+     * @return The running schedule with the due date, or null if there is none.
+     */
+    public static @Nullable Schedule getSchedule(@NotNull LocalDateTime dueDate) {
+        return running.snapshot().get(dueDate);
+    }
+
+    /**
+     * @param tag The tag of the schedules.
+     * @return The running schedules with the tag, as of the last change.
+     */
+    public static @NotNull Set<Schedule> getSchedules(@NotNull String tag) {
+        return running.snapshot().tagged(tag);
+    }
+
+    /**
+     * @return The tags of all running schedules, as of the last change.
+     */
+    public static @NotNull Set<String> getTags() {
+        return running.snapshot().tagged().keySet();
+    }
+
+    /**
+     * @param schedule The schedule to check.
+     * @return Whether the schedule is running, but paused.
+     */
+    public static boolean isPaused(@NotNull Schedule schedule) {
+        return running.snapshot().isPaused(schedule);
+    }
+
+    /**
+     * Forgets a schedule that was fired by another server of the cluster. That server saves the removal and the next
+     * repeat of the schedule, so this server only updates what it keeps in memory.
+     *
+     * @param schedule   The schedule fired by another server.
+     * @param nextRepeat The next repeat of the schedule, or null if it does not repeat.
+     */
+    static void skipSchedule(@NotNull Schedule schedule, @Nullable Schedule nextRepeat) {
+        synchronized (EpicScheduler.class) {
+            untrack(schedule, false);
+            if (nextRepeat != null && shouldTrack(nextRepeat)) track(nextRepeat, false);
+            publish();
+        }
+        if (nextRepeat != null) {
+            ScheduleMetrics.moveHistory(schedule.dueDate(), nextRepeat.dueDate());
+            Watchdog.moveOffenders(schedule.dueDate(), nextRepeat.dueDate());
+        } else {
+            ScheduleMetrics.removeHistory(schedule.dueDate());
+            Watchdog.removeOffenders(schedule.dueDate());
+        }
     }
 
     public static void cancelSchedule(@NotNull Schedule schedule) throws IOException {
         // Do not call remove straight away, because config save might fail.
-        BukkitTask task = runningSchedules.get(schedule);
-        if (task == null) return;
+        persist(Collections.emptyMap(), Collections.singletonList(schedule), ScheduleMetrics.PERSISTENCE_CANCEL, "cancel");
+        synchronized (EpicScheduler.class) {
+            untrack(schedule, true);
+            publish();
+        }
+    }
 
-        ConfigurationHolder schedulesHolder = Configurations.schedules;
+    /**
+     * Cancels the schedules and removes them from config in a single write.
+     *
+     * @param schedules The schedules to cancel.
+     * @return The amount of schedules cancelled.
+     * @throws IOException If failed to save the config.
+     */
+    public static int cancelSchedules(@NotNull Collection<Schedule> schedules) throws IOException {
+        List<Schedule> cancelled = new ArrayList<>(schedules);
+        ScheduleSnapshot snapshot = running.snapshot();
+        cancelled.removeIf(schedule -> !snapshot.contains(schedule));
+        if (cancelled.isEmpty()) return 0;
+
+        persist(Collections.emptyMap(), cancelled, ScheduleMetrics.PERSISTENCE_CANCEL, "cancel");
         synchronized (EpicScheduler.class) {
-            // Reloading to prevent losses of any changes made to the config since last reload.
-            // If schedules config fails to load, that's no issue, because it will be replaced by the last instance of
-            //successfully loaded config. So it's safe to ignore the result.
-            Configurations.loader.loadConfigurations();
-            Configuration upToDateSchedules = schedulesHolder.getConfiguration();
+            for (Schedule schedule : cancelled) untrack(schedule, true);
+            publish();
+        }
+        for (Schedule schedule : cancelled) {
+            ScheduleMetrics.removeHistory(schedule.dueDate());
+            Watchdog.removeOffenders(schedule.dueDate());
+        }
+        return cancelled.size();
+    }
 
-            upToDateSchedules.set(schedule.formatted(), null);
-            Files.deleteIfExists(schedulesHolder.getPath()); // Deleting and saving config without the schedule.
-            upToDateSchedules.save(schedulesHolder.getPath());
-            task.cancel();
-            runningSchedules.remove(schedule);
+    /**
+     * Pauses the schedules, cancelling their tasks while keeping them in the running schedules. The paused state is
+     * saved to config in a single write.
+     *
+     * @param schedules The schedules to pause.
+     * @return The amount of schedules that were paused.
+     * @throws IOException If failed to save the config.
+     */
+    public static int pauseSchedules(@NotNull Collection<Schedule> schedules) throws IOException {
+        return setPaused(schedules, true);
+    }
+
+    /**
+     * Resumes paused schedules, creating their tasks again. Schedules that became due while paused run right away.
+     * The resumed state is saved to config in a single write.
+     *
+     * @param schedules The schedules to resume.
+     * @return The amount of schedules that were resumed.
+     * @throws IOException If failed to save the config.
+     */
+    public static int resumeSchedules(@NotNull Collection<Schedule> schedules) throws IOException {
+        return setPaused(schedules, false);
+    }
+
+    private static int setPaused(@NotNull Collection<Schedule> schedules, boolean paused) throws IOException {
+        var toSave = new HashMap<Schedule, Boolean>();
+        for (Schedule schedule : schedules) {
+            if (running.snapshot().contains(schedule) && isPaused(schedule) != paused) toSave.put(schedule, paused);
         }
+        if (toSave.isEmpty()) return 0;
+
+        persist(toSave, Collections.emptyList(), ScheduleMetrics.PERSISTENCE_SET, paused ? "pause" : "resume");
+        synchronized (EpicScheduler.class) {
+            for (Schedule schedule : toSave.keySet()) track(schedule, paused);
+            publish();
+        }
+        return toSave.size();
     }
 
     /**
-     * Cancels all running schedules, reloads configurations, and resets the schedules saved in config {@link Configurations#schedules}.
+     * Cancels all running schedules, reloads configurations, and resets the schedules saved in the schedule shards.
+     * Must be called on the main thread.
      * <p>
      *
-     * @return Whether schedules were set successfully.
+     * @return A future completed with whether schedules were set successfully, once they are set.
      */
-    public static boolean resetSchedules() {
+    public static @NotNull CompletableFuture<Boolean> resetSchedules() {
         if (instance == null)
             throw new UnsupportedOperationException("Cannot run tasks while EpicScheduler is unloaded.");
+        reloadConfigurations();
+        return resetStoredSchedules();
+    }
+
+    /**
+     * Cancels all running schedules, and sets the schedules saved in the schedule shards or database again, without
+     * reloading configurations.
+     *
+     * @return A future completed with whether schedules were set successfully, once they are set.
+     */
+    private static @NotNull CompletableFuture<Boolean> resetStoredSchedules() {
         logger.log("Resetting saved schedules...");
 
-        if (!runningSchedules.isEmpty()) {
-            int size = runningSchedules.size();
-            // Canceling all previous schedules.
-            runningSchedules.entrySet().removeIf((entry) -> {
-                entry.getValue().cancel();
-                return true;
-            });
-            logger.log(size + " already running schedule" + (size == 1 ? " was" : "s were") + " cancelled.");
+        Watchdog.reset();
+        ScheduleMetrics.reset();
+        ResultPool.clear();
+        synchronized (EpicScheduler.class) {
+            if (running.size() != 0) {
+                int size = running.size();
+                // Canceling all previous schedules.
+                for (Schedule schedule : running.schedules()) untrack(schedule, true);
+                logger.log(size + " already running schedule" + (size == 1 ? " was" : "s were") + " cancelled.");
+            }
+            // Forgetting the digests so every schedule in config is set again.
+            sectionDigests.clear();
+            publish();
         }
 
-        if (reloadConfigurations()) {
-            logger.log("Because schedules config failed to load, all previous schedules were cancelled and there are no schedules running.", ConsoleLogger.Level.ERROR);
-            return false;
-        }
+        return reloadStoredSchedules().thenApply(result -> {
+            // Files of players are loaded off the main thread, the same way as when they join.
+            for (Player player : Bukkit.getOnlinePlayers()) armPlayer(player.getUniqueId());
+            if (result == null) {
+                logger.log("Because some schedule files failed to load, their schedules were cancelled and are not running.", ConsoleLogger.Level.ERROR);
+                return false;
+            }
+            return true;
+        });
+    }
 
-        List<Schedule> schedules = parseSchedules();
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * Arms the schedules of a player that joined, or that is online during a reset, loading them from their file off
+     * the main thread.
+     *
+     * @param player The online player.
+     */
+    static void armPlayer(@NotNull UUID player) {
+        players.arm(player);
+        Bukkit.getScheduler().runTaskAsynchronously(instance, () -> {
+            loadPlayer(player);
+            // Delivered after loading, so it includes the results of schedules that became due while offline.
+            Mailbox.deliver(player);
+        });
+    }
 
-        // Read schedules from config and set them
-        for (Schedule schedule : schedules) {
-            runningSchedules.put(schedule, Bukkit.getScheduler().runTaskLater(instance, schedule, now.until(schedule.dueDate(), ChronoUnit.SECONDS) * 20));
-        }
-        if (runningSchedules.isEmpty()) {
-            logger.log("No saved schedules were found.");
-        } else {
-            logger.log(runningSchedules.size() + (runningSchedules.size() == 1 ? " schedule was" : " schedules were") + " set from config.");
+    /**
+     * Cancels the running schedules of a player that quit, and forgets their file.
+     *
+     * @param player The player that quit.
+     */
+    static void disarmPlayer(@NotNull UUID player) {
+        players.disarm(player);
+        // Schedules in the database are not kept by player.
+        if (database != null) return;
+        synchronized (EpicScheduler.class) {
+            for (Schedule schedule : running.owned(player)) untrack(schedule, true);
+            publish();
         }
-        return true;
     }
 
-    private static @NotNull List<Schedule> parseSchedules() {
-        Configuration schedulesConfig = Configurations.schedules.getConfiguration();
-        Set<Map.Entry<String, Object>> scheduleNodes = schedulesConfig.getNodes().entrySet();
-        List<Schedule> schedules = new ArrayList<>(scheduleNodes.size());
-        List<String> toRemove = new ArrayList<>();
+    /**
+     * Loads the file of an armed player and sets their schedules. Schedules that became due while the player was
+     * offline are removed, or moved to their next repeat, and their results are posted to the mailbox if enabled, or
+     * logged as not performed otherwise.
+     *
+     * @param player The armed player.
+     */
+    private static void loadPlayer(@NotNull UUID player) {
+        if (database != null || !players.isArmed(player)) return;
+        Shard shard = players.shard(player);
+        var toTrack = new LinkedHashMap<Schedule, Boolean>();
+        var expired = new ArrayList<Schedule>();
+        var repeats = new LinkedHashMap<Schedule, Boolean>();
 
-        for (var scheduleNode : scheduleNodes) {
-            if (!(scheduleNode.getValue() instanceof ConfigurationSection section)) continue;
-            String sectionName = scheduleNode.getKey();
-            LocalDateTime dueDate;
-            try {
-                dueDate = LocalDateTime.parse(sectionName, TIME_FORMATTER);
-            } catch (DateTimeParseException ignored) {
-                logger.log("Schedule '" + sectionName + "' has an unknown date.", ConsoleLogger.Level.WARN);
-                continue;
+        shard.lock().lock();
+        try {
+            if (!Files.exists(shard.path())) return;
+            Exception exception = shard.load();
+            if (exception != null) {
+                logger.log("'" + shard.path().getFileName() + "' could not be loaded due to an exception, the schedules of the player will not be set:", ConsoleLogger.Level.ERROR);
+                exception.printStackTrace();
+                return;
             }
-            List<ScheduleResult> scheduleResults = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
 
-            for (Map.Entry<String, Object> resultNode : section.getNodes().entrySet()) {
-                if (resultNode.getValue() instanceof ConfigurationSection resultSection) {
-                    ScheduleResult result = parseScheduleResult(sectionName, resultNode.getKey(), resultSection);
-                    if (result != null) scheduleResults.add(result);
+            for (var scheduleNode : shard.configuration().getNodes().entrySet()) {
+                if (!(scheduleNode.getValue() instanceof ConfigurationSection section)) continue;
+                LocalDateTime dueDate;
+                try {
+                    dueDate = LocalDateTime.parse(scheduleNode.getKey(), TIME_FORMATTER);
+                } catch (DateTimeParseException e) {
+                    logger.log("Schedule '" + scheduleNode.getKey() + "' of '" + shard.path().getFileName() + "' has an unknown date.", ConsoleLogger.Level.WARN);
+                    continue;
                 }
-            }
+                Schedule schedule = parseSchedule(scheduleNode.getKey(), dueDate, section);
+                boolean paused = section.getBoolean("Paused").orElse(false);
 
-            if (LocalDateTime.now().until(dueDate, ChronoUnit.SECONDS) <= 0) toRemove.add(sectionName);
-            schedules.add(new Schedule(dueDate, Collections.unmodifiableList(scheduleResults), parseRepeat(section.getString("Repeat").orElse("")), section.getBoolean("Skip Missed Repeats").orElse(false)));
+                if (!paused && !dueDate.isAfter(now)) {
+                    expired.add(schedule);
+                    if (Mailbox.isEnabled()) {
+                        long dueTime = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                        for (ScheduleResult scheduleResult : schedule.scheduleResults()) {
+                            Mailbox.post(player, scheduleResult.pick(), dueTime);
+                        }
+                    } else {
+                        logger.log("Schedule '" + scheduleNode.getKey() + "' of '" + shard.path().getFileName()
+                                + "' became due while its player was offline, so its results were not performed. Enable 'Mailbox' in config to deliver them when the player joins.", ConsoleLogger.Level.WARN);
+                    }
+                    Schedule repeat = schedule.repeatAfter(now);
+                    if (repeat != null) repeats.put(repeat, false);
+                } else {
+                    toTrack.put(schedule, paused);
+                }
+            }
+        } finally {
+            shard.lock().unlock();
         }
 
-        for (String key : toRemove) schedulesConfig.set(key, null);
-
-        if (!toRemove.isEmpty()) {
+        if (!expired.isEmpty()) {
             try {
-                Files.deleteIfExists(Configurations.schedules.getPath());
-                schedulesConfig.save(Configurations.schedules.getPath());
-                if (toRemove.size() == 1) {
-                    logger.log("Schedule " + toRemove + " was removed from config because its due time was already met.");
-                } else {
-                    logger.log("Schedules " + toRemove + " were removed from config because their due time was already met.");
-                }
+                persistShards(repeats, expired, ScheduleMetrics.PERSISTENCE_CANCEL, "expire");
+                toTrack.putAll(repeats);
             } catch (IOException e) {
-                logger.log("Unable to remove " + toRemove + " due schedules from config. Because of this, the plugin might run the results again the next time schedules are reset, or the next server start!", ConsoleLogger.Level.ERROR);
+                logger.log("Unable to remove schedules that became due while their player was offline from '" + shard.path().getFileName() + "':", ConsoleLogger.Level.ERROR);
                 e.printStackTrace();
             }
         }
 
-        return schedules;
+        synchronized (EpicScheduler.class) {
+            // The player might have quit while their file was loaded.
+            if (!players.isArmed(player)) return;
+            toTrack.forEach(EpicScheduler::track);
+            publish();
+        }
     }
 
-    private static @Nullable ScheduleResult parseScheduleResult(@NotNull String scheduleName, @NotNull String name, @NotNull ConfigurationSection resultSection) {
-        Set<Map.Entry<String, Object>> resultNodes = resultSection.getNodes().entrySet();
-        var results = new ArrayList<Result>(resultNodes.size());
-        boolean targetable = true;
-
-        switch (name.toLowerCase(Locale.ROOT)) {
-            case "action bars" -> {
-                for (var node : resultNodes) {
-                    if (!(node.getValue() instanceof ConfigurationSection section)) continue;
-                    String text = section.getString("Text").orElse("");
-                    if (text.isBlank()) continue;
-                    results.add(new ActionBar.Record(color(text)));
+    /**
+     * Reloads configurations and applies only the changes made to the schedule shards since they were last loaded or
+     * saved. Each schedule section is digested and compared with the digest of the section the running schedule was set
+     * from, so schedules whose sections were not touched are kept running without being parsed again.
+     *
+     * @return A future completed with the amount of schedules kept, added, changed and removed, or with null if a shard
+     * failed to load, in which case the running schedules of that shard are left as they are. Must be called on the
+     * main thread.
+     */
+    public static @NotNull CompletableFuture<ReloadResult> reloadSchedules() {
+        if (instance == null)
+            throw new UnsupportedOperationException("Cannot run tasks while EpicScheduler is unloaded.");
+        reloadConfigurations();
+        return reloadStoredSchedules();
+    }
+
+    private static @NotNull CompletableFuture<ReloadResult> reloadStoredSchedules() {
+        Set<Shard> failures = reloadShards();
+        SqliteStorage sqlite = database;
+        if (sqlite != null) return reloadDatabase(sqlite);
+        var loaded = new ArrayList<>(storage.shards());
+        loaded.removeAll(failures);
+        ReloadResult result = applyScheduleChanges(loaded, failures);
+        return CompletableFuture.completedFuture(failures.isEmpty() ? result : null);
+    }
+
+    /**
+     * Compares the schedules due within the window in the database with the running schedules, and sets, replaces or
+     * cancels the ones that differ.
+     *
+     * @param sqlite The database to load the schedules from.
+     * @return A future completed with the amount of schedules kept, added, changed and removed, or with null if the
+     * database could not be read.
+     */
+    private static @NotNull CompletableFuture<ReloadResult> reloadDatabase(@NotNull SqliteStorage sqlite) {
+        return sqlite.load(LocalDateTime.now().plusSeconds(window)).handle((stored, throwable) -> {
+            if (throwable != null) {
+                logger.log("Unable to load schedules from database, running schedules were left as they were:", ConsoleLogger.Level.ERROR);
+                throwable.printStackTrace();
+                return null;
+            }
+            return applyDatabaseChanges(stored);
+        });
+    }
+
+    private static @NotNull ReloadResult applyDatabaseChanges(@NotNull List<SqliteStorage.Stored> stored) {
+        int kept = 0, added = 0, changed = 0, removed = 0;
+
+        synchronized (EpicScheduler.class) {
+            var dueDates = new HashSet<LocalDateTime>((int) (stored.size() / .75f) + 1);
+            for (SqliteStorage.Stored entry : stored) {
+                Schedule schedule = entry.schedule();
+                dueDates.add(schedule.dueDate());
+                Schedule current = running.get(schedule.dueDate());
+                if (schedule.equals(current) && running.isPaused(current) == entry.paused()) {
+                    ++kept;
+                    continue;
                 }
+                if (current == null) ++added;
+                else ++changed;
+                track(schedule, entry.paused());
             }
-            case "boss bars" -> {
-                for (var node : resultNodes) {
-                    if (!(node.getValue() instanceof ConfigurationSection section)) continue;
-                    BarColor color = null;
-                    BarStyle style = null;
+            for (Schedule schedule : running.schedules()) {
+                if (dueDates.contains(schedule.dueDate())) continue;
+                untrack(schedule, true);
+                ++removed;
+            }
+            Set<LocalDateTime> runningDates = running.dueDates();
+            ScheduleMetrics.retainHistories(runningDates);
+            Watchdog.retainOffenders(runningDates);
+            publish();
+        }
+
+        logger.log("Schedules were reloaded from database: " + kept + " kept, " + added + " added, " + changed
+                + " changed and " + removed + " removed.");
+        return new ReloadResult(kept, added, changed, removed);
+    }
+
+    /**
+     * Copies all schedules stored in YAML to the database in the configured file.
+     *
+     * @return A future completed with the amount of schedules copied, once they are written to the database.
+     * @throws IOException If failed to read the shards.
+     */
+    public static @NotNull CompletableFuture<Integer> importToDatabase() throws IOException {
+        Map<Shard, Exception> failures = storage.loadAll();
+        if (!failures.isEmpty()) {
+            throw new IOException("'" + failures.keySet().iterator().next().path().getFileName() + "' could not be loaded.", failures.values().iterator().next());
+        }
+        var schedules = new HashMap<Schedule, Boolean>();
+        for (Shard shard : storage.shards()) {
+            shard.lock().lock();
+            try {
+                for (var scheduleNode : shard.configuration().getNodes().entrySet()) {
+                    if (!(scheduleNode.getValue() instanceof ConfigurationSection section)) continue;
                     try {
-                        String title = section.getString("Title").orElse("");
-                        if (title.isBlank()) continue;
-                        color = BarColor.valueOf(section.getString("Color").orElse("PINK"));
-                        style = BarStyle.valueOf(section.getString("Style").orElse("SOLID"));
-                        double progress = section.getNumber("Progress").orElse(0.0).doubleValue();
-                        if (progress > 1.0) progress = 1.0;
-                        if (progress < 0.0) progress = 0.0;
-                        results.add(new BossBar.Record(color(title), color, style, progress));
-                    } catch (Exception ignored) {
-                        if (color == null)
-                            logger.log("Boss bar result " + node.getKey() + " of '" + scheduleName + "' has an unknown color: " + section.getString("Color").orElse(""));
-                        else if (style == null)
-                            logger.log("Boss bar result " + node.getKey() + " of '" + scheduleName + "' has an unknown style: " + section.getString("Style").orElse(""));
+                        LocalDateTime dueDate = LocalDateTime.parse(scheduleNode.getKey(), TIME_FORMATTER);
+                        schedules.put(parseSchedule(scheduleNode.getKey(), dueDate, section), section.getBoolean("Paused").orElse(false));
+                    } catch (DateTimeParseException e) {
+                        logger.log("Schedule '" + scheduleNode.getKey() + "' has an unknown date and was not imported.", ConsoleLogger.Level.WARN);
                     }
                 }
+            } finally {
+                shard.lock().unlock();
+            }
+        }
+
+        return useDatabase(sqlite -> sqlite.write(schedules, Collections.emptyList())).thenApply(ignored -> schedules.size());
+    }
+
+    /**
+     * Copies all schedules stored in the database in the configured file to YAML. The shards are written on the
+     * writer thread.
+     *
+     * @return A future completed with the amount of schedules copied, or completed exceptionally if failed to read the
+     * database or to write the shards.
+     */
+    public static @NotNull CompletableFuture<Integer> exportFromDatabase() {
+        return useDatabase(SqliteStorage::loadAll).thenApplyAsync(stored -> {
+            var schedules = new HashMap<Schedule, Boolean>((int) (stored.size() / .75f) + 1);
+            for (SqliteStorage.Stored entry : stored) schedules.put(entry.schedule(), entry.paused());
+            try {
+                persistShards(schedules, Collections.emptyList(), ScheduleMetrics.PERSISTENCE_SET, "export");
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
-            case "chat messages" -> {
-                for (var node : resultNodes) {
-                    if (!(node.getValue() instanceof ConfigurationSection section)) continue;
-                    String text = section.getString("Text").orElse("");
-                    if (text.isBlank()) continue;
-                    results.add(new ChatMessage.Record(color(text)));
+            // Exported schedules are not running, so the next reload must see them as added.
+            synchronized (EpicScheduler.class) {
+                for (Schedule schedule : schedules.keySet()) {
+                    if (running.get(schedule.dueDate()) != schedule) sectionDigests.remove(schedule.dueDate());
                 }
             }
-            case "commands" -> {
-                targetable = false;
-                for (var node : resultNodes) {
-                    if (!(node.getValue() instanceof ConfigurationSection section)) continue;
-                    List<Command.CommandValue> commandValues = section.getCollection("Values", (obj) -> Command.CommandValue.Record.parseCommandValue(obj.toString()));
-                    if (commandValues.isEmpty()) continue;
-                    results.add(new Command.Record(Collections.unmodifiableList(commandValues)));
+            return schedules.size();
+        }, writer);
+    }
+
+    /**
+     * Passes the section of every stored schedule to the consumer, with the name of the section. Schedules stored in
+     * YAML are passed a shard at a time, while holding the lock of the shard, and files of players are only kept in
+     * memory while their schedules are passed, on the calling thread. Schedules stored in the database are loaded all
+     * at once, and passed off the thread of the database once loaded.
+     *
+     * @param consumer The consumer of the name and section of each schedule. Sections must not be changed.
+     * @return A future completed once every schedule was passed, or completed exceptionally if failed to read the
+     * shards or the database, or if the consumer threw an {@link UncheckedIOException}.
+     */
+    public static @NotNull CompletableFuture<Void> forEachStoredSchedule(@NotNull BiConsumer<String, ConfigurationSection> consumer) {
+        SqliteStorage sqlite = database;
+        if (sqlite != null) {
+            return sqlite.loadAll().thenAcceptAsync(stored -> {
+                for (SqliteStorage.Stored entry : stored) {
+                    ConfigurationSection section = ScheduleTransfer.newSection();
+                    writeSchedule(section, entry.schedule(), entry.paused());
+                    consumer.accept(entry.schedule().formatted(), section);
+                }
+            });
+        }
+        try {
+            forEachShardSchedule(consumer);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } catch (UncheckedIOException e) {
+            return CompletableFuture.failedFuture(e.getCause());
+        }
+    }
+
+    private static void forEachShardSchedule(@NotNull BiConsumer<String, ConfigurationSection> consumer) throws IOException {
+        Map<Shard, Exception> failures = storage.loadAll();
+        if (!failures.isEmpty()) {
+            throw new IOException("'" + failures.keySet().iterator().next().path().getFileName() + "' could not be loaded.", failures.values().iterator().next());
+        }
+        for (Shard shard : storage.shards()) forEachSection(shard, consumer);
+
+        if (!Files.isDirectory(players.folder())) return;
+        var owners = new ArrayList<UUID>();
+        try (var files = Files.list(players.folder())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".yml")) continue;
+                try {
+                    owners.add(UUID.fromString(name.substring(0, name.length() - 4)));
+                } catch (IllegalArgumentException ignored) {
                 }
             }
-            case "titles" -> {
-                for (var node : resultNodes) {
-                    if (!(node.getValue() instanceof ConfigurationSection section)) continue;
-                    String title = section.getString("Title").orElse("");
-                    String subtitle = section.getString("Subtitle").orElse("");
-                    if (title.isBlank() || subtitle.isBlank()) continue;
-                    int fadeIn = section.getNumber("Fade In").orElse(10).intValue();
-                    int stay = section.getNumber("Stay").orElse(70).intValue();
-                    int fadeOut = section.getNumber("Fade Out").orElse(20).intValue();
-                    results.add(new Title.Record(color(title), color(subtitle), fadeIn, stay, fadeOut));
+        }
+        for (UUID owner : owners) {
+            Shard shard = players.shard(owner);
+            try {
+                if (!shard.isLoaded()) {
+                    Exception exception = shard.load();
+                    if (exception != null) throw new IOException("'" + shard.path().getFileName() + "' could not be loaded.", exception);
                 }
+                forEachSection(shard, consumer);
+            } finally {
+                players.unload(owner);
             }
-            default -> {
-                logger.log('\'' + scheduleName + "' schedule has an unknown result: " + name);
-                return null;
+        }
+    }
+
+    private static void forEachSection(@NotNull Shard shard, @NotNull BiConsumer<String, ConfigurationSection> consumer) {
+        shard.lock().lock();
+        try {
+            for (var scheduleNode : shard.configuration().getNodes().entrySet()) {
+                if (scheduleNode.getValue() instanceof ConfigurationSection section) consumer.accept(scheduleNode.getKey(), section);
             }
+        } finally {
+            shard.lock().unlock();
         }
+    }
 
-        boolean random = resultSection.getString("Pick").orElse("ALL").equals("RANDOM");
-        String target = resultSection.getString("Target").orElse("");
+    private static <T> @NotNull CompletableFuture<T> useDatabase(@NotNull Function<SqliteStorage, CompletableFuture<T>> query) {
+        SqliteStorage sqlite = database;
+        if (sqlite != null) return query.apply(sqlite);
 
-        if (target.isBlank()) {
-            target = null;
-            if (targetable) {
-                logger.log("Result " + name + " of '" + scheduleName + "' is targetable, yet it has no specified target.", ConsoleLogger.Level.WARN);
-                return null;
+        var temporary = new SqliteStorage(folder.resolve(Configurations.config.getConfiguration().getString("Storage.SQLite.File").orElse("schedules.db")));
+        return temporary.open().thenCompose(ignored -> query.apply(temporary))
+                // Closing waits for the statements of the database, so it is not done on the thread of the database.
+                .whenComplete((result, throwable) -> submitWrite(temporary::close));
+    }
+
+    /**
+     * Reloads only the shards of the files changed outside the plugin and applies their changes, when the watcher sees
+     * them.
+     *
+     * @param files The shard files that were changed.
+     */
+    private static void reloadWatchedSchedules(@NotNull Collection<Path> files) {
+        if (instance == null) return;
+        var loaded = new ArrayList<Shard>(files.size());
+
+        for (Path file : files) {
+            Shard shard = storage.shard(file);
+            if (shard == null) continue;
+            logger.log("'" + file.getFileName() + "' was changed, applying changes...");
+            Exception exception = shard.load();
+            if (exception != null) {
+                logger.log("'" + file.getFileName() + "' could not be loaded due to an exception, its running schedules were left as they were:", ConsoleLogger.Level.ERROR);
+                exception.printStackTrace();
+                continue;
+            }
+            loaded.add(shard);
+        }
+        if (!loaded.isEmpty()) applyScheduleChanges(loaded, null);
+    }
+
+    /**
+     * Compares the schedules in the shards with the running schedules, and sets, replaces or cancels the schedules
+     * whose sections were added, changed or removed.
+     *
+     * @param shards   The loaded shards to apply.
+     * @param failures The shards that failed to load if all shards were reloaded, or null if only the shards to apply
+     *                 were reloaded. Running schedules of other shards are only cancelled if all shards were reloaded
+     *                 and their shard did not fail.
+     * @return The amount of schedules kept, added, changed and removed.
+     */
+    private static @NotNull ReloadResult applyScheduleChanges(@NotNull Collection<Shard> shards, @Nullable Set<Shard> failures) {
+        var event = new SchedulerEvents.ConfigLoad();
+        event.begin();
+        var reloaded = new HashSet<String>();
+        var dueDates = new HashSet<LocalDateTime>();
+        var toTrack = new LinkedHashMap<Schedule, Boolean>();
+        var toRemove = new HashMap<Shard, List<String>>();
+        var toMove = new HashMap<Shard, Map<Schedule, Boolean>>();
+        int kept = 0, added = 0, changed = 0, removed = 0;
+
+        for (Shard shard : shards) {
+            reloaded.add(shard.name());
+            shard.lock().lock();
+            try {
+                for (var scheduleNode : shard.configuration().getNodes().entrySet()) {
+                    if (!(scheduleNode.getValue() instanceof ConfigurationSection section)) continue;
+                    String sectionName = scheduleNode.getKey();
+                    LocalDateTime dueDate;
+                    try {
+                        dueDate = LocalDateTime.parse(sectionName, TIME_FORMATTER);
+                    } catch (DateTimeParseException ignored) {
+                        logger.log("Schedule '" + sectionName + "' has an unknown date.", ConsoleLogger.Level.WARN);
+                        continue;
+                    }
+                    if (!ShardedStorage.shardName(dueDate).equals(shard.name())) {
+                        logger.log("Schedule '" + sectionName + "' must be in '" + ShardedStorage.shardName(dueDate) + ".yml' instead of '" + shard.path().getFileName() + "' and was ignored.", ConsoleLogger.Level.WARN);
+                        continue;
+                    }
+                    dueDates.add(dueDate);
+
+                    String digest = SectionDigest.digest(section);
+                    String previous = sectionDigests.put(dueDate, digest);
+                    if (digest.equals(previous)) {
+                        ++kept;
+                        continue;
+                    }
+
+                    boolean paused = section.getBoolean("Paused").orElse(false);
+                    Schedule schedule = parseSchedule(sectionName, dueDate, section);
+                    if (PlayerStore.owner(schedule) != null) {
+                        // Schedules of a single player are moved to the file of the player.
+                        sectionDigests.remove(dueDate);
+                        dueDates.remove(dueDate);
+                        toMove.computeIfAbsent(shard, k -> new LinkedHashMap<>()).put(schedule, paused);
+                        continue;
+                    }
+                    if (!paused && LocalDateTime.now().until(dueDate, ChronoUnit.SECONDS) <= 0) {
+                        toRemove.computeIfAbsent(shard, k -> new ArrayList<>()).add(sectionName);
+                    }
+                    if (previous == null) ++added;
+                    else ++changed;
+                    toTrack.put(schedule, paused);
+                }
+            } finally {
+                shard.lock().unlock();
+            }
+        }
+
+        Set<String> failed = new HashSet<>();
+        if (failures != null) for (Shard shard : failures) failed.add(shard.name());
+
+        synchronized (EpicScheduler.class) {
+            toTrack.forEach(EpicScheduler::track);
+
+            // Schedules that are running but no longer in config.
+            for (Schedule schedule : running.schedules()) {
+                // Schedules of players are kept in the files of the players.
+                if (dueDates.contains(schedule.dueDate()) || PlayerStore.owner(schedule) != null) continue;
+                String shard = ShardedStorage.shardName(schedule.dueDate());
+                if (failures == null ? !reloaded.contains(shard) : failed.contains(shard)) continue;
+                untrack(schedule, true);
+                ++removed;
+            }
+            sectionDigests.keySet().removeIf(dueDate -> {
+                if (dueDates.contains(dueDate)) return false;
+                String shard = ShardedStorage.shardName(dueDate);
+                return failures == null ? reloaded.contains(shard) : !failed.contains(shard);
+            });
+
+            // Histories of schedules that are no longer running are not needed anymore.
+            Set<LocalDateTime> runningDates = running.dueDates();
+            ScheduleMetrics.retainHistories(runningDates);
+            Watchdog.retainOffenders(runningDates);
+            publish();
+        }
+
+        if (event.shouldCommit()) {
+            event.phase = "parse";
+            event.schedules = added + changed;
+            event.commit();
+        }
+
+        toRemove.forEach(EpicScheduler::removeDueSections);
+        toMove.forEach(EpicScheduler::moveToPlayers);
+
+        if (running.snapshot().size() == 0) {
+            logger.log("No saved schedules were found.");
+        } else {
+            logger.log("Schedules were reloaded from config: " + kept + " kept, " + added + " added, " + changed
+                    + " changed and " + removed + " removed.");
+        }
+        return new ReloadResult(kept, added, changed, removed);
+    }
+
+    /**
+     * Reads a schedule from its config section. Results that fail to parse are logged and left out.
+     *
+     * @param sectionName The name of the section, for logging.
+     * @param dueDate     The due date of the schedule.
+     * @param section     The section of the schedule.
+     * @return The schedule read, which might have no results.
+     */
+    public static @NotNull Schedule parseSchedule(@NotNull String sectionName, @NotNull LocalDateTime dueDate, @NotNull ConfigurationSection section) {
+        List<ScheduleResult> scheduleResults = new ArrayList<>();
+
+        for (Map.Entry<String, Object> resultNode : section.getNodes().entrySet()) {
+            if (resultNode.getValue() instanceof ConfigurationSection resultSection) {
+                ScheduleResult result = parseScheduleResult(sectionName, resultNode.getKey(), resultSection);
+                if (result != null) scheduleResults.add(result);
             }
-        } else if (target.equals("EVERYONE")) target = "!EVERYONE";
+        }
 
-        return new ScheduleResult.Record(name, random, Collections.unmodifiableList(results), target);
+        Set<String> tags = new HashSet<>(section.getCollection("Tags", Object::toString));
+        Schedule.Priority priority = Schedule.Priority.NORMAL;
+        String priorityName = section.getString("Priority").orElse(null);
+        if (priorityName != null) {
+            try {
+                priority = Schedule.Priority.valueOf(priorityName.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.log("Schedule '" + sectionName + "' has an unknown priority '" + priorityName + "', so NORMAL will be used.", ConsoleLogger.Level.WARN);
+            }
+        }
+        long splay = parseRepeat(section.getString("Splay").orElse(""));
+        if (splay > Schedule.MAX_SPLAY) {
+            logger.log("Schedule '" + sectionName + "' has a splay window longer than a day, so a day will be used.", ConsoleLogger.Level.WARN);
+            splay = Schedule.MAX_SPLAY;
+        }
+        return new Schedule(dueDate, Collections.unmodifiableList(scheduleResults), parseRepeat(section.getString("Repeat").orElse("")), section.getBoolean("Skip Missed Repeats").orElse(false), tags, priority, splay);
+    }
+
+    private static void removeDueSections(@NotNull Shard shard, @NotNull List<String> toRemove) {
+        shard.lock().lock();
+        try {
+            shard.lockFile();
+            for (String key : toRemove) {
+                shard.configuration().set(key, null);
+                sectionDigests.remove(LocalDateTime.parse(key, TIME_FORMATTER));
+            }
+            shard.markDirty();
+
+            var flush = new SchedulerEvents.PersistenceFlush();
+            flush.begin();
+            shard.save();
+            if (flush.shouldCommit()) {
+                flush.operation = "remove due";
+                flush.schedule = toRemove.toString();
+                flush.path = shard.path().toString();
+                flush.commit();
+            }
+            if (toRemove.size() == 1) {
+                logger.log("Schedule " + toRemove + " was removed from config because its due time was already met.");
+            } else {
+                logger.log("Schedules " + toRemove + " were removed from config because their due time was already met.");
+            }
+        } catch (IOException e) {
+            logger.log("Unable to remove " + toRemove + " due schedules from config. Because of this, the plugin might run the results again the next time schedules are reset, or the next server start!", ConsoleLogger.Level.ERROR);
+            e.printStackTrace();
+        } finally {
+            shard.unlockFile();
+            shard.lock().unlock();
+        }
+    }
+
+    /**
+     * Moves schedules of single players from a shard of a month to the files of their players.
+     *
+     * @param shard     The shard of the month the schedules are in.
+     * @param schedules The schedules to move, and whether they are paused.
+     */
+    private static void moveToPlayers(@NotNull Shard shard, @NotNull Map<Schedule, Boolean> schedules) {
+        try {
+            // Saving to the files of the players first, so the schedules are not lost if removing them fails.
+            persistShards(schedules, Collections.emptyList(), ScheduleMetrics.PERSISTENCE_SET, "move to player");
+        } catch (IOException e) {
+            logger.log("Unable to move schedules of players from '" + shard.path().getFileName() + "' to the players folder, they will run as usual:", ConsoleLogger.Level.ERROR);
+            e.printStackTrace();
+            synchronized (EpicScheduler.class) {
+                schedules.forEach(EpicScheduler::track);
+                publish();
+            }
+            return;
+        }
+
+        shard.lock().lock();
+        try {
+            shard.lockFile();
+            for (Schedule schedule : schedules.keySet()) shard.configuration().set(schedule.formatted(), null);
+            shard.markDirty();
+            shard.save();
+            logger.log(schedules.size() + " schedule" + (schedules.size() == 1 ? " that only performs to a player was" : "s that only perform to a player were") + " moved from '" + shard.path().getFileName() + "' to the players folder.");
+        } catch (IOException e) {
+            logger.log("Unable to remove schedules moved to the players folder from '" + shard.path().getFileName() + "':", ConsoleLogger.Level.ERROR);
+            e.printStackTrace();
+        } finally {
+            shard.unlockFile();
+            shard.lock().unlock();
+        }
+
+        synchronized (EpicScheduler.class) {
+            schedules.forEach((schedule, paused) -> {
+                if (shouldTrack(schedule)) track(schedule, paused);
+            });
+            publish();
+        }
+    }
+
+    private static @Nullable ScheduleResult parseScheduleResult(@NotNull String scheduleName, @NotNull String name, @NotNull ConfigurationSection resultSection) {
+        Set<Map.Entry<String, Object>> resultNodes = resultSection.getNodes().entrySet();
+        var results = new ArrayList<Result>(resultNodes.size());
+        var weights = new ArrayList<Double>(resultNodes.size());
+        ResultType type = ResultTypes.get(name);
+
+        if (type == null) {
+            logger.log('\'' + scheduleName + "' schedule has an unknown result: " + name);
+            return null;
+        }
+        for (var node : resultNodes) {
+            if (!(node.getValue() instanceof ConfigurationSection section)) continue;
+            Result result = type.parse(scheduleName, node.getKey(), section);
+            if (result == null) continue;
+            // Results copied around many schedules share a single instance.
+            results.add(ResultPool.result(result));
+            weights.add(section.getNumber("Weight").orElse(1).doubleValue());
+        }
+        boolean targetable = type.targetable();
+
+        Picker.Mode mode;
+        try {
+            mode = Picker.Mode.valueOf(resultSection.getString("Pick").orElse("ALL").toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            logger.log("Result " + name + " of '" + scheduleName + "' has an unknown pick. Picking ALL.", ConsoleLogger.Level.WARN);
+            mode = Picker.Mode.ALL;
+        }
+        Picker picker = mode == Picker.Mode.ALL ? Picker.ALL : new Picker(mode,
+                weights.stream().mapToDouble(Double::doubleValue).toArray(), resultSection.getNumber("Rotation").orElse(0).intValue());
+        // Compiled once here, so firing does not parse the target again.
+        Target target = Target.parse(resultSection.getString("Target").orElse(""));
+
+        if (target == null && targetable) {
+            logger.log("Result " + name + " of '" + scheduleName + "' is targetable, yet it has no specified target.", ConsoleLogger.Level.WARN);
+            return null;
+        }
+
+        return new ScheduleResult.Record(name, picker, Collections.unmodifiableList(results), target);
     }
 
     private static long parseRepeat(@NotNull String repeat) {
@@ -379,19 +1581,27 @@ public class EpicScheduler extends JavaPlugin {
         };
     }
 
-    private static @NotNull String color(@NotNull String string) {
-        return ChatColor.translateAlternateColorCodes('&', string);
-    }
-
     private static void loadCommands(@NotNull PluginCommand mainCommand, @Nullable PluginCommand scheduleCommand, @Nullable PluginCommand unscheduleCommand) {
-        CommandManager.registerCommand(mainCommand, Set.of(new ResetSubCommand(), new InfoSubCommand()),
+        CommandManager.registerCommand(mainCommand, Set.of(new ResetSubCommand(), new InfoSubCommand(), new StatsSubCommand(), new StorageSubCommand(),
+                        new TagSubCommand(), new ImportSubCommand(), new ExportSubCommand()),
                 // /epicscheduler Command.
                 (label, sender, args) -> {
                     lang.send(sender, lang.get("Help.Header"));
-                    if (sender.hasPermission("epicscheduler.info"))
+                    if (sender.hasPermission("epicscheduler.info")) {
                         lang.send(sender, lang.get("Help.Info").replace("<label>", label));
+                        lang.send(sender, lang.get("Help.Info Specific").replace("<label>", label));
+                    }
                     if (sender.hasPermission("epicscheduler.reset"))
                         lang.send(sender, lang.get("Help.Reset").replace("<label>", label));
+                    if (sender.hasPermission("epicscheduler.stats"))
+                        lang.send(sender, lang.get("Help.Stats").replace("<label>", label));
+                    if (sender.hasPermission("epicscheduler.storage")) {
+                        lang.send(sender, lang.get("Help.Storage").replace("<label>", label));
+                        lang.send(sender, lang.get("Help.Import").replace("<label>", label));
+                        lang.send(sender, lang.get("Help.Export").replace("<label>", label));
+                    }
+                    if (sender.hasPermission("epicscheduler.tag"))
+                        lang.send(sender, lang.get("Help.Tag").replace("<label>", label));
                     if (sender.hasPermission("epicscheduler.schedule")) {
                         lang.send(sender, lang.get("Help.Schedule").replace("<label>", label));
                         lang.send(sender, lang.get("Help.Unschedule").replace("<label>", label));
@@ -435,6 +1645,10 @@ public class EpicScheduler extends JavaPlugin {
             return;
         }
         loadCommands(mainCommand, getCommand("schedule"), getCommand("unschedule"));
+        CompletionIndex.indexTargets();
+        Bukkit.getPluginManager().registerEvents(new CompletionIndex(), this);
+        Bukkit.getPluginManager().registerEvents(new PlayerSchedulesListener(), this);
+        Bukkit.getPluginManager().registerEvents(new PermissionIndex(), this);
 
         try {
             Path examplePath = folder.resolve("schedules-example-always-up-to-date.yml");
@@ -445,21 +1659,176 @@ public class EpicScheduler extends JavaPlugin {
         }
 
         logger.log("Loading config...");
-        if (reloadConfigurations()) {
-            logger.log("Schedules config failed to load! No schedules were set.", ConsoleLogger.Level.ERROR);
-            logger.log("Once you fix the configuration, use '/scheduler reset' to reset schedules.", ConsoleLogger.Level.ERROR);
+        if (!reloadConfigurations()) {
+            logger.log("Some configurations failed to load! Once you fix them, use '/scheduler reset' to load them.", ConsoleLogger.Level.ERROR);
         } else {
-            logger.log("Configuration loaded successfully. Schedules will be set when the server is done loading.");
-            // Running in a task makes sure the calculations of remaining due ticks of schedules are correct.
-            Bukkit.getScheduler().runTaskAsynchronously(this, EpicScheduler::resetSchedules);
+            logger.log("Configuration loaded successfully.");
+        }
+        logger.log("Schedules will be set when the server is done loading.");
+        // Running in a task makes sure the calculations of remaining due ticks of schedules are correct. Settings were
+        // already applied on the main thread, so only the schedules are set.
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> resetStoredSchedules().thenAccept(success -> {
+            if (!success) logger.log("Once you fix them, use '/scheduler reset' to set their schedules.", ConsoleLogger.Level.ERROR);
+        }));
+
+        service = new EpicSchedulerService();
+        Bukkit.getServicesManager().register(SchedulerService.class, service, this, ServicePriority.Normal);
+    }
+
+    @Override
+    public void onDisable() {
+        if (service != null) {
+            // Finishing requests already made before the storage is closed.
+            service.close();
+            service = null;
+        }
+        OpenMetricsExporter.stop();
+        SchedulesWatcher.stop();
+        // Saving the removals and repeats of schedules that already fired.
+        try {
+            writer.submit(() -> {
+            }).get(10, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
         }
+        Mailbox.flush();
+        setDatabase(null);
+    }
+
+    /**
+     * @param kept    The amount of schedules whose sections were not changed and were kept running.
+     * @param added   The amount of schedules that were not running and were set.
+     * @param changed The amount of running schedules that were set again because their sections were changed.
+     * @param removed The amount of running schedules that were cancelled because their sections were removed.
+     */
+    public record ReloadResult(int kept, int added, int changed, int removed) {
     }
 
     private static final class Configurations {
         private static final ConfigurationLoader loader = new ConfigurationLoader();
 
+        private static final @NotNull ConfigurationHolder config = new ConfigurationHolder(folder.resolve("config.yml"), """
+                # EpicScheduler configuration. Use '/es reset' to apply changes.
+
+                Metrics:
+                  # Whether the time taken to fire schedules, perform results and save schedules should be recorded.
+                  # Recorded timings can be seen with '/es stats'.
+                  Enabled: true
+                  # The amount of last runs to remember for each schedule.
+                  History Size: 10
+                  # Metrics can be exported in OpenMetrics format, to be collected by Prometheus and compatible tools.
+                  Exporter:
+                    # Serves metrics at http://127.0.0.1:<Port>/metrics. Only reachable from the machine running the server.
+                    HTTP:
+                      Enabled: false
+                      Port: 9464
+                    # Writes metrics to a file in the plugin folder, for collectors like node exporter's textfile collector.
+                    File:
+                      Enabled: false
+                      Path: 'metrics.prom'
+                      # Interval in seconds between each write.
+                      Interval: 15
+
+                Watchdog:
+                  # Logs results that take too long to perform on the main thread, with the date of their schedule.
+                  Enabled: true
+                  # Budget in milliseconds for all results of a section, like 'Titles' or 'Commands', to perform.
+                  Schedule Result Budget: 50
+                  # Budget in milliseconds for a single result to perform to each player, on average. Commands are checked as a whole.
+                  Result Budget: 10
+                  # Amount of times a section must go over budget to be shown as slow in '/es info'.
+                  Strikes: 3
+                  # Whether sections that went over budget should have their next run delivered over multiple ticks.
+                  Slice Offenders: false
+                  # Time in milliseconds a sliced delivery may take each tick.
+                  Slice Budget: 5
+
+                Load Shedding:
+                  # Schedules that become due while the server is overloaded are deferred, thinned or dropped by their
+                  #'Priority', so cosmetic results don't make lag spikes worse. CRITICAL schedules and schedules with
+                  #commands always run.
+                  Enabled: true
+                  # Milliseconds above which a tick is slow. Ticks are timed by the time between them, so they never
+                  #take less than 50. The server is overloaded while most of the last ticks are slow, so a single
+                  #hitch does not shed anything.
+                  Threshold: 60
+                  # The amount of last ticks to check.
+                  Sample Ticks: 100
+                  # What happens to schedules of each priority while overloaded. Available:
+                  # RUN: Performed as usual.
+                  # DEFER: Performed once the server is no longer overloaded, one schedule per tick. The schedule is
+                  #kept in storage until then, so it still runs if the server stops first.
+                  # THIN: Results with targets are performed to only a share of their targets, picked at random.
+                  # DROP: Not performed. Repeating schedules still repeat.
+                  Normal: RUN
+                  Cosmetic: DROP
+                  # The share of targets thinned results are performed to, from 0.0 to 1.0.
+                  Thin Share: 0.25
+                  # Seconds a deferred schedule waits for the server to recover before it is performed anyway.
+                  Max Defer: 60
+
+                Info:
+                  # The amount of schedules shown in each page of '/es info'.
+                  Page Size: 10
+
+                Permission Targets:
+                  # Players with the permissions used by 'perm:<permission>' targets are kept in memory, and updated as they
+                  #join, quit, or change worlds. Changes made by permission plugins are picked up by going through a few
+                  #online players every tick, so every player is checked again within this amount of seconds.
+                  Reconcile: 30
+
+                Storage:
+                  # Where schedules are kept. Available: YAML, SQLITE.
+                  # YAML keeps schedules in the 'schedules' folder, in files that can be edited by hand.
+                  # SQLITE keeps schedules in a database, for servers with a very large amount of schedules. Only schedules
+                  #due within the window are kept in memory, the others are loaded as their dates come closer. Uses the
+                  #SQLite driver bundled with the server, and falls back to YAML if the server does not bundle one.
+                  # Use '/es storage import' to copy schedules from YAML to the database, and '/es storage export' to copy
+                  #them back.
+                  # Use '/es export <file>' and '/es import <file>' to move schedules between servers in CSV or JSON
+                  #lines files, a schedule per record, with the same keys as in the schedules config.
+                  Type: YAML
+                  SQLite:
+                    File: 'schedules.db'
+                    # Minutes ahead of schedules to keep in memory.
+                    Window: 60
+
+                Watcher:
+                  # Applies changes made to the files in the 'schedules' folder as soon as they are saved, without the need of '/es reset'.
+                  Enabled: true
+                  # Time in milliseconds the file must stay unchanged before it is reloaded.
+                  Debounce: 1000
+
+                Mailbox:
+                  # Keeps results that target a player UUID while the player is offline, and delivers them when they join.
+                  Enabled: false
+                  # Maximum amount of results kept for each player. The oldest results are dropped first.
+                  Size: 20
+                  # Days a result is kept before it is dropped.
+                  Max Age: 7
+                  # Amount of results delivered each tick once the player joins.
+                  Per Tick: 1
+
+                Cluster:
+                  # Enable when multiple servers share this plugin folder, so each schedule is fired by only one of them.
+                  # Servers claim each schedule by creating a file named by its due time in the claims folder, and the
+                  #server that creates it fires the schedule. Schedule files are also locked while they are written. Keep
+                  #the watcher enabled, so servers see the schedules saved by the others.
+                  Enabled: false
+                  # Folder in the plugin folder to keep claims in. Claims older than a day are deleted.
+                  Claims Folder: 'claims'
+                  # Seconds of due times covered by each folder of claims. Must be the same in all servers.
+                  Claim Bucket: 60
+                  # Name of this server in claims, so it keeps the claims it made before a restart. Required in cluster
+                  #mode, and must be different in each server.
+                  Server Name: ''""");
+
         private static final @NotNull ConfigurationHolder schedules = new ConfigurationHolder(folder.resolve("schedules.yml"), """
                 # Schedules results that will execute on the specified date.
+                # Schedules are kept in the 'schedules' folder, in a file for each month named 'yyyy-MM.yml'. For example,
+                #a schedule due in '2024-09-08 19:54:24' must be in 'schedules/2024-09.yml'.
+                # Schedules whose results all target the same player UUID are kept in 'players/<uuid>.yml' instead, and only
+                #run while that player is online. Schedules that become due while their player is offline are skipped, unless
+                #the mailbox is enabled in config.
                 # Each schedule have results.
                 # Dates have the following format: 'yyyy-MM-dd HH:mm:ss'
                 # The local timezone will be used.
@@ -475,10 +1844,28 @@ public class EpicScheduler extends JavaPlugin {
                   #it should have repeated when the server was off. Enable this to make so if this schedule is missed, on the next
                   #start it executes only once, instead of the amount of missed repeats.
                   Skip Missed Repeats: false
+                  # Tags group schedules so they can be paused, resumed or cancelled together with '/es tag'.
+                  Tags: [ 'event:halloween' ]
+                  # How important this schedule is when it becomes due while the server is overloaded. Available: CRITICAL,
+                  #NORMAL, COSMETIC. CRITICAL schedules always run, the others follow 'Load Shedding' in config.
+                  Priority: COSMETIC
+                  # Optional window after the due date this schedule may fire in, with the same format as 'Repeat', up
+                  #to a day. The exact tick is picked from the due date, tags and results, so schedules due at the same
+                  #time are spread across ticks instead of all firing together, and each schedule always fires at the
+                  #same point of its window. Schedules past due when loaded are spread from that moment.
+                  Splay: 30 seconds
+                  # Paused schedules keep their date, but don't run until they are resumed. If the date passed while
+                  #paused, the schedule runs as soon as it is resumed.
+                  Paused: false
                   Boss Bars: # Available results: Action Bars, Boss Bars, Chat Messages, Commands and Titles.
+                    # Targets can be mixed, and elements starting with '-' are excluded, like: EVERYONE,-world_nether
+                    # Use perm:<permission> to target the players with a permission, like: perm:rank.vip
                     Target: EVERYONE # To who this result will happen. Available: EVERYONE, <worldName>, <playerUUID>, <world1,world2...>, and <player1,player2...>.
                     Pick: RANDOM # Tells that a RANDOM bar should be picked. Use ALL to send all results at once.
+                    # Other picks: RANDOM_PER_PLAYER picks a random bar for each target, and ROTATION picks the bars one at a
+                    #time in order. The position of a rotation is saved in 'Rotation' as the schedule repeats.
                     '1': # You must number each bar that you add to 'Boss Bars'.
+                      Weight: 3 # Optional. Random picks choose this bar 3 times as often as a bar of weight 1.
                       Color: BLUE # Available: BLUE, GREEN, RED, PINK, PURPLE, WHITE, YELLOW.
                       Style: SEGMENTED_6 # Available: SOLID, SEGMENTED_6, SEGMENTED_10, SEGMENTED_12, SEGMENTED_20.
                       Progress: 1.0 # The progress of the bar. Must be 1.0 for full, and 0.0 for empty.
@@ -541,13 +1928,19 @@ public class EpicScheduler extends JavaPlugin {
 
                 Help:
                   Header: '&6List of commands:'
-                  Info: '<noprefix> &7&n/<label> info <yyyy-MM-dd> <HH:mm:ss>&r&8 >> &eShow info about a schedule.'
-                  Reset: '<noprefix> &7&n/<label> reset&r&8 >> &eResets all schedules from config.'
+                  Info: '<noprefix> &7&n/<label> info [page] [from:<yyyy-MM-dd>] [to:<yyyy-MM-dd>] [type:<result>] [target:<target>]&r&8 >> &eList running schedules.'
+                  Info Specific: '<noprefix> &7&n/<label> info <yyyy-MM-dd> <HH:mm:ss>&r&8 >> &eShow info about a schedule.'
+                  Reset: '<noprefix> &7&n/<label> reset [full]&r&8 >> &eApplies changes made to schedules config. Use full to set all schedules again and clear their timings.'
+                  Stats: '<noprefix> &7&n/<label> stats [yyyy-MM-dd] [HH:mm:ss]&r&8 >> &eShow timings of schedules.'
+                  Storage: '<noprefix> &7&n/<label> storage <import|export>&r&8 >> &eCopy schedules from YAML to the database, or back.'
+                  Import: '<noprefix> &7&n/<label> import <file> [dry-run]&r&8 >> &eSet schedules from a CSV or JSON lines file.'
+                  Export: '<noprefix> &7&n/<label> export <file>&r&8 >> &eWrite all schedules to a CSV or JSON lines file.'
+                  Tag: '<noprefix> &7&n/<label> tag <pause|resume|cancel|list> <tag>&r&8 >> &ePause, resume, cancel or list schedules with a tag.'
                   Schedule: '<noprefix> &7&n/schedule <date> <result> [target] <resultValue>&r&8 >> &eSet a schedule.'
                   Unschedule: '<noprefix> &7&n/unschedule <yyyy-MM-dd> <HH:mm:ss>&r&8 >> &eCancel a schedule.'
 
                 Info:
-                  # Command "/es info"
+                  # Command "/es info [page] [filters]"
                   List:
                     # Variables: <amount>
                     Header:
@@ -556,7 +1949,18 @@ public class EpicScheduler extends JavaPlugin {
                     Entry Color: '&a'
                     Separator: '&7, '
                     Period: '&7.'
+                    # Variables: <page>, <pages>
+                    Page: '<noprefix> &7Page &f<page>&7 of &f<pages>&7. Use &f&n/<label> info <page>&7 to see other pages.'
                     Footer: '<noprefix> &7Use &f&n/<label> info <yyyy-MM-dd> <HH:mm:ss>&7 to see info about a specific schedule.'
+                    # Variables: <value>
+                    Invalid Filter: '&4"&7<value>&4" is not a valid page or filter! Filters: &afrom:<yyyy-MM-dd>&4, &ato:<yyyy-MM-dd>&4, &atype:<result>&4, &atarget:<target>&4.'
+                    # Variables: <from>, <to>
+                    Invalid Range: '&4The date in &7from:<from>&4 must not be after the date in &7to:<to>&4.'
+                    # Variables: <page>, <pages>
+                    Invalid Page: '&4Page &7<page>&4 does not exist! There are only &7<pages>&4 pages.'
+                    No Match: '&6No running schedules match the filters.'
+                    # Variables: <schedules>
+                    Slow: '&cSchedules with results that keep going over the tick budget: &7<schedules>&c.'
                     None: '&6No running schedules were found.'
                   # Command "/es info <yyyy-MM-dd> <HH:mm:ss>"
                   Specific:
@@ -566,11 +1970,107 @@ public class EpicScheduler extends JavaPlugin {
                       Unknown Schedule: '&4Schedule with date ''&7<date>&4'' was not found running.'
                     # Variables: <date>
                     Header: '&6Results to happen in &7<date>&6:'
+                    # Variables: <repeat>, <skip>
+                    Repeat: '<noprefix> &7Repeats every &f<repeat>&7 seconds, skipping missed repeats: &f<skip>&7.'
+                    # Variables: <tags>
+                    Tags: '<noprefix> &7Tags: &f<tags>&7.'
+                    Paused: '<noprefix> &eThis schedule is paused and will not run until resumed.'
+                    # Variables: <due>, <fire>, <splay>
+                    Splay: '<noprefix> &7Due at &f<due>&7, fires at &f<fire>&7 within a splay window of &f<splay>&7 seconds.'
+                    # Variables: <result>, <target>, <pick>, <amount>
+                    Result: '<noprefix> &a<result>&7 to &f<target>&7, picking &f<pick>&7 of &f<amount>&7:'
+                    # Variables: <result>, <summary>
+                    Entry: '<noprefix> &8 - &7<result>&8: &f<summary>'
+                    # Variables: <result>, <breaches>, <time>
+                    Slow: '&c<result> went over the tick budget &7<breaches>&c times, last taking &7<time>ms&c.'
 
                 Reset:
                   Success: '&aAll running schedules were reset.'
                   Error: '&4Something went wrong while reading schedules configuration! All schedules were stopped.
                    &cCheck console to see if there are any issues with the &oYAML Syntax&c. Once you fix the issue, type &7/<label> reset&c again to resume schedules.'
+                  # Variables: <kept>, <added>, <changed>, <removed>
+                  Reloaded: '&aSchedules were reloaded: &7<kept>&a kept, &7<added>&a added, &7<changed>&a changed and &7<removed>&a removed.'
+                  Reload Error: '&4Something went wrong while reading schedules configuration! Running schedules were left as they were.
+                   &cCheck console to see if there are any issues with the &oYAML Syntax&c. Once you fix the issue, type &7/<label> reset&c again to apply the changes.'
+
+                Stats:
+                  Disabled: '&6Metrics are disabled in config, timings of new runs are not being recorded.'
+                  # Command "/es stats"
+                  Global:
+                    Header: '&6Timings of schedules since the last full reset:'
+                    # Variables: <name>, <count>, <p50>, <p99>, <max>, <unit>
+                    Entry: '<noprefix> &7<name>&8: &a<count>&7 samples, p50 &a<p50><unit>&7, p99 &a<p99><unit>&7, max &a<max><unit>&7.'
+                    None: '&6Nothing was recorded yet.'
+                  # Command "/es stats <yyyy-MM-dd> <HH:mm:ss>"
+                  Specific:
+                    Error:
+                      Invalid Syntax: '&4Invalid arguments! Use &7&n/<label> stats <yyyy-MM-dd> <HH:mm:ss>&r&4'
+                      # Variables: <date>
+                      No History: '&4No runs were recorded for schedule with date ''&7<date>&4''.'
+                    # Variables: <date>, <amount>
+                    Header: '&6Last &7<amount>&6 runs of schedule &7<date>&6:'
+                    # Variables: <due>, <fired>, <lateness>, <duration>
+                    Entry: '<noprefix> &7Due &a<due>&7, fired &a<fired>&7, &a<lateness>ms&7 late, took &a<duration>ms&7.'
+
+                Storage:
+                  # Command "/es storage <import|export>"
+                  Error:
+                    Invalid Syntax: '&4Invalid arguments! Use &7&n/<label> storage <import|export>&r&4.'
+                    Default: '&4Something went wrong while copying the schedules! Check console for details.'
+                  Started: '&6Copying schedules, this might take a while...'
+                  # Variables: <amount>
+                  Imported: '&7<amount>&6 schedules were copied from YAML to the database. Set &7Storage.Type&6 to &7SQLITE&6 in config and use &7/es reset&6 to use them.'
+                  Exported: '&7<amount>&6 schedules were copied from the database to YAML. Set &7Storage.Type&6 to &7YAML&6 in config and use &7/es reset&6 to use them.'
+
+                Import:
+                  # Command "/es import <file> [dry-run]"
+                  Error:
+                    Invalid Syntax: '&4Invalid arguments! Use &7&n/<label> import <file> [dry-run]&r&4.'
+                    # Variables: <file>
+                    Not Found: '&4File &7<file>&4 was not found in the plugin folder.'
+                    Unknown Format: '&4Only &7.csv&4, &7.jsonl&4, &7.ndjson&4 and &7.json&4 files are supported.'
+                    Default: '&4Something went wrong while importing the schedules! Check console for details.'
+                  # Variables: <file>
+                  Started: '&6Importing schedules from &7<file>&6, this might take a while...'
+                  Started Dry Run: '&6Checking schedules of &7<file>&6 without setting them, this might take a while...'
+                  # Variables: <read>, <valid>, <invalid>
+                  Progress: '&7<read>&6 records read so far, &7<valid>&6 valid and &7<invalid>&6 invalid.'
+                  # Variables: <error>
+                  Invalid: '<noprefix> &8- &c<error>'
+                  # Variables: <amount>, <invalid>
+                  Imported: '&7<amount>&6 schedules were set and saved. &7<invalid>&6 invalid records were skipped.'
+                  Dry Run: '&7<amount>&6 schedules would be set and &7<invalid>&6 invalid records would be skipped. Nothing was changed.'
+
+                Export:
+                  # Command "/es export <file>"
+                  Error:
+                    Invalid Syntax: '&4Invalid arguments! Use &7&n/<label> export <file>&r&4.'
+                    # Variables: <file>
+                    Outside Folder: '&4File &7<file>&4 must be inside the plugin folder.'
+                    Unknown Format: '&4Only &7.csv&4, &7.jsonl&4, &7.ndjson&4 and &7.json&4 files are supported.'
+                    Default: '&4Something went wrong while exporting the schedules! Check console for details.'
+                  # Variables: <file>
+                  Started: '&6Exporting schedules to &7<file>&6, this might take a while...'
+                  # Variables: <amount>
+                  Progress: '&7<amount>&6 schedules written so far.'
+                  # Variables: <amount>, <file>
+                  Exported: '&7<amount>&6 schedules were written to &7<file>&6.'
+
+                Tag:
+                  # Command "/es tag <pause|resume|cancel|list> <tag>"
+                  Error:
+                    Invalid Syntax: '&4Invalid arguments! Use &7&n/<label> tag <pause|resume|cancel|list> <tag>&r&4.'
+                    # Variables: <tag>
+                    Unknown Tag: '&4No running schedules have the tag ''&7<tag>&4''.'
+                    Default: '&4Something went wrong while saving the schedules! Check console for details.'
+                  # Variables: <tag>, <amount>
+                  Pause: '&7<amount>&6 schedules with tag &7<tag>&6 were paused.'
+                  Resume: '&7<amount>&6 schedules with tag &7<tag>&6 were resumed.'
+                  Cancel: '&7<amount>&6 schedules with tag &7<tag>&6 were cancelled.'
+                  List:
+                    # Variables: <tag>, <amount>
+                    Header: '&6There are &7<amount>&6 schedules with tag &7<tag>&6:'
+                    Paused: ' &e(paused)'
 
                 Schedule:
                   Error:
@@ -604,10 +2104,10 @@ public class EpicScheduler extends JavaPlugin {
                     # Variables: <date>
                     Unknown Schedule: '&4Schedule with date ''&7<date>&4'' was not found running.'
                   # Variables: <date>, <results>
-                  Success: '&2Schedule with due date &7<date>&2 and results &7<results>&2 was cancelled and removed from schedules.yml successfully.'""");
+                  Success: '&2Schedule with due date &7<date>&2 and results &7<results>&2 was cancelled and removed from config successfully.'""");
 
         static {
-            loader.registerConfiguration(schedules);
+            loader.registerConfiguration(config);
             loader.registerConfiguration(lang);
         }
     }
@@ -19,40 +19,122 @@
 package com.epicnicity322.epicscheduler;
 
 import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.cluster.ClusterClaims;
+import com.epicnicity322.epicscheduler.metrics.LoadMonitor;
+import com.epicnicity322.epicscheduler.metrics.ScheduleMetrics;
+import com.epicnicity322.epicscheduler.metrics.SchedulerEvents;
+import com.epicnicity322.epicscheduler.metrics.Watchdog;
 import com.epicnicity322.epicscheduler.result.type.ScheduleResult;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @param dueDate         The date the schedule will have its results performed.
  * @param scheduleResults The results to be executed.
  * @param repeat          The repeat interval in seconds the schedule will wait before performing again. 0 if this schedule does not repeat.
+ * @param tags            Tags to group this schedule with others, like {@literal "event:halloween"} or {@literal "vip:<uuid>"}.
+ * @param priority        How important the schedule is when it becomes due while the server is overloaded.
+ * @param splay           The window in seconds after the due date the schedule may fire in, to spread schedules due
+ *                        at the same time across ticks. 0 if this schedule fires right at its due date. At most
+ *                        {@link #MAX_SPLAY}.
  */
 public record Schedule(@NotNull LocalDateTime dueDate,
                        @NotNull List<ScheduleResult> scheduleResults,
                        @Range(from = 0L, to = Long.MAX_VALUE) long repeat,
-                       boolean skipMissedRepeats) implements Runnable, Serializable {
+                       boolean skipMissedRepeats,
+                       @NotNull Set<String> tags,
+                       @NotNull Priority priority,
+                       @Range(from = 0L, to = MAX_SPLAY) long splay) implements Runnable, Serializable {
+    /**
+     * The longest splay window in seconds, a day.
+     */
+    public static final long MAX_SPLAY = 86400;
 
     public Schedule {
         if (repeat < 0) throw new IllegalArgumentException("Schedule can not have a negative repeat interval.");
+        if (splay < 0) throw new IllegalArgumentException("Schedule can not have a negative splay window.");
+        if (splay > MAX_SPLAY) throw new IllegalArgumentException("Schedule can not have a splay window longer than " + MAX_SPLAY + " seconds.");
+        tags = Set.copyOf(tags);
+        // Schedules serialized before priorities existed.
+        if (priority == null) priority = Priority.NORMAL;
+    }
+
+    public Schedule(@NotNull LocalDateTime dueDate, @NotNull List<ScheduleResult> scheduleResults, long repeat, boolean skipMissedRepeats, @NotNull Set<String> tags) {
+        this(dueDate, scheduleResults, repeat, skipMissedRepeats, tags, Priority.NORMAL, 0);
+    }
+
+    public Schedule(@NotNull LocalDateTime dueDate, @NotNull List<ScheduleResult> scheduleResults, long repeat, boolean skipMissedRepeats) {
+        this(dueDate, scheduleResults, repeat, skipMissedRepeats, Collections.emptySet());
     }
 
     @Override
     public void run() {
-        for (ScheduleResult result : scheduleResults) {
-            result.perform();
+        if (!ClusterClaims.claim(dueDate)) {
+            // Another server fired this schedule, and saves its removal or repeat to the shared files.
+            EpicScheduler.skipSchedule(this, nextRepeat());
+            return;
+        }
+
+        LoadMonitor.Policy policy = LoadMonitor.policy(this);
+        if (policy != LoadMonitor.Policy.RUN) ScheduleMetrics.recordShed(priority.name(), policy.name());
+        switch (policy) {
+            case RUN -> perform();
+            case THIN -> LoadMonitor.thin(this::perform);
+            case DEFER -> {
+                // Kept in storage until performed, so it is not lost if the server stops first.
+                LoadMonitor.defer(() -> {
+                    // Cancelled or set again by a reset while deferred.
+                    if (EpicScheduler.getSchedule(dueDate) != this) return;
+                    perform();
+                    EpicScheduler.submitWrite(this::cancelSchedule);
+                });
+                return;
+            }
+            case DROP -> {
+            }
+        }
+
+        // Saved by the writer thread in the order schedules fired, so the main thread does not wait for the file.
+        EpicScheduler.submitWrite(this::cancelSchedule);
+    }
+
+    private void perform() {
+        LocalDateTime firedAt = LocalDateTime.now();
+        long start = ScheduleMetrics.start();
+        var event = new SchedulerEvents.ScheduleFired();
+        event.begin();
+
+        try {
+            for (int i = 0; i < scheduleResults.size(); ++i) {
+                Watchdog.running(this, i);
+                scheduleResults.get(i).perform();
+            }
+        } finally {
+            // A result that threw must not leave the schedule reported as running.
+            Watchdog.running(null, 0);
         }
 
-        // Don't want to create threads all the time on schedules that repeat fast.
-        if (repeat == 0 || repeat >= 600) {
-            new Thread(this::cancelSchedule, "Saver of " + formatted() + " schedule").start();
-        } else {
-            cancelSchedule();
+        ScheduleMetrics.recordFire(dueDate, firedAt, start);
+        if (event.shouldCommit()) {
+            event.schedule = formatted();
+            event.dueTime = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            event.firedTime = firedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            event.lateness = Duration.between(dueDate, firedAt).toMillis();
+            event.scheduleResults = scheduleResults.size();
+            event.repeat = repeat;
+            event.commit();
         }
     }
 
@@ -65,26 +147,90 @@ public record Schedule(@NotNull LocalDateTime dueDate,
             return;
         }
 
-        if (repeat != 0) {
-            LocalDateTime repeatDate = dueDate.plusSeconds(repeat);
-
-            if (skipMissedRepeats) {
-                LocalDateTime now = LocalDateTime.now();
-                while (repeatDate.isBefore(now)) {
-                    repeatDate = repeatDate.plusSeconds(repeat);
-                }
-            }
+        Schedule nextRepeat = nextRepeat();
 
+        if (nextRepeat != null) {
             try {
-                EpicScheduler.setSchedule(new Schedule(repeatDate, scheduleResults, repeat, skipMissedRepeats));
+                EpicScheduler.setSchedule(nextRepeat);
+                ScheduleMetrics.moveHistory(dueDate, nextRepeat.dueDate);
+                Watchdog.moveOffenders(dueDate, nextRepeat.dueDate);
+                return;
             } catch (IOException e) {
                 EpicScheduler.getConsoleLogger().log("Unable to save repeating schedule " + formatted() + " to config:", ConsoleLogger.Level.ERROR);
                 e.printStackTrace();
             }
         }
+        // The schedule is gone, so its history would never be shown again.
+        ScheduleMetrics.removeHistory(dueDate);
+        Watchdog.removeOffenders(dueDate);
+    }
+
+    /**
+     * @return The schedule to run the next time this schedule repeats, or null if it does not repeat.
+     */
+    private @Nullable Schedule nextRepeat() {
+        if (repeat == 0) return null;
+        if (skipMissedRepeats) return repeatAfter(LocalDateTime.now());
+        return new Schedule(dueDate.plusSeconds(repeat), scheduleResults, repeat, skipMissedRepeats, tags, priority, splay);
+    }
+
+    /**
+     * @param date The date to skip repeats up to.
+     * @return The first repeat of this schedule that is not before the date, or null if this schedule does not repeat.
+     */
+    public @Nullable Schedule repeatAfter(@NotNull LocalDateTime date) {
+        if (repeat == 0) return null;
+        long behind = Math.max(0, dueDate.until(date, ChronoUnit.SECONDS));
+        // Skipping all missed repeats at once, instead of one by one.
+        long repeats = Math.max(1, (behind + repeat - 1) / repeat);
+        LocalDateTime repeatDate = dueDate.plusSeconds(repeats * repeat);
+        // The date might have a fraction of second past the seconds counted.
+        if (repeatDate.isBefore(date)) repeatDate = repeatDate.plusSeconds(repeat);
+        return new Schedule(repeatDate, scheduleResults, repeat, skipMissedRepeats, tags, priority, splay);
+    }
+
+    /**
+     * The ticks after the due date this schedule fires, picked within the splay window by a hash of the due date, the
+     * tags and the names of the results. The offset only depends on the text of the schedule, so it is the same on every
+     * server and restart, while schedules due at nearby dates, or past due together, get offsets far apart.
+     *
+     * @return The offset in ticks, from 0 to the splay window, or 0 if this schedule has no splay window.
+     */
+    public long splayTicks() {
+        if (splay == 0) return 0;
+        long hash = dueDate.toEpochSecond(ZoneOffset.UTC);
+        // Tags are summed, because the order of the set changes between restarts.
+        int tagsHash = 0;
+        for (String tag : tags) tagsHash += tag.hashCode();
+        hash = hash * 31 + tagsHash;
+        for (ScheduleResult result : scheduleResults) hash = hash * 31 + result.resultName().hashCode();
+        // SplitMix64 finalizer, so consecutive seconds don't get consecutive offsets.
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return Math.floorMod(hash, splay * 20);
+    }
+
+    /**
+     * @return The date this schedule actually fires, which is the due date moved by the {@link #splayTicks()}.
+     */
+    public @NotNull LocalDateTime fireDate() {
+        return dueDate.plus(splayTicks() * 50, ChronoUnit.MILLIS);
     }
 
     public @NotNull String formatted() {
         return dueDate.format(EpicScheduler.TIME_FORMATTER);
     }
+
+    public enum Priority {
+        /**
+         * Always performed, even while the server is overloaded.
+         */
+        CRITICAL,
+        NORMAL,
+        /**
+         * Only for looks, so the first to be shed while the server is overloaded.
+         */
+        COSMETIC
+    }
 }
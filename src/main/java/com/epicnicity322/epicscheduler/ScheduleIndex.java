@@ -0,0 +1,167 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler;
+
+import com.epicnicity322.epicscheduler.util.PersistentSortedMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The running schedules, their tasks and their indexes. There is a single writer at a time, which must hold the lock
+ * the index is guarded by, and end every block of changes with {@link #publish()}. Readers use the published
+ * {@link #snapshot()} without locks.
+ * <p>
+ * Schedules and tags are kept in persistent maps, so publishing a snapshot costs O(1) and each change O(log n),
+ * regardless of how many schedules are running.
+ *
+ * @param <T> The type of the tasks of running schedules.
+ */
+final class ScheduleIndex<T> {
+    private final @NotNull Function<Schedule, UUID> owners;
+    private final @NotNull HashMap<LocalDateTime, T> tasks = new HashMap<>();
+    private final @NotNull HashMap<UUID, Set<Schedule>> owned = new HashMap<>();
+    private @NotNull PersistentSortedMap<LocalDateTime, ScheduleSnapshot.Tracked> schedules = PersistentSortedMap.empty();
+    private @NotNull PersistentSortedMap<String, PersistentSortedMap<LocalDateTime, Schedule>> tags = PersistentSortedMap.empty();
+    private volatile @NotNull ScheduleSnapshot snapshot = ScheduleSnapshot.EMPTY;
+    private boolean dirty;
+
+    /**
+     * @param owners Finds the player a schedule belongs to, or null if it belongs to no player.
+     */
+    ScheduleIndex(@NotNull Function<Schedule, UUID> owners) {
+        this.owners = owners;
+    }
+
+    /**
+     * @return The running schedules, as of the last {@link #publish()}.
+     */
+    @NotNull ScheduleSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @Nullable Schedule get(@NotNull LocalDateTime dueDate) {
+        ScheduleSnapshot.Tracked tracked = schedules.get(dueDate);
+        return tracked == null ? null : tracked.schedule();
+    }
+
+    boolean contains(@NotNull Schedule schedule) {
+        ScheduleSnapshot.Tracked tracked = schedules.get(schedule.dueDate());
+        return tracked != null && tracked.schedule().equals(schedule);
+    }
+
+    boolean isPaused(@NotNull Schedule schedule) {
+        ScheduleSnapshot.Tracked tracked = schedules.get(schedule.dueDate());
+        return tracked != null && tracked.paused() && tracked.schedule().equals(schedule);
+    }
+
+    int size() {
+        return schedules.size();
+    }
+
+    /**
+     * @return The running schedules sorted by their due date, as of now.
+     */
+    @NotNull List<Schedule> schedules() {
+        var list = new ArrayList<Schedule>(schedules.size());
+        schedules.forEach((dueDate, tracked) -> list.add(tracked.schedule()));
+        return list;
+    }
+
+    /**
+     * @return The due dates of the running schedules, as of now.
+     */
+    @NotNull Set<LocalDateTime> dueDates() {
+        var dueDates = new HashSet<LocalDateTime>((int) (schedules.size() / .75f) + 1);
+        schedules.forEach((dueDate, tracked) -> dueDates.add(dueDate));
+        return dueDates;
+    }
+
+    /**
+     * @param player The player the schedules belong to.
+     * @return The running schedules of the player, as of now.
+     */
+    @NotNull List<Schedule> owned(@NotNull UUID player) {
+        Set<Schedule> owned = this.owned.get(player);
+        return owned == null ? Collections.emptyList() : new ArrayList<>(owned);
+    }
+
+    /**
+     * Adds the schedule, replacing the schedule with the same due date. The task of the replaced schedule is returned,
+     * so it can be cancelled.
+     *
+     * @param schedule The schedule to add.
+     * @param task     The task that runs the schedule, or null if the schedule is paused.
+     * @return The task of the replaced schedule, or null if there was none or it was paused.
+     */
+    @Nullable T add(@NotNull Schedule schedule, @Nullable T task) {
+        ScheduleSnapshot.Tracked replaced = schedules.get(schedule.dueDate());
+        T replacedTask = replaced == null ? null : remove(replaced.schedule());
+
+        if (task != null) tasks.put(schedule.dueDate(), task);
+        schedules = schedules.plus(schedule.dueDate(), new ScheduleSnapshot.Tracked(schedule, task == null));
+        for (String tag : schedule.tags()) {
+            PersistentSortedMap<LocalDateTime, Schedule> tagged = tags.get(tag);
+            tags = tags.plus(tag, (tagged == null ? PersistentSortedMap.<LocalDateTime, Schedule>empty() : tagged).plus(schedule.dueDate(), schedule));
+        }
+        UUID owner = owners.apply(schedule);
+        if (owner != null) owned.computeIfAbsent(owner, k -> new HashSet<>()).add(schedule);
+        dirty = true;
+        return replacedTask;
+    }
+
+    /**
+     * Removes the schedule, if it is running.
+     *
+     * @param schedule The schedule to remove.
+     * @return The task of the schedule, or null if the schedule was paused or not running.
+     */
+    @Nullable T remove(@NotNull Schedule schedule) {
+        if (!contains(schedule)) return null;
+        LocalDateTime dueDate = schedule.dueDate();
+
+        T task = tasks.remove(dueDate);
+        schedules = schedules.minus(dueDate);
+        for (String tag : schedule.tags()) {
+            PersistentSortedMap<LocalDateTime, Schedule> tagged = tags.get(tag);
+            if (tagged == null) continue;
+            tagged = tagged.minus(dueDate);
+            tags = tagged.isEmpty() ? tags.minus(tag) : tags.plus(tag, tagged);
+        }
+        UUID owner = owners.apply(schedule);
+        if (owner != null) {
+            Set<Schedule> owned = this.owned.get(owner);
+            if (owned != null && owned.remove(schedule) && owned.isEmpty()) this.owned.remove(owner);
+        }
+        dirty = true;
+        return task;
+    }
+
+    /**
+     * Publishes a snapshot of the running schedules, if they changed since the last one.
+     */
+    void publish() {
+        if (!dirty) return;
+        dirty = false;
+        snapshot = new ScheduleSnapshot(schedules, tags);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler;
+
+import com.epicnicity322.epicscheduler.util.PersistentSortedMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * The running schedules and their indexes at a point in time. Snapshots never change, so they are read without locks,
+ * and reading everything from the same snapshot gives a consistent view, even if schedules change in the meantime.
+ * Lookups of a schedule cost O(log n), while the collection views are made the first time they are asked for, and
+ * kept with the snapshot.
+ */
+public final class ScheduleSnapshot {
+    static final @NotNull ScheduleSnapshot EMPTY = new ScheduleSnapshot(PersistentSortedMap.empty(), PersistentSortedMap.empty());
+    private final @NotNull PersistentSortedMap<LocalDateTime, Tracked> schedules;
+    private final @NotNull PersistentSortedMap<String, PersistentSortedMap<LocalDateTime, Schedule>> tags;
+    private volatile @Nullable NavigableMap<LocalDateTime, Schedule> sorted;
+    private volatile @Nullable Set<Schedule> all;
+    private volatile @Nullable Set<Schedule> paused;
+    private volatile @Nullable Map<String, Set<Schedule>> tagged;
+
+    ScheduleSnapshot(@NotNull PersistentSortedMap<LocalDateTime, Tracked> schedules,
+                     @NotNull PersistentSortedMap<String, PersistentSortedMap<LocalDateTime, Schedule>> tags) {
+        this.schedules = schedules;
+        this.tags = tags;
+    }
+
+    /**
+     * @param dueDate The due date of the schedule.
+     * @return The schedule running at the date, or null if there is none.
+     */
+    public @Nullable Schedule get(@NotNull LocalDateTime dueDate) {
+        Tracked tracked = schedules.get(dueDate);
+        return tracked == null ? null : tracked.schedule();
+    }
+
+    public boolean contains(@NotNull Schedule schedule) {
+        Tracked tracked = schedules.get(schedule.dueDate());
+        return tracked != null && tracked.schedule().equals(schedule);
+    }
+
+    /**
+     * @param schedule The schedule to check.
+     * @return Whether the schedule is running, but paused.
+     */
+    public boolean isPaused(@NotNull Schedule schedule) {
+        Tracked tracked = schedules.get(schedule.dueDate());
+        return tracked != null && tracked.paused() && tracked.schedule().equals(schedule);
+    }
+
+    public int size() {
+        return schedules.size();
+    }
+
+    /**
+     * @param tag The tag of the schedules.
+     * @return The running schedules with the tag.
+     */
+    public @NotNull Set<Schedule> tagged(@NotNull String tag) {
+        PersistentSortedMap<LocalDateTime, Schedule> schedules = tags.get(tag);
+        return schedules == null ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(schedules.values()));
+    }
+
+    /**
+     * @return The running schedules sorted by their due date.
+     */
+    public @NotNull NavigableMap<LocalDateTime, Schedule> sorted() {
+        NavigableMap<LocalDateTime, Schedule> sorted = this.sorted;
+        if (sorted == null) {
+            var map = new TreeMap<LocalDateTime, Schedule>();
+            schedules.forEach((dueDate, tracked) -> map.put(dueDate, tracked.schedule()));
+            this.sorted = sorted = Collections.unmodifiableNavigableMap(map);
+        }
+        return sorted;
+    }
+
+    /**
+     * @return The running schedules.
+     */
+    public @NotNull Set<Schedule> schedules() {
+        Set<Schedule> all = this.all;
+        if (all == null) this.all = all = Collections.unmodifiableSet(new LinkedHashSet<>(sorted().values()));
+        return all;
+    }
+
+    /**
+     * @return The running schedules that are paused.
+     */
+    public @NotNull Set<Schedule> paused() {
+        Set<Schedule> paused = this.paused;
+        if (paused == null) {
+            var set = new LinkedHashSet<Schedule>();
+            schedules.forEach((dueDate, tracked) -> {
+                if (tracked.paused()) set.add(tracked.schedule());
+            });
+            this.paused = paused = Collections.unmodifiableSet(set);
+        }
+        return paused;
+    }
+
+    /**
+     * @return The running schedules by each of their tags.
+     */
+    public @NotNull Map<String, Set<Schedule>> tagged() {
+        Map<String, Set<Schedule>> tagged = this.tagged;
+        if (tagged == null) {
+            var map = new LinkedHashMap<String, Set<Schedule>>();
+            tags.forEach((tag, schedules) -> map.put(tag, tagged(tag)));
+            this.tagged = tagged = Collections.unmodifiableMap(map);
+        }
+        return tagged;
+    }
+
+    /**
+     * @param schedule The running schedule.
+     * @param paused   Whether the schedule is paused.
+     */
+    record Tracked(@NotNull Schedule schedule, boolean paused) {
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler;
+
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the schedule files for changes made outside the plugin. Events are debounced, so an editor saving a file
+ * in multiple steps causes a single reload. Writes made by the plugin itself are remembered by their modification
+ * time and size, and are ignored.
+ */
+public final class SchedulesWatcher {
+    private static final @NotNull ConcurrentHashMap<Path, Written> written = new ConcurrentHashMap<>();
+    private static @Nullable WatchService service;
+    private static @Nullable Thread thread;
+
+    private SchedulesWatcher() {
+    }
+
+    /**
+     * Stops the previous watcher, if any, and starts watching the files in the folder.
+     *
+     * @param folder   The folder of the files to watch.
+     * @param debounce Time in milliseconds the files must stay unchanged before they are reloaded.
+     * @param reload   What to run with the files that were changed outside the plugin. Runs on the watcher thread.
+     */
+    public static synchronized void start(@NotNull Path folder, long debounce, @NotNull Consumer<Collection<Path>> reload) {
+        stop();
+
+        WatchService watchService;
+        try {
+            Files.createDirectories(folder);
+            watchService = folder.getFileSystem().newWatchService();
+            // Watching the folder, because editors often replace files instead of modifying them.
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            EpicScheduler.getConsoleLogger().log("Unable to watch " + folder.getFileName() + " folder for changes:", ConsoleLogger.Level.ERROR);
+            e.printStackTrace();
+            return;
+        }
+
+        Thread watcher = new Thread(() -> watch(watchService, folder, Math.max(1, debounce), reload), "EpicScheduler Schedules Watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        service = watchService;
+        thread = watcher;
+    }
+
+    public static synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException ignored) {
+            }
+            service = null;
+        }
+    }
+
+    /**
+     * @return Whether the schedule files are being watched, so changes made outside the plugin are applied without
+     * having to reload them before every write.
+     */
+    public static boolean isWatching() {
+        return thread != null;
+    }
+
+    /**
+     * Remembers the current state of the file, so the events caused by this write are ignored.
+     *
+     * @param file The file that was written by the plugin.
+     */
+    public static void written(@NotNull Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            written.put(file.toAbsolutePath(), new Written(attributes.lastModifiedTime(), attributes.size()));
+        } catch (IOException e) {
+            written.remove(file.toAbsolutePath());
+        }
+    }
+
+    /**
+     * @param file The watched file.
+     * @return Whether the file was changed or deleted since the plugin last wrote or loaded it.
+     */
+    public static boolean changedExternally(@NotNull Path file) {
+        Written last = written.get(file.toAbsolutePath());
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return last == null || attributes.size() != last.size || !attributes.lastModifiedTime().equals(last.time);
+        } catch (NoSuchFileException e) {
+            return last != null;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static void watch(@NotNull WatchService watchService, @NotNull Path folder, long debounce, @NotNull Consumer<Collection<Path>> reload) {
+        var pending = new HashSet<Path>();
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = pending.isEmpty() ? watchService.take() : watchService.poll(debounce, TimeUnit.MILLISECONDS);
+
+                if (key == null) {
+                    // No events for the debounce time, the files are done changing.
+                    pending.removeIf(file -> !changedExternally(file));
+                    if (!pending.isEmpty()) reload.accept(new HashSet<>(pending));
+                    pending.clear();
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path file && file.getFileName().toString().endsWith(".yml")) {
+                        pending.add(folder.resolve(file));
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Watcher was stopped.
+        }
+    }
+
+    private record Written(@NotNull FileTime time, long size) {
+    }
+}
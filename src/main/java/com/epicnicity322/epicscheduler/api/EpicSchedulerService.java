@@ -0,0 +1,110 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.api;
+
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The {@link SchedulerService} registered by EpicScheduler. Requests run on a single thread owned by this service, so
+ * they are saved in the order they were made.
+ */
+public final class EpicSchedulerService implements SchedulerService, AutoCloseable {
+    private final @NotNull ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EpicScheduler Service");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> schedule(@NotNull Schedule schedule) {
+        return run(() -> EpicScheduler.setSchedules(Collections.singletonList(ResultPool.results(schedule))) == 1);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Integer> scheduleAll(@NotNull Collection<Schedule> schedules) {
+        // Copying on the caller thread, so later changes to the collection don't affect what is set.
+        List<Schedule> copy = List.copyOf(schedules);
+        return run(() -> EpicScheduler.setSchedules(copy.stream().map(ResultPool::results).toList()));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> cancel(@NotNull LocalDateTime dueDate) {
+        return run(() -> cancel(Collections.singletonList(dueDate)) == 1);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Integer> cancelAll(@NotNull Collection<LocalDateTime> dueDates) {
+        List<LocalDateTime> copy = List.copyOf(dueDates);
+        return run(() -> cancel(copy));
+    }
+
+    private static int cancel(@NotNull Collection<LocalDateTime> dueDates) throws Exception {
+        var schedules = new ArrayList<Schedule>(dueDates.size());
+        for (LocalDateTime dueDate : dueDates) {
+            Schedule schedule = EpicScheduler.getSchedule(dueDate);
+            if (schedule != null) schedules.add(schedule);
+        }
+        return EpicScheduler.cancelSchedules(schedules);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<Schedule>> query(@NotNull LocalDateTime from, @NotNull LocalDateTime to) {
+        // Snapshots never change, so reading them needs no lock.
+        return run(() -> List.copyOf(EpicScheduler.getSortedSchedules().subMap(from, true, to, true).values()));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<Schedule>> query(@NotNull String tag) {
+        return run(() -> {
+            var tagged = new ArrayList<>(EpicScheduler.getSchedules(tag));
+            tagged.sort(Comparator.comparing(Schedule::dueDate));
+            return tagged;
+        });
+    }
+
+    /**
+     * Stops taking requests, waiting up to 10 seconds for the requests already made.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> @NotNull CompletableFuture<T> run(@NotNull Callable<T> request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return request.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.api;
+
+import com.epicnicity322.epicscheduler.Schedule;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Schedules results from other plugins without blocking their threads. Get it with
+ * {@code Bukkit.getServicesManager().load(SchedulerService.class)}.
+ * <p>
+ * Requests run one at a time in the order they were made, off the main thread. Futures complete on that thread too,
+ * so use the bukkit scheduler to get back to the main thread before touching the world. Failures to save schedules
+ * complete the futures exceptionally with an {@link java.io.IOException}.
+ */
+public interface SchedulerService {
+    /**
+     * Sets a schedule to run once its time is due and saves it, replacing any schedule with the same due date.
+     *
+     * @param schedule The schedule to set.
+     * @return A future completed with whether the schedule was set. Schedules without results are not set.
+     */
+    @NotNull CompletableFuture<Boolean> schedule(@NotNull Schedule schedule);
+
+    /**
+     * Sets the schedules and saves them all in a single write.
+     *
+     * @param schedules The schedules to set. If multiple schedules have the same due date, the last one is set.
+     * @return A future completed with the amount of schedules set.
+     */
+    @NotNull CompletableFuture<Integer> scheduleAll(@NotNull Collection<Schedule> schedules);
+
+    /**
+     * Cancels the schedule due in the date and removes it from storage.
+     *
+     * @param dueDate The due date of the schedule.
+     * @return A future completed with whether there was a schedule in the date.
+     */
+    @NotNull CompletableFuture<Boolean> cancel(@NotNull LocalDateTime dueDate);
+
+    /**
+     * Cancels the schedules due in the dates and removes them all from storage in a single write.
+     *
+     * @param dueDates The due dates of the schedules.
+     * @return A future completed with the amount of schedules cancelled.
+     */
+    @NotNull CompletableFuture<Integer> cancelAll(@NotNull Collection<LocalDateTime> dueDates);
+
+    /**
+     * Finds the schedules due between two dates. With the database storage, only schedules within the loaded window
+     * are found.
+     *
+     * @param from The first due date, inclusive.
+     * @param to   The last due date, inclusive.
+     * @return A future completed with the schedules, sorted by due date.
+     */
+    @NotNull CompletableFuture<List<Schedule>> query(@NotNull LocalDateTime from, @NotNull LocalDateTime to);
+
+    /**
+     * Finds the schedules with a tag. With the database storage, only schedules within the loaded window are found.
+     *
+     * @param tag The tag of the schedules.
+     * @return A future completed with the schedules, sorted by due date.
+     */
+    @NotNull CompletableFuture<List<Schedule>> query(@NotNull String tag);
+}
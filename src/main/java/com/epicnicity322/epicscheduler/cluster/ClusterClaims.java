@@ -0,0 +1,170 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.cluster;
+
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Makes sure only one of the servers sharing the plugin folder fires each schedule. The first server to atomically
+ * create the claim file of a due date fires the schedule due then, so a server never skips a schedule the others don't
+ * know, like the schedules of players online in it. Claims are kept in a folder for each bucket of due times, so old
+ * claims are deleted a folder at a time, and each server only creates the folder of a bucket once.
+ */
+public final class ClusterClaims {
+    private static final long CLAIM_RETENTION = 86400;
+    private static final @NotNull Set<Long> created = ConcurrentHashMap.newKeySet();
+    private static volatile @Nullable Path directory;
+    private static volatile long bucketSeconds = 60;
+    private static volatile @NotNull String server = "";
+    private static @Nullable BukkitTask cleaner;
+
+    private ClusterClaims() {
+    }
+
+    /**
+     * Stops the previous cleaner, if any, and starts claiming schedules in the directory.
+     *
+     * @param plugin        The plugin to own the cleaner task.
+     * @param directory     The directory shared by all servers to create claims in, or null to disable cluster mode.
+     * @param bucketSeconds The seconds of due times each folder of claims covers.
+     * @param server        The name of this server in claims, unique to each server. Cluster mode is disabled if blank,
+     *                      since servers share the plugin folder, and a server must keep its name between restarts to
+     *                      keep the claims it made before.
+     */
+    public static synchronized void configure(@NotNull Plugin plugin, @Nullable Path directory, long bucketSeconds, @NotNull String server) {
+        if (cleaner != null) {
+            cleaner.cancel();
+            cleaner = null;
+        }
+        created.clear();
+        ClusterClaims.bucketSeconds = Math.max(1, bucketSeconds);
+        ClusterClaims.server = server;
+
+        if (directory != null && server.isBlank()) {
+            EpicScheduler.getConsoleLogger().log("Cluster mode needs a 'Server Name' unique to each server, cluster mode is disabled.", ConsoleLogger.Level.ERROR);
+            directory = null;
+        }
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                EpicScheduler.getConsoleLogger().log("Unable to create claims directory, cluster mode is disabled:", ConsoleLogger.Level.ERROR);
+                e.printStackTrace();
+                directory = null;
+            }
+        }
+        ClusterClaims.directory = directory;
+        if (directory != null) {
+            Path claims = directory;
+            cleaner = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> clean(claims), 72000, 72000);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * @param dueDate The due date of the schedule about to be fired.
+     * @return Whether this server should fire the schedule. Always true if cluster mode is disabled.
+     */
+    public static boolean claim(@NotNull LocalDateTime dueDate) {
+        Path claims = directory;
+        if (claims == null) return true;
+        long size = bucketSeconds;
+        long second = dueDate.toEpochSecond(ZoneOffset.UTC);
+        long bucket = Math.floorDiv(second, size) * size;
+        Path folder = claims.resolve(bucket + "-" + size);
+
+        try {
+            if (!created.contains(bucket)) {
+                Files.createDirectories(folder);
+                created.add(bucket);
+            }
+        } catch (IOException e) {
+            // Firing twice is better than not firing at all.
+            EpicScheduler.getConsoleLogger().log("Unable to create claims folder '" + folder.getFileName() + "', the schedule will be fired by this server:", ConsoleLogger.Level.WARN);
+            e.printStackTrace();
+            return true;
+        }
+        return tryClaim(folder.resolve(second + ".claim"));
+    }
+
+    private static boolean tryClaim(@NotNull Path claim) {
+        try {
+            // Creating a new file is atomic, so only one server succeeds.
+            Files.writeString(claim, server, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            try {
+                // The schedule might have been claimed by this server before a restart.
+                return Files.readString(claim, StandardCharsets.UTF_8).equals(server);
+            } catch (IOException ignored) {
+                return false;
+            }
+        } catch (IOException e) {
+            // Firing twice is better than not firing at all.
+            EpicScheduler.getConsoleLogger().log("Unable to create claim '" + claim.getFileName() + "', the schedule will be fired by this server:", ConsoleLogger.Level.WARN);
+            e.printStackTrace();
+            return true;
+        }
+    }
+
+    private static void clean(@NotNull Path claims) {
+        long oldest = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) - CLAIM_RETENTION;
+        created.removeIf(bucket -> bucket < oldest);
+
+        try (Stream<Path> folders = Files.list(claims)) {
+            folders.forEach(folder -> {
+                String name = folder.getFileName().toString();
+                int separator = name.indexOf('-', 1);
+                if (separator == -1 || !Files.isDirectory(folder)) return;
+                try {
+                    if (Long.parseLong(name.substring(0, separator)) >= oldest) return;
+                    try (Stream<Path> files = Files.list(folder)) {
+                        for (Path file : (Iterable<Path>) files::iterator) Files.deleteIfExists(file);
+                    }
+                    Files.deleteIfExists(folder);
+                } catch (NumberFormatException | IOException ignored) {
+                }
+            });
+        } catch (IOException e) {
+            EpicScheduler.getConsoleLogger().log("Unable to clean old claims:", ConsoleLogger.Level.WARN);
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.command;
+
+import com.epicnicity322.epicscheduler.util.PrefixIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Indexes of the values suggested by tab completion, kept up to date as schedules are set or cancelled, and as
+ * players and worlds come and go, so completing does not need to format or list everything on every keystroke.
+ */
+public final class CompletionIndex implements Listener {
+    /**
+     * Formatted dates of running schedules.
+     */
+    public static final @NotNull PrefixIndex DATES = new PrefixIndex(false);
+    /**
+     * Possible targets of results: EVERYONE, world names, and UUIDs of online players.
+     */
+    public static final @NotNull PrefixIndex TARGETS = new PrefixIndex(true);
+
+    /**
+     * Rebuilds the target index from the worlds and players currently loaded.
+     */
+    public static void indexTargets() {
+        TARGETS.clear();
+        TARGETS.add("EVERYONE");
+        for (World world : Bukkit.getWorlds()) TARGETS.add(world.getName());
+        for (Player player : Bukkit.getOnlinePlayers()) TARGETS.add(player.getUniqueId().toString());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        TARGETS.add(event.getPlayer().getUniqueId().toString());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        TARGETS.remove(event.getPlayer().getUniqueId().toString());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        TARGETS.add(event.getWorld().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        TARGETS.remove(event.getWorld().getName());
+    }
+}
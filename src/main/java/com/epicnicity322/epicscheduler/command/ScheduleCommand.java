@@ -19,26 +19,29 @@
 package com.epicnicity322.epicscheduler.command;
 
 import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.epicscheduler.EpicScheduler;
 import com.epicnicity322.epicscheduler.Schedule;
 import com.epicnicity322.epicscheduler.result.*;
+import com.epicnicity322.epicscheduler.result.type.Picker;
 import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
 import com.epicnicity322.epicscheduler.result.type.ScheduleResult;
+import com.epicnicity322.epicscheduler.result.type.Target;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.World;
 import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BarStyle;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.checkerframework.common.value.qual.ArrayLenRange;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.*;
@@ -72,26 +75,30 @@ public class ScheduleCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        ScheduleResult scheduleResults = getScheduleResult(label, sender, resultType, args, args[0] + ' ' + args[1]);
-        if (scheduleResults == null) return true;
-        try {
-            EpicScheduler.setSchedule(new Schedule(dueDate, Collections.singletonList(scheduleResults), 0, false));
-        } catch (IOException ignored) {
-            lang.send(sender, lang.get("Schedule.Error.Default"));
-        }
+        Parsed parsed = getScheduleResult(label, sender, resultType, args, args[0] + ' ' + args[1]);
+        if (parsed == null) return true;
+        // The schedule runs right away, and the sender is told once it is saved, without the main thread waiting.
+        EpicScheduler.submitSchedule(new Schedule(dueDate, Collections.singletonList(parsed.result), 0, false)).whenComplete((unused, throwable) -> {
+            if (throwable != null) {
+                EpicScheduler.getConsoleLogger().log("Unable to save schedule '" + args[0] + ' ' + args[1] + "':", ConsoleLogger.Level.ERROR);
+                throwable.printStackTrace();
+            }
+            Bukkit.getScheduler().runTask(JavaPlugin.getPlugin(EpicScheduler.class), () ->
+                    lang.send(sender, throwable == null ? parsed.success : lang.get("Schedule.Error.Default")));
+        });
         return true;
     }
 
-    private @Nullable ScheduleResult getScheduleResult(@NotNull String label, @NotNull CommandSender sender, @NotNull String name, @ArrayLenRange(from = 4) @NotNull String[] args, @NotNull String date) {
+    private @Nullable Parsed getScheduleResult(@NotNull String label, @NotNull CommandSender sender, @NotNull String name, @ArrayLenRange(from = 4) @NotNull String[] args, @NotNull String date) {
         MessageSender lang = EpicScheduler.getLanguage();
 
         switch (name) {
             case "command":
                 String commandValue = join(3, args.length, args);
-                lang.send(sender, lang.get("Schedule.Success.Default").replace("<result>", "Command").replace("<date>", date)
-                        .replace("<target>", "null").replace("<value>", commandValue));
-                return singleResult("Commands", new Command.Record(
-                        Collections.singletonList(Command.CommandValue.Record.parseCommandValue(commandValue))), null);
+                return new Parsed(singleResult(Command.TYPE.name(), new Command.Record(
+                        Collections.singletonList(Command.CommandValue.Record.parseCommandValue(commandValue))), null),
+                        lang.get("Schedule.Success.Default").replace("<result>", "Command").replace("<date>", date)
+                                .replace("<target>", "null").replace("<value>", commandValue));
             default:
                 if (args.length < 5) {
                     lang.send(sender, lang.get("Schedule.Error.Invalid Syntax").replace("<label>", label));
@@ -99,9 +106,9 @@ public class ScheduleCommand implements CommandExecutor, TabCompleter {
                 }
             case "actionbar":
                 String text = join(4, args.length, args);
-                lang.send(sender, lang.get("Schedule.Success.Default").replace("<result>", "Action Bar").replace("<date>", date)
-                        .replace("<target>", args[3]).replace("<value>", text));
-                return singleResult("Action Bars", new ActionBar.Record(text), target(args));
+                return new Parsed(singleResult(ActionBar.TYPE.name(), new ActionBar.Record(text), target(args)),
+                        lang.get("Schedule.Success.Default").replace("<result>", "Action Bar").replace("<date>", date)
+                                .replace("<target>", args[3]).replace("<value>", text));
             case "bossbar":
                 int argLength = args.length;
                 String title;
@@ -130,15 +137,15 @@ public class ScheduleCommand implements CommandExecutor, TabCompleter {
                             .replace("<date>", date).replace("<target>", args[3]).replace("<title>", title));
                 }
                 if (progress == null) progress = 1.0;
-                lang.send(sender, lang.get("Schedule.Success.Boss Bar").replace("<date>", date).replace("<target>", args[3])
-                        .replace("<title>", title).replace("<progress>", progress.toString()).replace("<color>", color.toString())
-                        .replace("<style>", style.toString()));
-                return singleResult("Boss Bars", new BossBar.Record(title, color, style, progress), target(args));
+                return new Parsed(singleResult(BossBar.TYPE.name(), new BossBar.Record(title, color, style, progress), target(args)),
+                        lang.get("Schedule.Success.Boss Bar").replace("<date>", date).replace("<target>", args[3])
+                                .replace("<title>", title).replace("<progress>", progress.toString()).replace("<color>", color.toString())
+                                .replace("<style>", style.toString()));
             case "chatmessage":
                 String message = join(4, args.length, args);
-                lang.send(sender, lang.get("Schedule.Success.Default").replace("<result>", "Chat Message").replace("<date>", date)
-                        .replace("<target>", args[3]).replace("<value>", message));
-                return singleResult("Chat Messages", new ChatMessage.Record(message), target(args));
+                return new Parsed(singleResult(ChatMessage.TYPE.name(), new ChatMessage.Record(message), target(args)),
+                        lang.get("Schedule.Success.Default").replace("<result>", "Chat Message").replace("<date>", date)
+                                .replace("<target>", args[3]).replace("<value>", message));
             case "title":
                 String[] titleAndSubtitle = findTitleAndSubtitle(args);
 
@@ -170,10 +177,10 @@ public class ScheduleCommand implements CommandExecutor, TabCompleter {
                     fadeOut = 20;
                 }
 
-                lang.send(sender, lang.get("Schedule.Success.Title").replace("<date>", date).replace("<target>", args[3])
-                        .replace("<title>", titleAndSubtitle[0]).replace("<subtitle>", titleAndSubtitle[1])
-                        .replace("<fadeIn>", fadeIn.toString()).replace("<stay>", stay.toString()).replace("<fadeOut>", fadeOut.toString()));
-                return singleResult("Titles", new Title.Record(titleAndSubtitle[0], titleAndSubtitle[1], fadeIn, stay, fadeOut), target(args));
+                return new Parsed(singleResult(Title.TYPE.name(), new Title.Record(titleAndSubtitle[0], titleAndSubtitle[1], fadeIn, stay, fadeOut), target(args)),
+                        lang.get("Schedule.Success.Title").replace("<date>", date).replace("<target>", args[3])
+                                .replace("<title>", titleAndSubtitle[0]).replace("<subtitle>", titleAndSubtitle[1])
+                                .replace("<fadeIn>", fadeIn.toString()).replace("<stay>", stay.toString()).replace("<fadeOut>", fadeOut.toString()));
         }
     }
 
@@ -213,19 +220,25 @@ public class ScheduleCommand implements CommandExecutor, TabCompleter {
     }
 
     @Contract("null -> null")
-    private String target(@NotNull String @Nullable [] args) {
+    private Target target(@NotNull String @Nullable [] args) {
         if (args == null) return null;
-        String arg = args[3];
-        if (arg.equals("EVERYONE")) return "!EVERYONE";
-        if (Bukkit.getWorld(arg) != null) return arg;
-        // Convert player name to UUID if no world with the name was found.
-        Player p = Bukkit.getPlayer(arg);
-        if (p != null) return p.getUniqueId().toString();
-        return arg;
+        var elements = new StringJoiner(",");
+        for (String element : args[3].split(",")) {
+            String prefix = element.startsWith("-") ? "-" : "";
+            String name = element.substring(prefix.length());
+            if (name.equals("EVERYONE") || Bukkit.getWorld(name) != null) {
+                elements.add(element);
+                continue;
+            }
+            // Convert player name to UUID if no world with the name was found.
+            Player p = Bukkit.getPlayer(name);
+            elements.add(p == null ? element : prefix + p.getUniqueId());
+        }
+        return Target.parse(elements.toString());
     }
 
-    private @NotNull ScheduleResult singleResult(@NotNull String name, @NotNull Result result, @Nullable String target) {
-        return new ScheduleResult.Record(name, false, Collections.singletonList(result), target);
+    private @NotNull ScheduleResult singleResult(@NotNull String name, @NotNull Result result, @Nullable Target target) {
+        return new ScheduleResult.Record(name, Picker.ALL, Collections.singletonList(ResultPool.result(result)), target);
     }
 
     private @NotNull String join(int start, int end, @NotNull String[] args) {
@@ -264,43 +277,31 @@ public class ScheduleCommand implements CommandExecutor, TabCompleter {
             }
             // Target or result value arg
             case 4 -> {
-                String argument = args[3].toLowerCase(Locale.ROOT);
-                ArrayList<String> targets = getPossibleTargets();
+                String argument = args[3];
+                ArrayList<String> targets = new ArrayList<>();
 
                 // Command is the only supported result that doesn't have a target.
                 // Command argument can be either TARGET;EXECUTOR;COMMAND or just COMMAND.
                 if (args[2].toLowerCase(Locale.ROOT).equals("command")) {
-                    ArrayList<String> fixedTargets = new ArrayList<>(targets.size());
-
-                    for (String target : targets) {
-                        fixedTargets.add(target + ";");
-                    }
-
-                    if (argument.isBlank()) return fixedTargets;
-
                     int firstSeparator = argument.indexOf(';');
                     if (firstSeparator == -1) {
-                        fixedTargets.removeIf(target -> !target.toLowerCase(Locale.ROOT).startsWith(argument));
-                        return fixedTargets;
+                        CompletionIndex.TARGETS.complete(argument, ";", targets);
+                        return targets;
                     }
 
-                    String executor = argument.substring(firstSeparator + 1);
+                    String executor = argument.substring(firstSeparator + 1).toLowerCase(Locale.ROOT);
                     int secondSeparator = executor.indexOf(';');
                     if (secondSeparator == -1) {
-                        String target = argument.substring(0, firstSeparator + 1);
-                        if (fixedTargets.stream().noneMatch(target1 -> target1.toLowerCase(Locale.ROOT).equals(target)))
-                            return null;
+                        if (!CompletionIndex.TARGETS.contains(argument.substring(0, firstSeparator))) return null;
                         ArrayList<String> executors = new ArrayList<>(2);
-                        String realCaseTarget = args[3].substring(0, firstSeparator + 1);
-                        executors.add(realCaseTarget + "CONSOLE;");
-                        executors.add(realCaseTarget + "PLAYER;");
-                        if (executor.isBlank()) return executors;
-                        executors.removeIf(executor1 -> !executor1.toLowerCase(Locale.ROOT).startsWith(argument));
+                        String realCaseTarget = argument.substring(0, firstSeparator + 1);
+                        if ("console;".startsWith(executor)) executors.add(realCaseTarget + "CONSOLE;");
+                        if ("player;".startsWith(executor)) executors.add(realCaseTarget + "PLAYER;");
                         return executors;
                     }
                     return null;
                 } else {
-                    targets.removeIf(target -> !target.toLowerCase(Locale.ROOT).startsWith(argument));
+                    CompletionIndex.TARGETS.complete(argument, "", targets);
                     return targets;
                 }
             }
@@ -308,14 +309,10 @@ public class ScheduleCommand implements CommandExecutor, TabCompleter {
         return null;
     }
 
-    private @NotNull ArrayList<String> getPossibleTargets() {
-        Collection<? extends Player> online = Bukkit.getOnlinePlayers();
-        List<World> worlds = Bukkit.getWorlds();
-        ArrayList<String> targets = new ArrayList<>(online.size() + worlds.size() + 1);
-
-        targets.add("EVERYONE");
-        for (var world : worlds) targets.add(world.getName());
-        for (var player : online) targets.add(player.getUniqueId().toString());
-        return targets;
+    /**
+     * @param result  The schedule result parsed from the command.
+     * @param success The message to send once the schedule is saved.
+     */
+    private record Parsed(@NotNull ScheduleResult result, @NotNull String success) {
     }
 }
@@ -21,19 +21,19 @@ package com.epicnicity322.epicscheduler.command;
 import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
 import com.epicnicity322.epicscheduler.EpicScheduler;
 import com.epicnicity322.epicscheduler.Schedule;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 public class UnscheduleCommand implements CommandExecutor, TabCompleter {
     @Override
@@ -50,24 +50,22 @@ public class UnscheduleCommand implements CommandExecutor, TabCompleter {
             lang.send(sender, lang.get("Schedule.Error.Not A Date").replace("<value>", args[0] + ' ' + args[1]));
             return true;
         }
-        Schedule value = null;
-        for (Schedule schedule : EpicScheduler.getSchedules()) {
-            if (schedule.dueDate().equals(dueDate)) {
-                value = schedule;
-                break;
-            }
-        }
+        Schedule value = EpicScheduler.getSchedule(dueDate);
         if (value == null) {
             lang.send(sender, lang.get("Unschedule.Error.Unknown Schedule").replace("<date>", args[0] + " " + args[1]));
             return true;
         }
-        try {
-            EpicScheduler.cancelSchedule(value);
-            lang.send(sender, lang.get("Unschedule.Success").replace("<date>", dueDate.toString()).replace("<results>", value.scheduleResults().toString()));
-        } catch (IOException e) {
-            lang.send(sender, lang.get("Unschedule.Default").replace("<date>", dueDate.toString()));
-            e.printStackTrace();
-        }
+        // The schedule stops right away, and the sender is told once it is removed, without the main thread waiting.
+        EpicScheduler.submitCancel(value).whenComplete((unused, throwable) -> {
+            if (throwable != null) throwable.printStackTrace();
+            Bukkit.getScheduler().runTask(JavaPlugin.getPlugin(EpicScheduler.class), () -> {
+                if (throwable == null) {
+                    lang.send(sender, lang.get("Unschedule.Success").replace("<date>", dueDate.toString()).replace("<results>", value.scheduleResults().toString()));
+                } else {
+                    lang.send(sender, lang.get("Unschedule.Error.Default").replace("<date>", dueDate.toString()));
+                }
+            });
+        });
         return true;
     }
 
@@ -75,19 +73,10 @@ public class UnscheduleCommand implements CommandExecutor, TabCompleter {
     @Override
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
         if (args.length == 1) {
-            List<String> scheduleNames = scheduleNames();
-            scheduleNames.removeIf(schedule -> !schedule.startsWith(args[0]));
-            return scheduleNames;
+            var dates = new ArrayList<String>();
+            CompletionIndex.DATES.complete(args[0], "", dates);
+            return dates;
         }
         return null;
     }
-
-    private @NotNull List<String> scheduleNames() {
-        Set<Schedule> schedules = EpicScheduler.getSchedules();
-        var scheduleNames = new ArrayList<String>(schedules.size());
-        for (Schedule schedule : schedules) {
-            scheduleNames.add(schedule.formatted());
-        }
-        return scheduleNames;
-    }
 }
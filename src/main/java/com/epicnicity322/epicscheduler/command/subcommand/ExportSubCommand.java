@@ -0,0 +1,91 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.command.subcommand;
+
+import com.epicnicity322.epicpluginlib.bukkit.command.Command;
+import com.epicnicity322.epicpluginlib.bukkit.command.CommandRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.storage.ScheduleTransfer;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+public class ExportSubCommand extends Command {
+    @Override
+    public @NotNull String getName() {
+        return "export";
+    }
+
+    @Override
+    public @NotNull String getPermission() {
+        return "epicscheduler.storage";
+    }
+
+    @Override
+    protected @NotNull CommandRunnable getNoPermissionRunnable() {
+        return (label, sender, args) -> EpicScheduler.getLanguage().send(sender, EpicScheduler.getLanguage().get("General.No Permission"));
+    }
+
+    @Override
+    public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
+        MessageSender lang = EpicScheduler.getLanguage();
+
+        if (args.length != 2) {
+            lang.send(sender, lang.get("Export.Error.Invalid Syntax").replace("<label>", label));
+            return;
+        }
+
+        Path file = ImportSubCommand.resolve(args[1]);
+        if (file == null) {
+            lang.send(sender, lang.get("Export.Error.Outside Folder").replace("<file>", args[1]));
+            return;
+        }
+        if (ScheduleTransfer.Format.of(file) == null) {
+            lang.send(sender, lang.get("Export.Error.Unknown Format"));
+            return;
+        }
+
+        lang.send(sender, lang.get("Export.Started").replace("<file>", args[1]));
+        // Reading and writing every schedule takes a while, so it is done off the main thread.
+        Plugin plugin = JavaPlugin.getPlugin(EpicScheduler.class);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long[] lastProgress = {System.currentTimeMillis()};
+            ScheduleTransfer.exportFile(file, written -> {
+                long now = System.currentTimeMillis();
+                if (now - lastProgress[0] < 2000) return;
+                lastProgress[0] = now;
+                lang.send(sender, lang.get("Export.Progress").replace("<amount>", Long.toString(written)));
+            }).whenComplete((amount, throwable) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                if (throwable == null) {
+                    lang.send(sender, lang.get("Export.Exported").replace("<amount>", Long.toString(amount)).replace("<file>", args[1]));
+                    return;
+                }
+                EpicScheduler.getConsoleLogger().log("Unable to export schedules to '" + file.getFileName() + "':", ConsoleLogger.Level.ERROR);
+                throwable.printStackTrace();
+                lang.send(sender, lang.get("Export.Error.Default"));
+            }));
+        });
+    }
+}
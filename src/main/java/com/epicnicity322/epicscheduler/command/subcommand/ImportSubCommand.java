@@ -0,0 +1,126 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.command.subcommand;
+
+import com.epicnicity322.epicpluginlib.bukkit.command.Command;
+import com.epicnicity322.epicpluginlib.bukkit.command.CommandRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.command.TabCompleteRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.storage.ScheduleTransfer;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public class ImportSubCommand extends Command {
+    /**
+     * @param name The name of the file given in the command.
+     * @return The file inside the folder of the plugin, or null if the name points outside of it.
+     */
+    static @Nullable Path resolve(@NotNull String name) {
+        Path folder = JavaPlugin.getPlugin(EpicScheduler.class).getDataFolder().toPath().toAbsolutePath().normalize();
+        Path file = folder.resolve(name).normalize();
+        return file.startsWith(folder) && !file.equals(folder) ? file : null;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "import";
+    }
+
+    @Override
+    public @NotNull String getPermission() {
+        return "epicscheduler.storage";
+    }
+
+    @Override
+    protected @NotNull CommandRunnable getNoPermissionRunnable() {
+        return (label, sender, args) -> EpicScheduler.getLanguage().send(sender, EpicScheduler.getLanguage().get("General.No Permission"));
+    }
+
+    @Override
+    public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
+        MessageSender lang = EpicScheduler.getLanguage();
+        boolean dryRun = args.length == 3 && args[2].equalsIgnoreCase("dry-run");
+
+        if (args.length != 2 && !dryRun) {
+            lang.send(sender, lang.get("Import.Error.Invalid Syntax").replace("<label>", label));
+            return;
+        }
+
+        Path file = resolve(args[1]);
+        if (file == null || !Files.isRegularFile(file)) {
+            lang.send(sender, lang.get("Import.Error.Not Found").replace("<file>", args[1]));
+            return;
+        }
+        if (ScheduleTransfer.Format.of(file) == null) {
+            lang.send(sender, lang.get("Import.Error.Unknown Format"));
+            return;
+        }
+
+        lang.send(sender, lang.get(dryRun ? "Import.Started Dry Run" : "Import.Started").replace("<file>", args[1]));
+        // Reading and validating every record takes a while, so it is done off the main thread.
+        Bukkit.getScheduler().runTaskAsynchronously(JavaPlugin.getPlugin(EpicScheduler.class), () -> {
+            long[] lastProgress = {System.currentTimeMillis()};
+            try {
+                ScheduleTransfer.ImportResult result = ScheduleTransfer.importFile(file, dryRun, progress -> {
+                    long now = System.currentTimeMillis();
+                    if (now - lastProgress[0] < 2000) return;
+                    lastProgress[0] = now;
+                    lang.send(sender, lang.get("Import.Progress").replace("<read>", Long.toString(progress.read()))
+                            .replace("<valid>", Long.toString(progress.valid())).replace("<invalid>", Long.toString(progress.invalid())));
+                });
+
+                for (String error : result.errors()) lang.send(sender, lang.get("Import.Invalid").replace("<error>", error));
+                lang.send(sender, lang.get(dryRun ? "Import.Dry Run" : "Import.Imported")
+                        .replace("<amount>", Integer.toString(result.imported())).replace("<invalid>", Long.toString(result.invalid())));
+            } catch (IOException e) {
+                EpicScheduler.getConsoleLogger().log("Unable to import schedules from '" + file.getFileName() + "':", ConsoleLogger.Level.ERROR);
+                e.printStackTrace();
+                lang.send(sender, lang.get("Import.Error.Default"));
+            }
+        });
+    }
+
+    @Override
+    protected @Nullable TabCompleteRunnable getTabCompleteRunnable() {
+        return (completions, label, sender, args) -> {
+            if (args.length == 3) {
+                if ("dry-run".startsWith(args[2].toLowerCase(Locale.ROOT))) completions.add("dry-run");
+                return;
+            }
+            if (args.length != 2) return;
+            try (var files = Files.list(JavaPlugin.getPlugin(EpicScheduler.class).getDataFolder().toPath())) {
+                files.filter(file -> Files.isRegularFile(file) && ScheduleTransfer.Format.of(file) != null)
+                        .map(file -> file.getFileName().toString())
+                        .filter(name -> name.startsWith(args[1]))
+                        .forEach(completions::add);
+            } catch (IOException ignored) {
+            }
+        };
+    }
+}
@@ -24,13 +24,39 @@ import com.epicnicity322.epicpluginlib.bukkit.command.TabCompleteRunnable;
 import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
 import com.epicnicity322.epicscheduler.EpicScheduler;
 import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.ScheduleSnapshot;
+import com.epicnicity322.epicscheduler.command.CompletionIndex;
+import com.epicnicity322.epicscheduler.metrics.Watchdog;
+import com.epicnicity322.epicscheduler.result.Command.CommandValue;
+import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ScheduleResult;
+import com.epicnicity322.epicscheduler.result.type.Target;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Set;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.NavigableMap;
 
 public class InfoSubCommand extends Command {
+    private static final int MAX_SUMMARY_LENGTH = 48;
+    /**
+     * Splay windows move schedules by ticks, so fire dates are shown to the millisecond.
+     */
+    private static final @NotNull DateTimeFormatter FIRE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static int pageSize = 10;
+
+    public static void setPageSize(int pageSize) {
+        InfoSubCommand.pageSize = Math.max(1, pageSize);
+    }
+
     @Override
     public @NotNull String getName() {
         return "info";
@@ -50,61 +76,186 @@ public class InfoSubCommand extends Command {
     public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
         MessageSender lang = EpicScheduler.getLanguage();
 
-        if (args.length > 1) {
-            if (args.length < 3) {
-                lang.send(sender, lang.get("Info.Specific.Error.Invalid Syntax").replace("<label>", label));
-                return;
+        if (args.length == 3 && args[1].indexOf(':') == -1 && args[2].indexOf(':') != -1) {
+            LocalDateTime dueDate;
+            try {
+                dueDate = LocalDateTime.parse(args[1] + ' ' + args[2], EpicScheduler.TIME_FORMATTER);
+            } catch (DateTimeParseException ignored) {
+                dueDate = null;
             }
-        } else {
-            // List running schedules.
-            Set<Schedule> runningSchedules = EpicScheduler.getSchedules();
-            if (runningSchedules.isEmpty()) {
-                lang.send(sender, lang.get("Info.List.None"));
+            if (dueDate != null) {
+                sendSchedule(sender, lang, args[1] + ' ' + args[2], dueDate);
                 return;
             }
-            StringBuilder entries = new StringBuilder();
-            String entryColor = lang.get("Info.List.Entry Color");
-            String separator = lang.get("Info.List.Separator");
+        } else if (args.length == 2 && args[1].indexOf('-') != -1 && args[1].indexOf(':') == -1) {
+            lang.send(sender, lang.get("Info.Specific.Error.Invalid Syntax").replace("<label>", label));
+            return;
+        }
 
-            for (Schedule s : runningSchedules) {
-                entries.append(separator).append(entryColor).append(s.formatted());
+        // List running schedules.
+        int page = 1;
+        LocalDateTime from = null, to = null;
+        String type = null, target = null;
+
+        for (int i = 1; i < args.length; ++i) {
+            String arg = args[i];
+            int separator = arg.indexOf(':');
+            try {
+                if (separator == -1) {
+                    page = Integer.parseInt(arg);
+                    continue;
+                }
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(0, separator).toLowerCase(Locale.ROOT)) {
+                    case "from" -> from = LocalDate.parse(value).atStartOfDay();
+                    case "to" -> to = LocalDate.parse(value).atTime(LocalTime.MAX);
+                    case "type" -> type = value.toLowerCase(Locale.ROOT).replace(" ", "");
+                    case "target" -> target = target(value);
+                    default -> throw new IllegalArgumentException();
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                lang.send(sender, lang.get("Info.List.Invalid Filter").replace("<value>", arg));
+                return;
             }
-            entries.append(lang.get("Info.List.Period"));
+        }
+
+        if (from != null && to != null && from.isAfter(to)) {
+            lang.send(sender, lang.get("Info.List.Invalid Range").replace("<from>", from.toLocalDate().toString())
+                    .replace("<to>", to.toLocalDate().toString()));
+            return;
+        }
 
-            lang.send(sender, lang.get("Info.List.Header." + (runningSchedules.size() == 1 ? "Singular" : "Plural")).replace("<amount>", Integer.toString(runningSchedules.size())));
-            lang.send(sender, false, entries.substring(separator.length()));
-            lang.send(sender, lang.get("Info.List.Footer").replace("<label>", label));
+        NavigableMap<LocalDateTime, Schedule> schedules = EpicScheduler.getSnapshot().sorted();
+        if (schedules.isEmpty()) {
+            lang.send(sender, lang.get("Info.List.None"));
             return;
         }
+        if (from != null && to != null) schedules = schedules.subMap(from, true, to, true);
+        else if (from != null) schedules = schedules.tailMap(from, true);
+        else if (to != null) schedules = schedules.headMap(to, true);
+
+        // Only the schedules in the requested page are formatted, the others are just counted.
+        String entryColor = lang.get("Info.List.Entry Color");
+        String separator = lang.get("Info.List.Separator");
+        StringBuilder entries = new StringBuilder();
+        StringBuilder slow = new StringBuilder();
+        int first = (page - 1) * pageSize;
+        int matches = 0;
 
-        // Specific schedule info.
-        String date = args[1] + ' ' + args[2];
-        Schedule schedule = null;
-        for (Schedule s : EpicScheduler.getSchedules()) {
-            if (date.equals(s.formatted())) {
-                schedule = s;
-                break;
+        for (Schedule s : schedules.values()) {
+            if (!matches(s, type, target)) continue;
+            if (matches >= first && matches < first + pageSize) {
+                String formatted = s.formatted();
+                entries.append(separator).append(entryColor).append(formatted);
+                for (int i = 0; i < s.scheduleResults().size(); ++i) {
+                    if (Watchdog.repeatOffender(s, i) != null) {
+                        slow.append(", ").append(formatted);
+                        break;
+                    }
+                }
             }
+            ++matches;
+        }
+
+        if (matches == 0) {
+            lang.send(sender, lang.get("Info.List.No Match"));
+            return;
+        }
+        int pages = (matches + pageSize - 1) / pageSize;
+        if (page < 1 || page > pages) {
+            lang.send(sender, lang.get("Info.List.Invalid Page").replace("<page>", Integer.toString(page)).replace("<pages>", Integer.toString(pages)));
+            return;
+        }
+        entries.append(lang.get("Info.List.Period"));
+
+        lang.send(sender, lang.get("Info.List.Header." + (matches == 1 ? "Singular" : "Plural")).replace("<amount>", Integer.toString(matches)));
+        lang.send(sender, false, entries.substring(separator.length()));
+        if (!slow.isEmpty()) lang.send(sender, lang.get("Info.List.Slow").replace("<schedules>", slow.substring(2)));
+        if (pages > 1) {
+            lang.send(sender, lang.get("Info.List.Page").replace("<page>", Integer.toString(page))
+                    .replace("<pages>", Integer.toString(pages)).replace("<label>", label));
         }
+        lang.send(sender, lang.get("Info.List.Footer").replace("<label>", label));
+    }
+
+    private void sendSchedule(@NotNull CommandSender sender, @NotNull MessageSender lang, @NotNull String date, @NotNull LocalDateTime dueDate) {
+        // Read once, so the schedule and its paused state are from the same moment.
+        ScheduleSnapshot snapshot = EpicScheduler.getSnapshot();
+        Schedule schedule = snapshot.get(dueDate);
         if (schedule == null) {
-            lang.send(sender, lang.get("Info.Specific.Error.Unknown Schedule").replace("<date>", args[1] + " " + args[2]));
+            lang.send(sender, lang.get("Info.Specific.Error.Unknown Schedule").replace("<date>", date));
             return;
         }
         lang.send(sender, lang.get("Info.Specific.Header").replace("<date>", date));
-        lang.send(sender, schedule.toString());
+        if (schedule.repeat() != 0) {
+            lang.send(sender, lang.get("Info.Specific.Repeat").replace("<repeat>", Long.toString(schedule.repeat()))
+                    .replace("<skip>", Boolean.toString(schedule.skipMissedRepeats())));
+        }
+        if (!schedule.tags().isEmpty()) {
+            lang.send(sender, lang.get("Info.Specific.Tags").replace("<tags>", String.join(", ", schedule.tags())));
+        }
+        if (schedule.splay() != 0) {
+            lang.send(sender, lang.get("Info.Specific.Splay").replace("<due>", date)
+                    .replace("<fire>", schedule.fireDate().format(FIRE_FORMATTER)).replace("<splay>", Long.toString(schedule.splay())));
+        }
+        if (snapshot.isPaused(schedule)) lang.send(sender, lang.get("Info.Specific.Paused"));
+        for (int i = 0; i < schedule.scheduleResults().size(); ++i) {
+            ScheduleResult scheduleResult = schedule.scheduleResults().get(i);
+            Target target = scheduleResult.target();
+            lang.send(sender, lang.get("Info.Specific.Result").replace("<result>", scheduleResult.resultName())
+                    .replace("<target>", target == null ? "CONSOLE" : target.text())
+                    .replace("<pick>", scheduleResult.picker().mode().name())
+                    .replace("<amount>", Integer.toString(scheduleResult.results().size())));
+            for (Result result : scheduleResult.results()) {
+                String summary = result.summary();
+                if (summary.length() > MAX_SUMMARY_LENGTH) summary = summary.substring(0, MAX_SUMMARY_LENGTH - 3) + "...";
+                lang.send(sender, lang.get("Info.Specific.Entry").replace("<result>", result.resultName()).replace("<summary>", summary));
+            }
+
+            Watchdog.Offender offender = Watchdog.repeatOffender(schedule, i);
+            if (offender == null) continue;
+            lang.send(sender, lang.get("Info.Specific.Slow").replace("<result>", scheduleResult.resultName())
+                    .replace("<breaches>", Integer.toString(offender.breaches()))
+                    .replace("<time>", String.format("%.2f", offender.lastNanos() / 1_000_000.0)));
+        }
+    }
+
+    private @NotNull String target(@NotNull String value) {
+        if (value.equalsIgnoreCase("EVERYONE")) return "EVERYONE";
+        Player player = Bukkit.getPlayerExact(value);
+        return player == null ? value : player.getUniqueId().toString();
+    }
+
+    private boolean matches(@NotNull Schedule schedule, @Nullable String type, @Nullable String target) {
+        if (type == null && target == null) return true;
+
+        for (ScheduleResult scheduleResult : schedule.scheduleResults()) {
+            if (type != null && !scheduleResult.resultName().toLowerCase(Locale.ROOT).replace(" ", "").startsWith(type)) {
+                continue;
+            }
+            if (target == null || targets(scheduleResult.target(), target)) return true;
+            for (Result result : scheduleResult.results()) {
+                if (!(result instanceof com.epicnicity322.epicscheduler.result.Command command)) break;
+                for (CommandValue value : command.values()) {
+                    if (targets(value.target(), target)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean targets(@Nullable Target target, @NotNull String element) {
+        if (target == null) return false;
+        for (String targetElement : target.elements()) {
+            if (targetElement.equalsIgnoreCase(element)) return true;
+        }
+        return false;
     }
 
     @Override
     protected @Nullable TabCompleteRunnable getTabCompleteRunnable() {
         return (completions, label, sender, args) -> {
-            if (args.length == 2) {
-                for (Schedule schedule : EpicScheduler.getSchedules()) {
-                    String date = schedule.formatted();
-                    if (date.startsWith(args[1])) {
-                        completions.add(date);
-                    }
-                }
-            }
+            if (args.length == 2) CompletionIndex.DATES.complete(args[1], "", completions);
         };
     }
 }
@@ -20,11 +20,16 @@ package com.epicnicity322.epicscheduler.command.subcommand;
 
 import com.epicnicity322.epicpluginlib.bukkit.command.Command;
 import com.epicnicity322.epicpluginlib.bukkit.command.CommandRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.command.TabCompleteRunnable;
 import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
 import com.epicnicity322.epicscheduler.EpicScheduler;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ResetSubCommand extends Command {
     @Override
@@ -45,16 +50,40 @@ public class ResetSubCommand extends Command {
     @Override
     public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
         MessageSender lang = EpicScheduler.getLanguage();
+        Plugin plugin = JavaPlugin.getPlugin(EpicScheduler.class);
 
-        boolean success = EpicScheduler.resetSchedules();
+        if (args.length > 1 && args[1].equalsIgnoreCase("full")) {
+            EpicScheduler.resetSchedules().thenAccept(success -> Bukkit.getScheduler().runTask(plugin, () -> {
+                // Console already gets log messages from resetSchedules method.
+                if (sender instanceof ConsoleCommandSender) return;
 
-        // Console already gets log messages from resetSchedules method.
-        if (sender instanceof ConsoleCommandSender) return;
-
-        if (success) {
-            lang.send(sender, lang.get("Reset.Success"));
-        } else {
-            lang.send(sender, lang.get("Reset.Error").replace("<label>", label));
+                if (success) {
+                    lang.send(sender, lang.get("Reset.Success"));
+                } else {
+                    lang.send(sender, lang.get("Reset.Error").replace("<label>", label));
+                }
+            }));
+            return;
         }
+
+        EpicScheduler.reloadSchedules().thenAccept(result -> Bukkit.getScheduler().runTask(plugin, () -> {
+            // Console already gets log messages from reloadSchedules method.
+            if (sender instanceof ConsoleCommandSender) return;
+
+            if (result == null) {
+                lang.send(sender, lang.get("Reset.Reload Error").replace("<label>", label));
+            } else {
+                lang.send(sender, lang.get("Reset.Reloaded").replace("<kept>", Integer.toString(result.kept()))
+                        .replace("<added>", Integer.toString(result.added())).replace("<changed>", Integer.toString(result.changed()))
+                        .replace("<removed>", Integer.toString(result.removed())));
+            }
+        }));
+    }
+
+    @Override
+    protected @Nullable TabCompleteRunnable getTabCompleteRunnable() {
+        return (completions, label, sender, args) -> {
+            if (args.length == 2 && "full".startsWith(args[1].toLowerCase())) completions.add("full");
+        };
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.command.subcommand;
+
+import com.epicnicity322.epicpluginlib.bukkit.command.Command;
+import com.epicnicity322.epicpluginlib.bukkit.command.CommandRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.command.TabCompleteRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.command.CompletionIndex;
+import com.epicnicity322.epicscheduler.metrics.Histogram;
+import com.epicnicity322.epicscheduler.metrics.RunHistory;
+import com.epicnicity322.epicscheduler.metrics.ScheduleMetrics;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+public class StatsSubCommand extends Command {
+    private static @NotNull String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "stats";
+    }
+
+    @Override
+    public @Nullable String getPermission() {
+        return "epicscheduler.stats";
+    }
+
+    @Override
+    protected @Nullable CommandRunnable getNoPermissionRunnable() {
+        return (label, sender, args) -> EpicScheduler.getLanguage().send(sender, EpicScheduler.getLanguage().get("General.No Permission"));
+    }
+
+    @Override
+    public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
+        MessageSender lang = EpicScheduler.getLanguage();
+
+        if (!ScheduleMetrics.isEnabled()) lang.send(sender, lang.get("Stats.Disabled"));
+
+        if (args.length > 1) {
+            if (args.length < 3) {
+                lang.send(sender, lang.get("Stats.Specific.Error.Invalid Syntax").replace("<label>", label));
+                return;
+            }
+            sendHistory(sender, lang, args[1] + ' ' + args[2]);
+            return;
+        }
+
+        if (ScheduleMetrics.FIRE_DURATION.count() == 0 && ScheduleMetrics.PERSISTENCE_SET.count() == 0
+                && ScheduleMetrics.PERSISTENCE_CANCEL.count() == 0) {
+            lang.send(sender, lang.get("Stats.Global.None"));
+            return;
+        }
+
+        lang.send(sender, lang.get("Stats.Global.Header"));
+        sendNanos(sender, lang, "Fire Duration", ScheduleMetrics.FIRE_DURATION);
+        sendEntry(sender, lang, "Fire Lateness", ScheduleMetrics.FIRE_LATENESS, Long.toString(ScheduleMetrics.FIRE_LATENESS.percentile(50)),
+                Long.toString(ScheduleMetrics.FIRE_LATENESS.percentile(99)), Long.toString(ScheduleMetrics.FIRE_LATENESS.max()));
+        sendNanos(sender, lang, "Persistence Set", ScheduleMetrics.PERSISTENCE_SET);
+        sendNanos(sender, lang, "Persistence Cancel", ScheduleMetrics.PERSISTENCE_CANCEL);
+        for (Map.Entry<String, Histogram> result : ScheduleMetrics.resultDurations().entrySet()) {
+            sendNanos(sender, lang, result.getKey(), result.getValue());
+        }
+    }
+
+    private void sendNanos(@NotNull CommandSender sender, @NotNull MessageSender lang, @NotNull String name, @NotNull Histogram histogram) {
+        sendEntry(sender, lang, name, histogram, millis(histogram.percentile(50)), millis(histogram.percentile(99)), millis(histogram.max()));
+    }
+
+    private void sendEntry(@NotNull CommandSender sender, @NotNull MessageSender lang, @NotNull String name, @NotNull Histogram histogram,
+                           @NotNull String p50, @NotNull String p99, @NotNull String max) {
+        lang.send(sender, lang.get("Stats.Global.Entry").replace("<name>", name).replace("<count>", Long.toString(histogram.count()))
+                .replace("<p50>", p50).replace("<p99>", p99).replace("<max>", max).replace("<unit>", "ms"));
+    }
+
+    private void sendHistory(@NotNull CommandSender sender, @NotNull MessageSender lang, @NotNull String date) {
+        RunHistory history = null;
+        try {
+            history = ScheduleMetrics.history(LocalDateTime.parse(date, EpicScheduler.TIME_FORMATTER));
+        } catch (DateTimeParseException ignored) {
+        }
+        List<RunHistory.Run> runs = history == null ? List.of() : history.runs();
+
+        if (runs.isEmpty()) {
+            lang.send(sender, lang.get("Stats.Specific.Error.No History").replace("<date>", date));
+            return;
+        }
+
+        lang.send(sender, lang.get("Stats.Specific.Header").replace("<date>", date).replace("<amount>", Integer.toString(runs.size())));
+        for (RunHistory.Run run : runs) {
+            lang.send(sender, lang.get("Stats.Specific.Entry").replace("<due>", run.dueDate().format(EpicScheduler.TIME_FORMATTER))
+                    .replace("<fired>", run.firedAt().format(EpicScheduler.TIME_FORMATTER))
+                    .replace("<lateness>", Long.toString(run.latenessMillis())).replace("<duration>", millis(run.durationNanos())));
+        }
+    }
+
+    @Override
+    protected @Nullable TabCompleteRunnable getTabCompleteRunnable() {
+        return (completions, label, sender, args) -> {
+            if (args.length == 2) CompletionIndex.DATES.complete(args[1], "", completions);
+        };
+    }
+}
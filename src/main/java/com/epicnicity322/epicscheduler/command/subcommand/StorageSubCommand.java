@@ -0,0 +1,95 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.command.subcommand;
+
+import com.epicnicity322.epicpluginlib.bukkit.command.Command;
+import com.epicnicity322.epicpluginlib.bukkit.command.CommandRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.command.TabCompleteRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+public class StorageSubCommand extends Command {
+    @Override
+    public @NotNull String getName() {
+        return "storage";
+    }
+
+    @Override
+    public @NotNull String getPermission() {
+        return "epicscheduler.storage";
+    }
+
+    @Override
+    protected @NotNull CommandRunnable getNoPermissionRunnable() {
+        return (label, sender, args) -> EpicScheduler.getLanguage().send(sender, EpicScheduler.getLanguage().get("General.No Permission"));
+    }
+
+    @Override
+    public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
+        MessageSender lang = EpicScheduler.getLanguage();
+        String action = args.length == 2 ? args[1].toLowerCase(Locale.ROOT) : "";
+
+        if (!action.equals("import") && !action.equals("export")) {
+            lang.send(sender, lang.get("Storage.Error.Invalid Syntax").replace("<label>", label));
+            return;
+        }
+
+        lang.send(sender, lang.get("Storage.Started"));
+        // Reading and writing every schedule takes a while, so it is done off the main thread.
+        Plugin plugin = JavaPlugin.getPlugin(EpicScheduler.class);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            CompletableFuture<Integer> future;
+            try {
+                future = action.equals("import") ? EpicScheduler.importToDatabase() : EpicScheduler.exportFromDatabase();
+            } catch (IOException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((amount, throwable) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                if (throwable == null) {
+                    lang.send(sender, lang.get(action.equals("import") ? "Storage.Imported" : "Storage.Exported").replace("<amount>", Integer.toString(amount)));
+                    return;
+                }
+                EpicScheduler.getConsoleLogger().log("Unable to " + action + " schedules:", ConsoleLogger.Level.ERROR);
+                throwable.printStackTrace();
+                lang.send(sender, lang.get("Storage.Error.Default"));
+            }));
+        });
+    }
+
+    @Override
+    protected @Nullable TabCompleteRunnable getTabCompleteRunnable() {
+        return (completions, label, sender, args) -> {
+            if (args.length != 2) return;
+            String argument = args[1].toLowerCase(Locale.ROOT);
+            if ("export".startsWith(argument)) completions.add("export");
+            if ("import".startsWith(argument)) completions.add("import");
+        };
+    }
+}
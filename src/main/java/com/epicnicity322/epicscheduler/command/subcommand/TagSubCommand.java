@@ -0,0 +1,118 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.command.subcommand;
+
+import com.epicnicity322.epicpluginlib.bukkit.command.Command;
+import com.epicnicity322.epicpluginlib.bukkit.command.CommandRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.command.TabCompleteRunnable;
+import com.epicnicity322.epicpluginlib.bukkit.lang.MessageSender;
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.Schedule;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+
+public class TagSubCommand extends Command {
+    private static final @NotNull List<String> actions = List.of("cancel", "list", "pause", "resume");
+
+    @Override
+    public @NotNull String getName() {
+        return "tag";
+    }
+
+    @Override
+    public @NotNull String getPermission() {
+        return "epicscheduler.tag";
+    }
+
+    @Override
+    protected @NotNull CommandRunnable getNoPermissionRunnable() {
+        return (label, sender, args) -> EpicScheduler.getLanguage().send(sender, EpicScheduler.getLanguage().get("General.No Permission"));
+    }
+
+    @Override
+    public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
+        MessageSender lang = EpicScheduler.getLanguage();
+
+        if (args.length < 3 || !actions.contains(args[1].toLowerCase(Locale.ROOT))) {
+            lang.send(sender, lang.get("Tag.Error.Invalid Syntax").replace("<label>", label));
+            return;
+        }
+
+        String tag = args[2];
+        // Copying, because the tagged set changes as schedules are cancelled.
+        List<Schedule> schedules = new ArrayList<>(EpicScheduler.getSchedules(tag));
+
+        if (schedules.isEmpty()) {
+            lang.send(sender, lang.get("Tag.Error.Unknown Tag").replace("<tag>", tag));
+            return;
+        }
+
+        String action = args[1].toLowerCase(Locale.ROOT);
+
+        if (action.equals("list")) {
+            var joiner = new StringJoiner(lang.get("Info.List.Separator"), "", lang.get("Info.List.Period"));
+            String color = lang.get("Info.List.Entry Color");
+            for (Schedule schedule : schedules) {
+                joiner.add(color + schedule.formatted() + (EpicScheduler.isPaused(schedule) ? lang.get("Tag.List.Paused") : ""));
+            }
+            lang.send(sender, lang.get("Tag.List.Header").replace("<tag>", tag).replace("<amount>", Integer.toString(schedules.size())));
+            lang.send(sender, "<noprefix>" + joiner);
+            return;
+        }
+
+        int amount;
+        try {
+            amount = switch (action) {
+                case "pause" -> EpicScheduler.pauseSchedules(schedules);
+                case "resume" -> EpicScheduler.resumeSchedules(schedules);
+                default -> EpicScheduler.cancelSchedules(schedules);
+            };
+        } catch (IOException e) {
+            EpicScheduler.getConsoleLogger().log("Unable to save changes to schedules with tag " + tag + ":", ConsoleLogger.Level.ERROR);
+            e.printStackTrace();
+            lang.send(sender, lang.get("Tag.Error.Default"));
+            return;
+        }
+
+        lang.send(sender, lang.get("Tag." + Character.toUpperCase(action.charAt(0)) + action.substring(1))
+                .replace("<tag>", tag).replace("<amount>", Integer.toString(amount)));
+    }
+
+    @Override
+    protected @Nullable TabCompleteRunnable getTabCompleteRunnable() {
+        return (completions, label, sender, args) -> {
+            if (args.length == 2) {
+                String argument = args[1].toLowerCase(Locale.ROOT);
+                for (String action : actions) if (action.startsWith(argument)) completions.add(action);
+            } else if (args.length == 3) {
+                Set<String> tags = EpicScheduler.getTags();
+                for (String tag : tags) if (tag.startsWith(args[2])) completions.add(tag);
+            }
+        };
+    }
+}
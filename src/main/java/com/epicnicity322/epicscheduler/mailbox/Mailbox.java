@@ -0,0 +1,278 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.mailbox;
+
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ResultInputStream;
+import com.epicnicity322.epicscheduler.result.type.Target;
+import com.epicnicity322.epicscheduler.result.type.TargetableResult;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps results that targeted a player while they were offline, and delivers them once the player joins. Each player
+ * has their own file in the mailbox folder, holding their results in the order they were posted, so delivering to a
+ * player only reads their file. Files are read and written on a single thread owned by the mailbox.
+ */
+public final class Mailbox {
+    private static final @NotNull ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EpicScheduler Mailbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final @NotNull Set<UUID> delivering = ConcurrentHashMap.newKeySet();
+    private static volatile @Nullable Path folder;
+    private static volatile int size = 20;
+    private static volatile long maxAge = TimeUnit.DAYS.toMillis(7);
+    private static volatile int perTick = 1;
+
+    private Mailbox() {
+    }
+
+    /**
+     * @param folder  The folder to keep the files of the players in, or null to disable the mailbox.
+     * @param size    The maximum amount of results kept for each player. Oldest results are dropped first.
+     * @param maxAge  The time in milliseconds results are kept before they are dropped.
+     * @param perTick The amount of results delivered each tick once the player joins.
+     */
+    public static void configure(@Nullable Path folder, int size, long maxAge, int perTick) {
+        Mailbox.folder = folder;
+        Mailbox.size = Math.max(1, size);
+        Mailbox.maxAge = Math.max(0, maxAge);
+        Mailbox.perTick = Math.max(1, perTick);
+    }
+
+    public static boolean isEnabled() {
+        return folder != null;
+    }
+
+    /**
+     * Posts the targetable results to the mailbox of each player the target names by {@link UUID} that is offline.
+     *
+     * @param target  The target the results were performed to.
+     * @param results The results that were performed.
+     */
+    public static void post(@Nullable Target target, @NotNull List<Result> results) {
+        if (target == null || folder == null) return;
+        long now = System.currentTimeMillis();
+        // Worlds and everyone are not kept.
+        for (UUID player : target.players()) {
+            if (Bukkit.getPlayer(player) == null) post(player, results, now);
+        }
+    }
+
+    /**
+     * Posts the targetable results to the mailbox of a player.
+     *
+     * @param player   The player to deliver the results to once they join.
+     * @param results  The results to deliver. Results that are not targetable are ignored.
+     * @param postedAt The time in milliseconds the results should have been delivered, to drop them once too old.
+     */
+    public static void post(@NotNull UUID player, @NotNull List<Result> results, long postedAt) {
+        Path mailbox = folder;
+        if (mailbox == null || System.currentTimeMillis() - postedAt > maxAge) return;
+        // Serializing on the caller thread, so the results are copied as they were when posted.
+        var entries = new ArrayList<Entry>(results.size());
+        for (Result result : results) {
+            if (!(result instanceof TargetableResult)) continue;
+            byte[] data = serialize(result);
+            if (data != null) entries.add(new Entry(postedAt, data));
+        }
+        if (entries.isEmpty()) return;
+
+        executor.execute(() -> {
+            Path file = mailbox.resolve(player + ".dat");
+            try {
+                List<Entry> kept = read(file);
+                kept.addAll(entries);
+                write(file, kept);
+            } catch (IOException e) {
+                EpicScheduler.getConsoleLogger().log("Unable to post " + entries.size() + " results to the mailbox of " + player + ":", ConsoleLogger.Level.WARN);
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Delivers the results in the mailbox of a player in the order they were posted, a few every tick. Results are
+     * only removed from the file of the player once delivered, so results left once the player quits or the server
+     * stops stay in their mailbox.
+     *
+     * @param player The player that joined.
+     */
+    public static void deliver(@NotNull UUID player) {
+        Path mailbox = folder;
+        // The mailbox of a player is delivered once at a time, so results are not delivered twice.
+        if (mailbox == null || !delivering.add(player)) return;
+        executor.execute(() -> deliver(mailbox, player));
+    }
+
+    private static void deliver(@NotNull Path mailbox, @NotNull UUID player) {
+        Path file = mailbox.resolve(player + ".dat");
+        List<Entry> entries;
+        try {
+            entries = read(file);
+        } catch (IOException e) {
+            delivering.remove(player);
+            EpicScheduler.getConsoleLogger().log("Unable to read the mailbox of " + player + ":", ConsoleLogger.Level.WARN);
+            e.printStackTrace();
+            return;
+        }
+        if (entries.isEmpty()) {
+            delivering.remove(player);
+            return;
+        }
+
+        var queue = new ArrayDeque<>(entries);
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                Player online = Bukkit.getPlayer(player);
+                if (online == null) {
+                    delivering.remove(player);
+                    cancel();
+                    return;
+                }
+                var delivered = new ArrayList<Entry>(perTick);
+                for (int i = 0; i < perTick && !queue.isEmpty(); ++i) {
+                    Entry entry = queue.poll();
+                    delivered.add(entry);
+                    if (deserialize(entry.data) instanceof TargetableResult result) result.perform(online);
+                }
+                boolean done = queue.isEmpty();
+                if (done) cancel();
+                executor.execute(() -> {
+                    remove(file, player, delivered);
+                    // Results posted while these were delivered are delivered next.
+                    if (done) deliver(mailbox, player);
+                });
+            }
+        }.runTaskTimer(JavaPlugin.getPlugin(EpicScheduler.class), 1, 1);
+    }
+
+    /**
+     * Waits up to 10 seconds for the results already posted to be written.
+     */
+    public static void flush() {
+        try {
+            executor.submit(() -> {
+            }).get(10, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static void remove(@NotNull Path file, @NotNull UUID player, @NotNull List<Entry> delivered) {
+        try {
+            List<Entry> kept = read(file);
+            // Delivered results are the oldest in the file, since results are only added after them. Results that got
+            // too old or did not fit in the mailbox are not in the file anymore.
+            int removed = 0;
+            for (Entry entry : delivered) {
+                if (removed < kept.size() && kept.get(removed).postedAt == entry.postedAt && Arrays.equals(kept.get(removed).data, entry.data)) {
+                    ++removed;
+                }
+            }
+            write(file, kept.subList(removed, kept.size()));
+        } catch (IOException e) {
+            EpicScheduler.getConsoleLogger().log("Unable to remove " + delivered.size() + " delivered results from the mailbox of " + player + ":", ConsoleLogger.Level.WARN);
+            e.printStackTrace();
+        }
+    }
+
+    private static @NotNull List<Entry> read(@NotNull Path file) throws IOException {
+        var entries = new ArrayList<Entry>();
+        long oldest = System.currentTimeMillis() - maxAge;
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long postedAt;
+                try {
+                    postedAt = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                if (postedAt >= oldest) entries.add(new Entry(postedAt, data));
+            }
+        } catch (NoSuchFileException e) {
+            return entries;
+        }
+        return entries;
+    }
+
+    private static void write(@NotNull Path file, @NotNull List<Entry> entries) throws IOException {
+        // Only the newest results fit in the mailbox.
+        List<Entry> kept = entries.size() > size ? entries.subList(entries.size() - size, entries.size()) : entries;
+        if (kept.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            for (Entry entry : kept) {
+                out.writeLong(entry.postedAt);
+                out.writeInt(entry.data.length);
+                out.write(entry.data);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte @Nullable [] serialize(@NotNull Result result) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(result);
+        } catch (IOException e) {
+            EpicScheduler.getConsoleLogger().log("Result '" + result.resultName() + "' can not be kept in the mailbox because it is not serializable.", ConsoleLogger.Level.WARN);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static @Nullable Object deserialize(byte @NotNull [] data) {
+        try (var in = new ResultInputStream(new ByteArrayInputStream(data))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            EpicScheduler.getConsoleLogger().log("A result in a mailbox could not be read and was dropped.", ConsoleLogger.Level.WARN);
+            return null;
+        }
+    }
+
+    private record Entry(long postedAt, byte @NotNull [] data) {
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram with log-linear buckets, similar to HdrHistogram. Every power of two range is split in
+ * {@link #SUB_BUCKET_COUNT} linear buckets, so recorded values keep a relative error of at most 12.5% while recording
+ * is just a couple of atomic increments.
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    /**
+     * The amount of linear buckets in each power of two range.
+     */
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * The amount of buckets needed to hold any positive long.
+     */
+    public static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final @NotNull AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final @NotNull AtomicLong count = new AtomicLong();
+    private final @NotNull AtomicLong sum = new AtomicLong();
+    private final @NotNull AtomicLong max = new AtomicLong();
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) return (int) value;
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKET_COUNT + (subBucket - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * The highest value that is counted by the bucket in the index.
+     *
+     * @param index The index of the bucket.
+     * @return The inclusive upper bound of the bucket.
+     */
+    public static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long sum() {
+        return sum.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Finds the value at the percentile. Since buckets are shared by close values, the returned value is the upper
+     * bound of the bucket the percentile falls in, limited to the max recorded value.
+     *
+     * @param percentile The percentile, from 0.0 to 100.0.
+     * @return The value at the percentile, or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * (percentile / 100.0)));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(bucketUpperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Copies the counts of every bucket. The copy is not atomic, values being recorded concurrently may or may not be
+     * in the copy.
+     *
+     * @return The count of each bucket, indexed the same way as {@link #bucketUpperBound(int)}.
+     */
+    public long @NotNull [] bucketCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) counts[i] = buckets.get(i);
+        return counts;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) buckets.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.result.Command;
+import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ScheduleResult;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times the last ticks, and decides what happens to schedules that become due while most of them took longer than
+ * the threshold, by their {@link Schedule.Priority}. Ticks are timed by the time between them, so a single long tick
+ * does not make the server overloaded. Schedules with {@link Command} results are never shed.
+ * <p>
+ * Schedules {@link Policy#DEFER deferred} are performed once the server is no longer overloaded, or once they waited
+ * too long, one every tick. Everything here runs on the main thread, apart from {@link #mspt()}.
+ */
+public final class LoadMonitor {
+    private static final @NotNull ArrayDeque<Deferred> deferred = new ArrayDeque<>();
+    private static final @NotNull EnumMap<Schedule.Priority, Policy> policies = new EnumMap<>(Schedule.Priority.class);
+    private static long @NotNull [] samples = new long[100];
+    private static int sampleIndex = 0;
+    private static int sampleCount = 0;
+    private static long sampleTotal = 0;
+    private static int slowSamples = 0;
+    private static long lastTick = 0;
+    private static volatile double mspt = 50;
+    private static volatile boolean enabled = false;
+    private static long thresholdNanos = 60_000_000;
+    private static volatile boolean overloaded = false;
+    private static double thinShare = .25;
+    private static long maxDefer = 60_000_000_000L;
+    private static double currentShare = 1;
+    private static @Nullable BukkitTask monitor;
+
+    private LoadMonitor() {
+    }
+
+    /**
+     * Stops the previous monitor, if any, and starts timing ticks if enabled. Schedules deferred before are kept.
+     *
+     * @param plugin      The plugin to own the monitor task.
+     * @param enabled     Whether schedules should be shed while the server is overloaded.
+     * @param threshold   The milliseconds per tick above which a tick is slow. The server is overloaded while most of
+     *                    the last ticks are slow.
+     * @param sampleTicks The amount of last ticks to average.
+     * @param policies    What happens to schedules of each priority while the server is overloaded.
+     * @param thinShare   The share of the targets thinned results are performed to, from 0 to 1.
+     * @param maxDefer    The time in seconds a deferred schedule waits before it is performed anyway.
+     */
+    public static void configure(@NotNull Plugin plugin, boolean enabled, double threshold, int sampleTicks,
+                                 @NotNull Map<Schedule.Priority, Policy> policies, double thinShare, long maxDefer) {
+        if (monitor != null) {
+            monitor.cancel();
+            monitor = null;
+        }
+        LoadMonitor.enabled = enabled;
+        LoadMonitor.thresholdNanos = (long) (threshold * 1_000_000);
+        LoadMonitor.thinShare = Math.max(0, Math.min(1, thinShare));
+        LoadMonitor.maxDefer = Math.max(0, maxDefer) * 1_000_000_000L;
+        LoadMonitor.policies.clear();
+        LoadMonitor.policies.putAll(policies);
+        // Critical schedules always run.
+        LoadMonitor.policies.put(Schedule.Priority.CRITICAL, Policy.RUN);
+        samples = new long[Math.max(1, sampleTicks)];
+        sampleIndex = 0;
+        sampleCount = 0;
+        sampleTotal = 0;
+        slowSamples = 0;
+        lastTick = 0;
+        mspt = 50;
+        overloaded = false;
+        if (enabled) {
+            monitor = Bukkit.getScheduler().runTaskTimer(plugin, LoadMonitor::tick, 1, 1);
+        } else {
+            // Nothing would perform the schedules deferred before, so they are performed now.
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                while (!deferred.isEmpty()) deferred.poll().perform.run();
+            });
+        }
+    }
+
+    /**
+     * @return The average milliseconds per tick of the last ticks, or 50 if ticks are not being timed.
+     */
+    public static double mspt() {
+        return mspt;
+    }
+
+    /**
+     * @return Whether most of the last ticks took longer than the threshold.
+     */
+    public static boolean isOverloaded() {
+        return enabled && overloaded;
+    }
+
+    /**
+     * @param schedule The schedule that is due.
+     * @return What should happen to the schedule now. Always {@link Policy#RUN} while the server is not overloaded,
+     * and for schedules with commands.
+     */
+    public static @NotNull Policy policy(@NotNull Schedule schedule) {
+        if (!isOverloaded()) return Policy.RUN;
+        Policy policy = policies.getOrDefault(schedule.priority(), Policy.RUN);
+        if (policy == Policy.RUN) return Policy.RUN;
+        // Commands might do what can't be missed or done late, like removing an expired rank.
+        for (ScheduleResult scheduleResult : schedule.scheduleResults()) {
+            for (Result result : scheduleResult.results()) {
+                if (result instanceof Command) return Policy.RUN;
+            }
+        }
+        return policy;
+    }
+
+    /**
+     * Runs the task once the server is no longer overloaded, or once it waited longer than the max defer time.
+     *
+     * @param perform Performs the results of the deferred schedule.
+     */
+    public static void defer(@NotNull Runnable perform) {
+        deferred.add(new Deferred(perform, System.nanoTime()));
+    }
+
+    /**
+     * Performs the results with only a share of the targets of each result.
+     *
+     * @param perform Performs the results of the schedule.
+     */
+    public static void thin(@NotNull Runnable perform) {
+        currentShare = thinShare;
+        try {
+            perform.run();
+        } finally {
+            currentShare = 1;
+        }
+    }
+
+    /**
+     * @param targets The players a result would be performed to.
+     * @return The targets, or a random share of them while a thinned schedule is performing.
+     */
+    public static @NotNull Collection<? extends Player> thin(@NotNull Collection<? extends Player> targets) {
+        if (currentShare >= 1 || targets.isEmpty()) return targets;
+        int kept = (int) Math.ceil(targets.size() * currentShare);
+        var thinned = new ArrayList<Player>(targets);
+        var random = ThreadLocalRandom.current();
+        // Partial shuffle: only the kept players are chosen.
+        for (int i = 0; i < kept; ++i) Collections.swap(thinned, i, i + random.nextInt(thinned.size() - i));
+        return thinned.subList(0, kept);
+    }
+
+    private static void tick() {
+        long now = System.nanoTime();
+        if (lastTick != 0) {
+            long elapsed = now - lastTick;
+            if (sampleCount == samples.length) {
+                sampleTotal -= samples[sampleIndex];
+                if (samples[sampleIndex] > thresholdNanos) --slowSamples;
+            } else {
+                ++sampleCount;
+            }
+            samples[sampleIndex] = elapsed;
+            sampleTotal += elapsed;
+            if (elapsed > thresholdNanos) ++slowSamples;
+            sampleIndex = (sampleIndex + 1) % samples.length;
+            mspt = sampleTotal / (sampleCount * 1_000_000.0);
+            overloaded = slowSamples * 2 > sampleCount;
+        }
+        lastTick = now;
+
+        Deferred next = deferred.peek();
+        // Schedules that waited too long are performed even while still overloaded, so they are late but not lost.
+        if (next != null && (!isOverloaded() || now - next.deferredAt > maxDefer)) deferred.poll().perform.run();
+    }
+
+    public enum Policy {
+        /**
+         * The schedule is performed as usual.
+         */
+        RUN,
+        /**
+         * The schedule is performed once the server is no longer overloaded. It is only removed from storage once
+         * performed, so it runs on the next start if the server stops before that.
+         */
+        DEFER,
+        /**
+         * The targetable results of the schedule are performed to only a share of their targets.
+         */
+        THIN,
+        /**
+         * The schedule is not performed. Repeating schedules still repeat.
+         */
+        DROP
+    }
+
+    private record Deferred(@NotNull Runnable perform, long deferredAt) {
+    }
+}
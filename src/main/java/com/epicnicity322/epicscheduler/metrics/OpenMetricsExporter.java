@@ -0,0 +1,224 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exposes {@link ScheduleMetrics} in OpenMetrics text format, through an HTTP endpoint on localhost and/or a file.
+ * Scrapes only read the lock-free histograms and counters of {@link ScheduleMetrics}, so they never wait for or run
+ * on the main thread.
+ */
+public final class OpenMetricsExporter {
+    private static final @NotNull String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final double @NotNull [] SECONDS_BOUNDS = {0.0001, 0.0005, 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0};
+    private static final double @NotNull [] COUNT_BOUNDS = {0, 1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+    private static @Nullable HttpServer server;
+    private static @Nullable ExecutorService serverExecutor;
+    private static @Nullable BukkitTask fileTask;
+
+    private OpenMetricsExporter() {
+    }
+
+    /**
+     * Stops the previous endpoint and file writer, if any, and starts the ones enabled.
+     *
+     * @param plugin       The plugin to own the file writer task.
+     * @param httpPort     The port to bind the endpoint to on localhost, or -1 to not serve metrics through HTTP.
+     * @param file         The file to write metrics to, or null to not write metrics to a file.
+     * @param fileInterval The interval in seconds between each write to the file.
+     */
+    public static synchronized void start(@NotNull Plugin plugin, int httpPort, @Nullable Path file, long fileInterval) {
+        stop();
+
+        if (httpPort != -1) {
+            try {
+                HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), httpPort), 0);
+                ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "EpicScheduler Metrics Exporter");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                httpServer.createContext("/metrics", OpenMetricsExporter::handle);
+                httpServer.setExecutor(executor);
+                httpServer.start();
+                server = httpServer;
+                serverExecutor = executor;
+                EpicScheduler.getConsoleLogger().log("Serving metrics on http://127.0.0.1:" + httpPort + "/metrics.");
+            } catch (IOException e) {
+                EpicScheduler.getConsoleLogger().log("Unable to serve metrics on port " + httpPort + ":", ConsoleLogger.Level.ERROR);
+                e.printStackTrace();
+            }
+        }
+        if (file != null) {
+            long ticks = Math.max(1, fileInterval) * 20;
+            fileTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> write(file), ticks, ticks);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (serverExecutor != null) {
+            serverExecutor.shutdown();
+            serverExecutor = null;
+        }
+        if (fileTask != null) {
+            fileTask.cancel();
+            fileTask = null;
+        }
+    }
+
+    private static void handle(@NotNull HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void write(@NotNull Path file) {
+        // Writing to a temporary file and moving, so collectors never read a half written file.
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(temp, scrape());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            EpicScheduler.getConsoleLogger().log("Unable to write metrics to " + file + ": " + e.getMessage(), ConsoleLogger.Level.WARN);
+        }
+    }
+
+    /**
+     * @return The current metrics in OpenMetrics text format.
+     */
+    public static @NotNull String scrape() {
+        var builder = new StringBuilder(4096);
+
+        header(builder, "epicscheduler_schedules_pending", "gauge", "Schedules waiting for their due date.");
+        builder.append("epicscheduler_schedules_pending ").append(ScheduleMetrics.pending()).append('\n');
+
+        header(builder, "epicscheduler_result_fires", "counter", "Times each result type was performed.");
+        for (Map.Entry<String, LongAdder> entry : ScheduleMetrics.resultFires().entrySet()) {
+            builder.append("epicscheduler_result_fires_total{result=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(entry.getValue().sum()).append('\n');
+        }
+
+        header(builder, "epicscheduler_mspt", "gauge", "Average milliseconds per tick of the last ticks, as timed by the load monitor.");
+        builder.append("epicscheduler_mspt ").append(LoadMonitor.mspt()).append('\n');
+
+        header(builder, "epicscheduler_schedules_shed", "counter", "Schedules deferred, thinned or dropped because the server was overloaded.");
+        for (Map.Entry<ScheduleMetrics.Shed, LongAdder> entry : ScheduleMetrics.sheds().entrySet()) {
+            builder.append("epicscheduler_schedules_shed_total{priority=\"").append(escape(entry.getKey().priority()))
+                    .append("\",decision=\"").append(escape(entry.getKey().decision())).append("\"} ")
+                    .append(entry.getValue().sum()).append('\n');
+        }
+
+        header(builder, "epicscheduler_fire_lateness_seconds", "histogram", "How late schedules fired compared to their due date.");
+        histogram(builder, "epicscheduler_fire_lateness_seconds", "", ScheduleMetrics.FIRE_LATENESS, SECONDS_BOUNDS, 1e-3);
+
+        header(builder, "epicscheduler_persistence_seconds", "histogram", "Time taken to save schedules to and remove schedules from storage.");
+        histogram(builder, "epicscheduler_persistence_seconds", "operation=\"set\",", ScheduleMetrics.PERSISTENCE_SET, SECONDS_BOUNDS, 1e-9);
+        histogram(builder, "epicscheduler_persistence_seconds", "operation=\"cancel\",", ScheduleMetrics.PERSISTENCE_CANCEL, SECONDS_BOUNDS, 1e-9);
+
+        header(builder, "epicscheduler_targets_per_fire", "histogram", "Players a schedule result was delivered to each time it fired.");
+        histogram(builder, "epicscheduler_targets_per_fire", "", ScheduleMetrics.TARGETS_PER_FIRE, COUNT_BOUNDS, 1);
+
+        header(builder, "epicscheduler_placeholder_evaluation_seconds", "histogram", "Time taken by PlaceholderAPI to set placeholders of a text.");
+        histogram(builder, "epicscheduler_placeholder_evaluation_seconds", "", ScheduleMetrics.PLACEHOLDER_EVALUATION, SECONDS_BOUNDS, 1e-9);
+
+        builder.append("# EOF\n");
+        return builder.toString();
+    }
+
+    private static void header(@NotNull StringBuilder builder, @NotNull String name, @NotNull String type, @NotNull String help) {
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    /**
+     * Writes the histogram with fixed bucket bounds. A log-linear bucket is counted in a bound when its upper bound
+     * fits the bound, so counts of each bound are within the histogram's precision.
+     *
+     * @param labels Labels to prepend to the 'le' label, each followed by a comma.
+     * @param scale  The multiplier that converts the recorded values to the unit of the bounds.
+     */
+    private static void histogram(@NotNull StringBuilder builder, @NotNull String name, @NotNull String labels,
+                                  @NotNull Histogram histogram, double @NotNull [] bounds, double scale) {
+        long[] counts = histogram.bucketCounts();
+        long cumulative = 0;
+        int bucket = 0;
+
+        for (double bound : bounds) {
+            while (bucket < counts.length && Histogram.bucketUpperBound(bucket) * scale <= bound) {
+                cumulative += counts[bucket++];
+            }
+            builder.append(name).append("_bucket{").append(labels).append("le=\"").append(plain(bound)).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        while (bucket < counts.length) cumulative += counts[bucket++];
+
+        String openLabels = labels.isEmpty() ? "" : '{' + labels.substring(0, labels.length() - 1) + '}';
+        builder.append(name).append("_bucket{").append(labels).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        builder.append(name).append("_count").append(openLabels).append(' ').append(cumulative).append('\n');
+        builder.append(name).append("_sum").append(openLabels).append(' ').append(histogram.sum() * scale).append('\n');
+    }
+
+    /**
+     * @return The bound in plain decimal notation, like '0.0001' instead of '1.0E-4', so the 'le' label of a bucket
+     * is the same in every scrape and readable by every parser.
+     */
+    private static @NotNull String plain(double bound) {
+        return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+    }
+
+    private static @NotNull String escape(@NotNull String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
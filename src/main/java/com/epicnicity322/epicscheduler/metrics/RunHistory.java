@@ -0,0 +1,65 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ring buffer holding the last runs of a schedule.
+ */
+public final class RunHistory {
+    private final @NotNull Run[] runs;
+    private int next = 0;
+    private int size = 0;
+
+    public RunHistory(int capacity) {
+        runs = new Run[Math.max(1, capacity)];
+    }
+
+    public synchronized void add(@NotNull Run run) {
+        runs[next] = run;
+        next = (next + 1) % runs.length;
+        if (size < runs.length) ++size;
+    }
+
+    /**
+     * @return The runs in this history, from the most recent to the oldest.
+     */
+    public synchronized @NotNull List<Run> runs() {
+        var list = new ArrayList<Run>(size);
+        for (int i = 1; i <= size; ++i) {
+            list.add(runs[Math.floorMod(next - i, runs.length)]);
+        }
+        return list;
+    }
+
+    /**
+     * @param dueDate        The date the schedule was due.
+     * @param firedAt        The date the schedule actually fired.
+     * @param latenessMillis How late the schedule fired, in milliseconds.
+     * @param durationNanos  How long the schedule took to perform its results, in nanoseconds.
+     */
+    public record Run(@NotNull LocalDateTime dueDate, @NotNull LocalDateTime firedAt, long latenessMillis,
+                      long durationNanos) {
+    }
+}
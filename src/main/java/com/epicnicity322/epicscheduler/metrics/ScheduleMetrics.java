@@ -0,0 +1,235 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of schedules, results, and persistence. When metrics are disabled, {@link #start()} returns 0 and every
+ * record method returns right away, so the instrumented code only pays for a volatile read.
+ */
+public final class ScheduleMetrics {
+    /**
+     * Time taken by {@link com.epicnicity322.epicscheduler.Schedule#run()} to perform all results, in nanoseconds.
+     */
+    public static final @NotNull Histogram FIRE_DURATION = new Histogram();
+    /**
+     * How late schedules fired compared to their due date, in milliseconds.
+     */
+    public static final @NotNull Histogram FIRE_LATENESS = new Histogram();
+    /**
+     * Time taken to save a schedule to config, in nanoseconds.
+     */
+    public static final @NotNull Histogram PERSISTENCE_SET = new Histogram();
+    /**
+     * Time taken to remove a schedule from config, in nanoseconds.
+     */
+    public static final @NotNull Histogram PERSISTENCE_CANCEL = new Histogram();
+    /**
+     * The amount of players a schedule result was delivered to each time it fired.
+     */
+    public static final @NotNull Histogram TARGETS_PER_FIRE = new Histogram();
+    /**
+     * Time taken by PlaceholderAPI to set the placeholders of a text, in nanoseconds.
+     */
+    public static final @NotNull Histogram PLACEHOLDER_EVALUATION = new Histogram();
+    private static final @NotNull ConcurrentHashMap<String, Histogram> resultDurations = new ConcurrentHashMap<>();
+    private static final @NotNull Map<String, Histogram> unmodifiableResultDurations = Collections.unmodifiableMap(resultDurations);
+    private static final @NotNull ConcurrentHashMap<String, LongAdder> resultFires = new ConcurrentHashMap<>();
+    private static final @NotNull Map<String, LongAdder> unmodifiableResultFires = Collections.unmodifiableMap(resultFires);
+    private static final @NotNull ConcurrentHashMap<Shed, LongAdder> sheds = new ConcurrentHashMap<>();
+    private static final @NotNull Map<Shed, LongAdder> unmodifiableSheds = Collections.unmodifiableMap(sheds);
+    private static final @NotNull ConcurrentHashMap<LocalDateTime, RunHistory> histories = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = true;
+    private static volatile int historySize = 10;
+    private static volatile int pending = 0;
+
+    private ScheduleMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ScheduleMetrics.enabled = enabled;
+    }
+
+    public static void setHistorySize(int historySize) {
+        ScheduleMetrics.historySize = historySize;
+    }
+
+    /**
+     * @return The amount of schedules waiting for their due date.
+     */
+    public static int pending() {
+        return pending;
+    }
+
+    public static void setPending(int pending) {
+        ScheduleMetrics.pending = pending;
+    }
+
+    /**
+     * @return The current {@link System#nanoTime()}, or 0 if metrics are disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the nanoseconds elapsed since {@link #start()} in the histogram.
+     *
+     * @param histogram The histogram to record to.
+     * @param start     The value returned by {@link #start()}.
+     */
+    public static void record(@NotNull Histogram histogram, long start) {
+        if (start == 0 || !enabled) return;
+        histogram.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records the time a result took to perform.
+     *
+     * @param resultName The {@link com.epicnicity322.epicscheduler.result.type.Result#resultName()}.
+     * @param start      The value returned by {@link #start()}.
+     */
+    public static void recordResult(@NotNull String resultName, long start) {
+        if (start == 0 || !enabled) return;
+        long elapsed = System.nanoTime() - start;
+        resultDurations.computeIfAbsent(resultName, k -> new Histogram()).record(elapsed);
+        resultFires.computeIfAbsent(resultName, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Counts a decision of the {@link LoadMonitor} to not run a schedule as usual because the server was overloaded.
+     *
+     * @param priority The priority of the schedule.
+     * @param decision The {@link LoadMonitor.Policy} applied to the schedule.
+     */
+    public static void recordShed(@NotNull String priority, @NotNull String decision) {
+        if (!enabled) return;
+        sheds.computeIfAbsent(new Shed(priority, decision), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a run of a schedule in the global histograms and in the schedule's history.
+     *
+     * @param dueDate The due date of the schedule that ran.
+     * @param firedAt When the schedule fired.
+     * @param start   The value returned by {@link #start()} before the schedule started performing its results.
+     */
+    public static void recordFire(@NotNull LocalDateTime dueDate, @NotNull LocalDateTime firedAt, long start) {
+        if (start == 0 || !enabled) return;
+        long duration = System.nanoTime() - start;
+        long lateness = Duration.between(dueDate, firedAt).toMillis();
+
+        FIRE_DURATION.record(duration);
+        FIRE_LATENESS.record(lateness);
+        histories.computeIfAbsent(dueDate, k -> new RunHistory(historySize))
+                .add(new RunHistory.Run(dueDate, firedAt, lateness, duration));
+    }
+
+    /**
+     * Moves the history of a repeating schedule to its next due date, so the history follows the schedule between
+     * repeats.
+     *
+     * @param from The due date of the schedule that ran.
+     * @param to   The due date of the repeat.
+     */
+    public static void moveHistory(@NotNull LocalDateTime from, @NotNull LocalDateTime to) {
+        RunHistory history = histories.remove(from);
+        if (history != null) histories.put(to, history);
+    }
+
+    /**
+     * Forgets the history of a schedule.
+     *
+     * @param dueDate The due date of the schedule.
+     */
+    public static void removeHistory(@NotNull LocalDateTime dueDate) {
+        histories.remove(dueDate);
+    }
+
+    /**
+     * Forgets the history of every schedule that is not in the collection.
+     *
+     * @param dueDates The due dates of the schedules to keep the history of.
+     */
+    public static void retainHistories(@NotNull Collection<LocalDateTime> dueDates) {
+        histories.keySet().retainAll(dueDates);
+    }
+
+    public static @Nullable RunHistory history(@NotNull LocalDateTime dueDate) {
+        return histories.get(dueDate);
+    }
+
+    /**
+     * @return The time each result type took to perform, by {@link com.epicnicity322.epicscheduler.result.type.Result#resultName()}.
+     */
+    public static @NotNull Map<String, Histogram> resultDurations() {
+        return unmodifiableResultDurations;
+    }
+
+    /**
+     * @return The amount of times each result type was performed, by {@link com.epicnicity322.epicscheduler.result.type.Result#resultName()}.
+     */
+    public static @NotNull Map<String, LongAdder> resultFires() {
+        return unmodifiableResultFires;
+    }
+
+    /**
+     * @return The amount of schedules shed by the {@link LoadMonitor}, by priority and decision.
+     */
+    public static @NotNull Map<Shed, LongAdder> sheds() {
+        return unmodifiableSheds;
+    }
+
+    /**
+     * Clears all recorded values and histories.
+     */
+    public static void reset() {
+        FIRE_DURATION.reset();
+        FIRE_LATENESS.reset();
+        PERSISTENCE_SET.reset();
+        PERSISTENCE_CANCEL.reset();
+        TARGETS_PER_FIRE.reset();
+        PLACEHOLDER_EVALUATION.reset();
+        resultDurations.clear();
+        resultFires.clear();
+        sheds.clear();
+        histories.clear();
+    }
+
+    /**
+     * @param priority The priority of the schedules shed.
+     * @param decision What happened to the schedules instead of running as usual.
+     */
+    public record Shed(@NotNull String priority, @NotNull String decision) {
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Java Flight Recorder events of the lifecycle of schedules. Events are only filled when
+ * {@link Event#isEnabled()}, so when no recording is running, creating them costs close to nothing.
+ */
+public final class SchedulerEvents {
+    private static @Nullable PlaceholderBatch batch;
+
+    private SchedulerEvents() {
+    }
+
+    /**
+     * Starts counting placeholder evaluations of a targetable result being delivered. Must be called on the main
+     * thread.
+     *
+     * @param resultName The name of the result being delivered.
+     */
+    public static void beginPlaceholderBatch(@NotNull String resultName) {
+        PlaceholderBatch event = new PlaceholderBatch();
+        if (!event.isEnabled()) return;
+        event.result = resultName;
+        event.begin();
+        batch = event;
+    }
+
+    /**
+     * Adds a placeholder evaluation to the batch that is being counted, if any.
+     *
+     * @param nanos The nanoseconds the evaluation took.
+     */
+    public static void addPlaceholderEvaluation(long nanos) {
+        PlaceholderBatch event = batch;
+        if (event == null) return;
+        ++event.evaluations;
+        event.placeholderTime += nanos;
+    }
+
+    /**
+     * Commits the batch that is being counted, if any.
+     */
+    public static void commitPlaceholderBatch() {
+        PlaceholderBatch event = batch;
+        if (event == null) return;
+        batch = null;
+        event.commit();
+    }
+
+    @Name("epicscheduler.ScheduleFired")
+    @Label("Schedule Fired")
+    @Category("EpicScheduler")
+    @Description("A schedule performed its results.")
+    public static final class ScheduleFired extends Event {
+        @Label("Schedule")
+        public String schedule;
+        @Label("Due Time")
+        @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+        public long dueTime;
+        @Label("Fired Time")
+        @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+        public long firedTime;
+        @Label("Lateness")
+        @Timespan(Timespan.MILLISECONDS)
+        public long lateness;
+        @Label("Schedule Results")
+        public int scheduleResults;
+        @Label("Repeat Interval")
+        @Timespan(Timespan.SECONDS)
+        public long repeat;
+    }
+
+    @Name("epicscheduler.ResultPerformed")
+    @Label("Result Performed")
+    @Category("EpicScheduler")
+    @Description("A result of a schedule was performed to its targets.")
+    public static final class ResultPerformed extends Event {
+        @Label("Schedule Result")
+        public String scheduleResult;
+        @Label("Result")
+        public String result;
+        @Label("Result Type")
+        public Class<?> type;
+        @Label("Targets")
+        public int targets;
+    }
+
+    @Name("epicscheduler.PlaceholderBatch")
+    @Label("Placeholder Batch Evaluated")
+    @Category("EpicScheduler")
+    @Description("PlaceholderAPI placeholders set while delivering a result to all its targets.")
+    public static final class PlaceholderBatch extends Event {
+        @Label("Result")
+        public String result;
+        @Label("Evaluations")
+        public int evaluations;
+        @Label("Placeholder Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long placeholderTime;
+    }
+
+    @Name("epicscheduler.ConfigLoad")
+    @Label("Config Load")
+    @Category("EpicScheduler")
+    @Description("Configurations were loaded from disk or schedules were parsed from config.")
+    public static final class ConfigLoad extends Event {
+        @Label("Phase")
+        @Description("'load' when reading configuration files, 'parse' when parsing schedules.")
+        public String phase;
+        @Label("Failures")
+        public int failures;
+        @Label("Schedules")
+        public int schedules;
+    }
+
+    @Name("epicscheduler.PersistenceFlush")
+    @Label("Persistence Flush")
+    @Category("EpicScheduler")
+    @Description("Schedules were written to storage.")
+    public static final class PersistenceFlush extends Event {
+        @Label("Operation")
+        public String operation;
+        @Label("Schedule")
+        public String schedule;
+        @Label("Path")
+        public String path;
+    }
+}
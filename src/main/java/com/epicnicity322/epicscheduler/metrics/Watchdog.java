@@ -0,0 +1,333 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ScheduleResult;
+import com.epicnicity322.epicscheduler.result.type.TargetableResult;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times schedule results on the main thread against configurable budgets. Results that go over budget are logged
+ * with the date of their schedule, and can be delivered over multiple ticks the next time they run.
+ * <p>
+ * Offenders are kept by the due date of their schedule and their index in it, so equal results of different schedules
+ * don't share strikes. They follow their schedule to its next repeat, and are forgotten along with its history.
+ */
+public final class Watchdog {
+    private static final @NotNull ConcurrentHashMap<LocalDateTime, Map<Integer, Offender>> offenders = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = true;
+    private static volatile long scheduleResultBudget = 50_000_000;
+    private static volatile long resultBudget = 10_000_000;
+    private static volatile int strikes = 3;
+    private static volatile boolean sliceOffenders = false;
+    private static volatile long sliceBudget = 5_000_000;
+    private static final @NotNull ClassValue<Boolean> batched = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(@NotNull Class<?> type) {
+            try {
+                return type.getMethod("performAll", Collection.class).getDeclaringClass() != TargetableResult.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+    private static @Nullable Schedule running;
+    private static int runningIndex;
+
+    private Watchdog() {
+    }
+
+    /**
+     * @param enabled              Whether results should be timed.
+     * @param scheduleResultBudget Budget in milliseconds for a {@link ScheduleResult#perform()}.
+     * @param resultBudget         Budget in milliseconds for a single {@link TargetableResult#perform(Player)},
+     *                             {@link TargetableResult#performAll(Collection)} batch or {@link Result#perform()}.
+     * @param strikes              Amount of breaches before a result is considered a repeat offender.
+     * @param sliceOffenders       Whether offenders should have their next run delivered over multiple ticks.
+     * @param sliceBudget          Time in milliseconds a sliced delivery can take per tick.
+     */
+    public static void configure(boolean enabled, long scheduleResultBudget, long resultBudget, int strikes,
+                                 boolean sliceOffenders, long sliceBudget) {
+        Watchdog.enabled = enabled;
+        Watchdog.scheduleResultBudget = scheduleResultBudget * 1_000_000;
+        Watchdog.resultBudget = resultBudget * 1_000_000;
+        Watchdog.strikes = Math.max(1, strikes);
+        Watchdog.sliceOffenders = sliceOffenders;
+        Watchdog.sliceBudget = Math.max(1, sliceBudget) * 1_000_000;
+    }
+
+    /**
+     * @return The current {@link System#nanoTime()}, or 0 if the watchdog is disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @param start The value returned by {@link #start()}.
+     * @return The nanoseconds elapsed since start, or 0 if the watchdog was disabled.
+     */
+    public static long elapsed(long start) {
+        return start == 0 ? 0 : System.nanoTime() - start;
+    }
+
+    /**
+     * Sets the schedule result being performed, so offenders are kept and logged by their schedule.
+     *
+     * @param schedule The schedule being run, or null once it is done.
+     * @param index    The index of the schedule result being performed in the schedule.
+     */
+    public static void running(@Nullable Schedule schedule, int index) {
+        running = schedule;
+        runningIndex = index;
+    }
+
+    /**
+     * @param create Whether the offender should be created if the running schedule result has none.
+     * @return The offender of the running schedule result, or null if there is none or no schedule is running.
+     */
+    private static @Nullable Offender offender(boolean create) {
+        Schedule schedule = running;
+        if (schedule == null) return null;
+        if (!create) {
+            Map<Integer, Offender> byIndex = offenders.get(schedule.dueDate());
+            return byIndex == null ? null : byIndex.get(runningIndex);
+        }
+        return offenders.computeIfAbsent(schedule.dueDate(), k -> new ConcurrentHashMap<>()).computeIfAbsent(runningIndex, k -> new Offender());
+    }
+
+    /**
+     * Checks the time a schedule result took to perform all its results.
+     *
+     * @param scheduleResult The schedule result that was performed.
+     * @param elapsed        The nanoseconds it took.
+     */
+    public static void checkScheduleResult(@NotNull ScheduleResult scheduleResult, long elapsed) {
+        if (elapsed <= scheduleResultBudget) return;
+        Offender offender = offender(true);
+        if (offender != null) offender.breach(elapsed, sliceOffenders);
+        log(running, scheduleResult.resultName(), elapsed, scheduleResultBudget);
+    }
+
+    /**
+     * Performs the result to the targets, timing each call on its own. Results that override
+     * {@link TargetableResult#performAll(Collection)} are timed as a single call, since their work is shared between
+     * the targets; others are performed to each player separately, so a single slow player is not hidden in an average.
+     *
+     * @param result  The result to perform.
+     * @param targets The players to perform the result to.
+     * @return The nanoseconds the slowest call took, or 0 if the watchdog is disabled.
+     */
+    public static long performAll(@NotNull TargetableResult result, @NotNull Collection<? extends Player> targets) {
+        if (!enabled) {
+            result.performAll(targets);
+            return 0;
+        }
+        if (batched.get(result.getClass())) {
+            long start = System.nanoTime();
+            result.performAll(targets);
+            return System.nanoTime() - start;
+        }
+
+        long slowest = 0;
+        for (Player player : targets) {
+            long start = System.nanoTime();
+            result.perform(player);
+            slowest = Math.max(slowest, System.nanoTime() - start);
+        }
+        return slowest;
+    }
+
+    /**
+     * Checks the time a single call to a result took to perform.
+     *
+     * @param scheduleResult The schedule result that owns the result.
+     * @param result         The result that was performed.
+     * @param elapsed        The nanoseconds it took.
+     */
+    public static void checkResult(@NotNull ScheduleResult scheduleResult, @NotNull Result result, long elapsed) {
+        if (elapsed <= resultBudget) return;
+        Offender offender = offender(true);
+        if (offender != null) offender.breach(elapsed, sliceOffenders);
+        log(running, scheduleResult.resultName() + " > " + result.resultName(), elapsed, resultBudget);
+    }
+
+    private static void log(@Nullable Schedule schedule, @NotNull String name, long elapsed, long budget) {
+        EpicScheduler.getConsoleLogger().log("Result '" + name + "' of schedule '" + (schedule == null ? "unknown" : schedule.formatted())
+                + "' took " + String.format("%.2f", elapsed / 1_000_000.0) + "ms on the main thread, over the "
+                + (budget / 1_000_000) + "ms budget.", ConsoleLogger.Level.WARN);
+    }
+
+    /**
+     * @return Whether the running schedule result was flagged to have its next run delivered over multiple ticks.
+     */
+    public static boolean shouldSlice() {
+        if (!sliceOffenders || offenders.isEmpty()) return false;
+        Offender offender = offender(false);
+        return offender != null && offender.flagged;
+    }
+
+    /**
+     * @param schedule The schedule of the schedule result to check.
+     * @param index    The index of the schedule result in the schedule.
+     * @return The breaches of the schedule result, if it breached the budget at least the configured amount of strikes.
+     */
+    public static @Nullable Offender repeatOffender(@NotNull Schedule schedule, int index) {
+        if (offenders.isEmpty()) return null;
+        Map<Integer, Offender> byIndex = offenders.get(schedule.dueDate());
+        Offender offender = byIndex == null ? null : byIndex.get(index);
+        return offender != null && offender.breaches >= strikes ? offender : null;
+    }
+
+    /**
+     * Delivers results over multiple ticks, performing as many results as fit in the slice budget each tick.
+     * Non-targetable results are deferred to the next ticks as well. Each call is still checked against the result
+     * budget, so an offender that stays slow keeps getting strikes and is sliced again on its next run.
+     *
+     * @param scheduleResult The schedule result being performed.
+     * @param results        The picked results to perform.
+     * @param targets        The targets of the targetable results.
+     */
+    public static void slice(@NotNull ScheduleResult scheduleResult, @NotNull List<Result> results,
+                             @NotNull Collection<? extends Player> targets) {
+        // The offender is kept, rather than looked up by its schedule later, because it moves along with repeats.
+        Schedule schedule = running;
+        Offender offender = offender(false);
+        if (offender != null) offender.flagged = false;
+
+        var queue = new ArrayDeque<Slice>();
+        // Copying targets, because some collections are live views of online players.
+        var players = new ArrayList<Player>(targets);
+
+        for (Result result : results) {
+            if (result instanceof TargetableResult) {
+                for (Player player : players) queue.add(new Slice(result, player));
+            } else {
+                queue.add(new Slice(result, null));
+            }
+        }
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                Slice next;
+                while ((next = queue.poll()) != null) {
+                    long resultStart = System.nanoTime();
+                    next.perform();
+                    long elapsed = System.nanoTime() - resultStart;
+                    if (enabled && elapsed > resultBudget) {
+                        if (offender != null) offender.breach(elapsed, sliceOffenders);
+                        log(schedule, scheduleResult.resultName() + " > " + next.result().resultName(), elapsed, resultBudget);
+                    }
+                    if (System.nanoTime() - start >= sliceBudget) break;
+                }
+                if (queue.isEmpty()) cancel();
+            }
+        }.runTaskTimer(JavaPlugin.getPlugin(EpicScheduler.class), 1, 1);
+    }
+
+    /**
+     * Moves the offenders of a schedule to its next repeat.
+     *
+     * @param from The due date of the schedule.
+     * @param to   The due date of the repeat.
+     */
+    public static void moveOffenders(@NotNull LocalDateTime from, @NotNull LocalDateTime to) {
+        if (offenders.isEmpty()) return;
+        Map<Integer, Offender> byIndex = offenders.remove(from);
+        if (byIndex != null) offenders.put(to, byIndex);
+    }
+
+    /**
+     * Forgets the offenders of a schedule.
+     *
+     * @param dueDate The due date of the schedule.
+     */
+    public static void removeOffenders(@NotNull LocalDateTime dueDate) {
+        if (offenders.isEmpty()) return;
+        offenders.remove(dueDate);
+    }
+
+    /**
+     * Forgets the offenders of every schedule that is not in the collection.
+     *
+     * @param dueDates The due dates of the schedules to keep the offenders of.
+     */
+    public static void retainOffenders(@NotNull Collection<LocalDateTime> dueDates) {
+        if (offenders.isEmpty()) return;
+        offenders.keySet().retainAll(dueDates);
+    }
+
+    /**
+     * Forgets all offenders.
+     */
+    public static void reset() {
+        offenders.clear();
+    }
+
+    /**
+     * A single call of a sliced delivery.
+     *
+     * @param result The result to perform.
+     * @param player The player to perform the targetable result to, or null if the result is not targetable.
+     */
+    private record Slice(@NotNull Result result, @Nullable Player player) {
+        void perform() {
+            if (player == null) result.perform();
+            else if (player.isOnline()) ((TargetableResult) result).perform(player);
+        }
+    }
+
+    public static final class Offender {
+        private volatile int breaches;
+        private volatile long lastNanos;
+        private volatile boolean flagged;
+
+        private synchronized void breach(long nanos, boolean flag) {
+            ++breaches;
+            lastNanos = nanos;
+            if (flag) flagged = true;
+        }
+
+        public int breaches() {
+            return breaches;
+        }
+
+        public long lastNanos() {
+            return lastNanos;
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package com.epicnicity322.epicscheduler.result;
 
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
+import com.epicnicity322.epicscheduler.result.type.ResultType;
 import com.epicnicity322.epicscheduler.result.type.TargetableResult;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import net.md_5.bungee.api.ChatMessageType;
@@ -29,6 +31,11 @@ import org.jetbrains.annotations.NotNull;
 import java.io.Serializable;
 
 public interface ActionBar extends TargetableResult {
+    @NotNull ResultType TYPE = ResultType.of("Action Bars", true, (scheduleName, key, section) -> {
+        String text = section.getString("Text").orElse("");
+        return text.isBlank() ? null : new Record(ResultPool.color(text));
+    });
+
     @Override
     @NotNull
     default String resultName() {
@@ -45,6 +52,11 @@ public interface ActionBar extends TargetableResult {
         section.set("Text", text().replace(ChatColor.COLOR_CHAR, '&'));
     }
 
+    @Override
+    default @NotNull String summary() {
+        return text();
+    }
+
     @NotNull
     String text();
 
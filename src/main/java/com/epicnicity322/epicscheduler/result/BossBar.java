@@ -18,6 +18,9 @@
 
 package com.epicnicity322.epicscheduler.result;
 
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
+import com.epicnicity322.epicscheduler.result.type.ResultType;
 import com.epicnicity322.epicscheduler.result.type.TargetableResult;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
@@ -32,6 +35,27 @@ import java.util.HashMap;
 import java.util.UUID;
 
 public interface BossBar extends TargetableResult {
+    @NotNull ResultType TYPE = ResultType.of("Boss Bars", true, (scheduleName, key, section) -> {
+        BarColor color = null;
+        BarStyle style = null;
+        try {
+            String title = section.getString("Title").orElse("");
+            if (title.isBlank()) return null;
+            color = BarColor.valueOf(section.getString("Color").orElse("PINK"));
+            style = BarStyle.valueOf(section.getString("Style").orElse("SOLID"));
+            double progress = section.getNumber("Progress").orElse(0.0).doubleValue();
+            if (progress > 1.0) progress = 1.0;
+            if (progress < 0.0) progress = 0.0;
+            return new Record(ResultPool.color(title), color, style, progress);
+        } catch (Exception ignored) {
+            if (color == null)
+                EpicScheduler.getConsoleLogger().log("Boss bar result " + key + " of '" + scheduleName + "' has an unknown color: " + section.getString("Color").orElse(""));
+            else if (style == null)
+                EpicScheduler.getConsoleLogger().log("Boss bar result " + key + " of '" + scheduleName + "' has an unknown style: " + section.getString("Style").orElse(""));
+            return null;
+        }
+    });
+
     @Override
     @NotNull
     default String resultName() {
@@ -56,6 +80,11 @@ public interface BossBar extends TargetableResult {
         section.set("Title", title().replace(ChatColor.COLOR_CHAR, '&'));
     }
 
+    @Override
+    default @NotNull String summary() {
+        return title() + ChatColor.RESET + " (" + color() + ", " + style() + ", " + progress() + ")";
+    }
+
     @NotNull
     BarColor color();
 
@@ -18,6 +18,8 @@
 
 package com.epicnicity322.epicscheduler.result;
 
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
+import com.epicnicity322.epicscheduler.result.type.ResultType;
 import com.epicnicity322.epicscheduler.result.type.TargetableResult;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.ChatColor;
@@ -27,6 +29,11 @@ import org.jetbrains.annotations.NotNull;
 import java.io.Serializable;
 
 public interface ChatMessage extends TargetableResult {
+    @NotNull ResultType TYPE = ResultType.of("Chat Messages", true, (scheduleName, key, section) -> {
+        String text = section.getString("Text").orElse("");
+        return text.isBlank() ? null : new Record(ResultPool.color(text));
+    });
+
     @Override
     @NotNull
     default String resultName() {
@@ -43,6 +50,11 @@ public interface ChatMessage extends TargetableResult {
         section.set("Text", text().replace(ChatColor.COLOR_CHAR, '&'));
     }
 
+    @Override
+    default @NotNull String summary() {
+        return text();
+    }
+
     @NotNull
     String text();
 
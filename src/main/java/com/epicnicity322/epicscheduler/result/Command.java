@@ -19,6 +19,9 @@
 package com.epicnicity322.epicscheduler.result;
 
 import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
+import com.epicnicity322.epicscheduler.result.type.ResultType;
+import com.epicnicity322.epicscheduler.result.type.Target;
 import com.epicnicity322.epicscheduler.result.type.TargetableResult;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
@@ -29,9 +32,15 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public interface Command extends Result {
+    @NotNull ResultType TYPE = ResultType.of("Commands", false, (scheduleName, key, section) -> {
+        List<CommandValue> commandValues = section.getCollection("Values", (obj) -> ResultPool.intern(CommandValue.Record.parseCommandValue(obj.toString())));
+        return commandValues.isEmpty() ? null : new Record(Collections.unmodifiableList(commandValues));
+    });
+
     @Override
     @NotNull
     default String resultName() {
@@ -44,14 +53,15 @@ public interface Command extends Result {
     @Override
     default void perform() {
         for (CommandValue command : values()) {
-            String target = command.target();
+            Target target = command.target();
             String commandInput = command.command();
             CommandValue.CommandValueExecutor executor = command.executor();
 
             if (target == null) {
                 Bukkit.dispatchCommand(Bukkit.getConsoleSender(), commandInput);
             } else {
-                for (Player player : TargetableResult.findTarget(target)) {
+                // Copying targets, because targets are shared between results, and the dispatched commands could fire another.
+                for (Player player : new ArrayList<>(TargetableResult.findTarget(target))) {
                     String formattedCommand = TargetableResult.format(player, commandInput);
                     CommandSender targetExecutor;
 
@@ -67,17 +77,25 @@ public interface Command extends Result {
         }
     }
 
+    @Override
+    default @NotNull String summary() {
+        List<CommandValue> commandValues = values();
+        if (commandValues.isEmpty()) return "";
+        String first = '/' + commandValues.get(0).command();
+        return commandValues.size() == 1 ? first : first + " (+" + (commandValues.size() - 1) + ")";
+    }
+
     @Override
     default void set(@NotNull ConfigurationSection section) {
         List<CommandValue> commandValues = values();
         ArrayList<String> commandList = new ArrayList<>(commandValues.size());
 
         for (CommandValue value : commandValues) {
-            String target = value.target();
+            Target target = value.target();
             if (target == null) {
                 commandList.add(value.command());
             } else {
-                commandList.add(target + ';' + value.executor().name() + ';' + value.command());
+                commandList.add(target.text() + ';' + value.executor().name() + ';' + value.command());
             }
         }
 
@@ -86,17 +104,11 @@ public interface Command extends Result {
 
     interface CommandValue {
         /**
-         * Who this command will be executed to. The options are:
-         * <ul>
-         *     <li>"!EVERYONE" - Everyone online in the server at the moment.</li>
-         *     <li>{@literal <world>} - A world's name.</li>
-         *     <li>{@literal <player>} - A player's {@link java.util.UUID}.</li>
-         * </ul>
-         *
-         * @return "!EVERYONE", a world name, or an {@link java.util.UUID} of a player.
+         * @return Who this command will be executed to, or null if it is executed once in console.
+         * @see Target
          */
         @Nullable
-        String target();
+        Target target();
 
         /**
          * Who should execute this command.
@@ -119,7 +131,7 @@ public interface Command extends Result {
             CONSOLE
         }
 
-        record Record(@Nullable String target, @NotNull CommandValueExecutor executor,
+        record Record(@Nullable Target target, @NotNull CommandValueExecutor executor,
                       @NotNull String command) implements CommandValue, Serializable {
             public static @NotNull Record parseCommandValue(@NotNull String value) {
                 int firstSeparator = value.indexOf(';');
@@ -129,8 +141,7 @@ public interface Command extends Result {
                     return new Record(null, CommandValueExecutor.CONSOLE, value);
                 }
 
-                String target = value.substring(0, firstSeparator);
-                if (target.equals("EVERYONE")) target = "!EVERYONE";
+                Target target = Target.parse(value.substring(0, firstSeparator));
                 value = value.substring(firstSeparator + 1); // Removing target from value.
                 int secondSeparator = value.indexOf(';');
                 if (secondSeparator == -1) return new Record(target, CommandValueExecutor.CONSOLE, value);
@@ -18,6 +18,8 @@
 
 package com.epicnicity322.epicscheduler.result;
 
+import com.epicnicity322.epicscheduler.result.type.ResultPool;
+import com.epicnicity322.epicscheduler.result.type.ResultType;
 import com.epicnicity322.epicscheduler.result.type.TargetableResult;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.ChatColor;
@@ -27,6 +29,16 @@ import org.jetbrains.annotations.NotNull;
 import java.io.Serializable;
 
 public interface Title extends TargetableResult {
+    @NotNull ResultType TYPE = ResultType.of("Titles", true, (scheduleName, key, section) -> {
+        String title = section.getString("Title").orElse("");
+        String subtitle = section.getString("Subtitle").orElse("");
+        if (title.isBlank() || subtitle.isBlank()) return null;
+        int fadeIn = section.getNumber("Fade In").orElse(10).intValue();
+        int stay = section.getNumber("Stay").orElse(70).intValue();
+        int fadeOut = section.getNumber("Fade Out").orElse(20).intValue();
+        return new Record(ResultPool.color(title), ResultPool.color(subtitle), fadeIn, stay, fadeOut);
+    });
+
     @Override
     @NotNull
     default String resultName() {
@@ -49,6 +61,11 @@ public interface Title extends TargetableResult {
         section.set("Fade Out", fadeOut());
     }
 
+    @Override
+    default @NotNull String summary() {
+        return title() + ChatColor.RESET + " / " + subtitle();
+    }
+
     @NotNull
     String title();
 
@@ -0,0 +1,160 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The online players that have each permission used by {@link Target.Permission} targets, so resolving these targets
+ * does not check the permission of every online player. Members are updated as players join, quit, or change worlds,
+ * and a reconcile goes through a few online players every tick to catch permissions changed by other plugins, since
+ * Bukkit has no event for that. Plugins that change permissions can call {@link #recalculate(Player)} to apply it
+ * right away.
+ * <p>
+ * Permissions are indexed on the tick after a target that uses them is parsed, and are kept while the server is up,
+ * since there are only as many as the permissions used in schedules. Apart from {@link #watch(String)}, the index
+ * must only be used on the main thread.
+ */
+public final class PermissionIndex implements Listener {
+    private static final @NotNull HashMap<String, HashMap<UUID, Player>> nodes = new HashMap<>();
+    private static final @NotNull Set<String> watched = ConcurrentHashMap.newKeySet();
+    private static final @NotNull ArrayDeque<UUID> reconcileQueue = new ArrayDeque<>();
+    private static long reconcileTicks = 600;
+    private static @Nullable BukkitTask reconciler;
+
+    /**
+     * Stops the previous reconcile, if any, and starts reconciling every online player within the interval.
+     *
+     * @param plugin           The plugin to own the reconcile task.
+     * @param reconcileSeconds The time in seconds to go through every online player.
+     */
+    public static synchronized void configure(@NotNull Plugin plugin, long reconcileSeconds) {
+        if (reconciler != null) reconciler.cancel();
+        reconcileTicks = Math.max(1, reconcileSeconds * 20);
+        reconciler = Bukkit.getScheduler().runTaskTimer(plugin, PermissionIndex::reconcile, 1, 1);
+    }
+
+    /**
+     * Indexes the permission on the next tick, so it is ready once a target using it is resolved. Can be called from
+     * any thread.
+     *
+     * @param permission The permission, lowercase.
+     */
+    static void watch(@NotNull String permission) {
+        watched.add(permission);
+    }
+
+    /**
+     * @param permission The permission, lowercase.
+     * @return The online players with the permission. This is a live view of the index.
+     */
+    static @NotNull Collection<Player> members(@NotNull String permission) {
+        return node(permission).values();
+    }
+
+    /**
+     * @param permission The permission, lowercase.
+     * @param player     An online player.
+     * @return Whether the player had the permission when last checked.
+     */
+    static boolean has(@NotNull String permission, @NotNull Player player) {
+        return node(permission).containsKey(player.getUniqueId());
+    }
+
+    /**
+     * Checks again every indexed permission of the player. Call this after changing the permissions of a player.
+     *
+     * @param player The player whose permissions changed.
+     */
+    public static void recalculate(@NotNull Player player) {
+        for (var entry : nodes.entrySet()) {
+            update(entry.getKey(), entry.getValue(), player);
+        }
+    }
+
+    private static @NotNull HashMap<UUID, Player> node(@NotNull String permission) {
+        HashMap<UUID, Player> node = nodes.get(permission);
+        if (node == null) {
+            node = new LinkedHashMap<>();
+            // First use of the permission, so every online player must be checked once.
+            for (Player player : Bukkit.getOnlinePlayers()) update(permission, node, player);
+            nodes.put(permission, node);
+        }
+        return node;
+    }
+
+    private static void update(@NotNull String permission, @NotNull HashMap<UUID, Player> node, @NotNull Player player) {
+        if (player.isOnline() && player.hasPermission(permission)) {
+            node.put(player.getUniqueId(), player);
+        } else {
+            node.remove(player.getUniqueId());
+        }
+    }
+
+    private static void reconcile() {
+        if (!watched.isEmpty()) {
+            for (Iterator<String> iterator = watched.iterator(); iterator.hasNext(); ) {
+                node(iterator.next());
+                iterator.remove();
+            }
+        }
+        if (nodes.isEmpty()) return;
+        if (reconcileQueue.isEmpty()) {
+            for (Player player : Bukkit.getOnlinePlayers()) reconcileQueue.add(player.getUniqueId());
+            if (reconcileQueue.isEmpty()) return;
+        }
+        long perTick = Math.max(1, (Bukkit.getOnlinePlayers().size() + reconcileTicks - 1) / reconcileTicks);
+
+        for (long i = 0; i < perTick && !reconcileQueue.isEmpty(); ++i) {
+            Player player = Bukkit.getPlayer(reconcileQueue.poll());
+            if (player != null) recalculate(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        recalculate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        for (HashMap<UUID, Player> node : nodes.values()) node.remove(uuid);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        // Permission plugins may give different permissions in each world.
+        recalculate(event.getPlayer());
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks which results of a {@link ScheduleResult} are performed. Picking never copies the list of results: weighted
+ * picks use an alias table built once, so each pick takes constant time, and rotations only keep the index of the
+ * next result, which is saved with the schedule so it survives restarts.
+ */
+public final class Picker implements Serializable {
+    public static final @NotNull Picker ALL = new Picker(Mode.ALL, null, 0);
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private final @NotNull Mode mode;
+    private final double @Nullable [] weights;
+    private final double @Nullable [] probabilities;
+    private final int @Nullable [] aliases;
+    private final @NotNull AtomicInteger rotation;
+
+    /**
+     * @param mode     How results are picked.
+     * @param weights  The weight of each result for random picks, or null if all results are equally likely.
+     * @param rotation The index of the next result of a rotation.
+     */
+    public Picker(@NotNull Mode mode, double @Nullable [] weights, int rotation) {
+        this.mode = mode;
+        this.rotation = new AtomicInteger(Math.max(0, rotation));
+
+        if (weights == null || weights.length == 0 || uniform(weights)) {
+            this.weights = null;
+            this.probabilities = null;
+            this.aliases = null;
+            return;
+        }
+        this.weights = weights.clone();
+        this.probabilities = new double[weights.length];
+        this.aliases = new int[weights.length];
+        buildAliasTable(this.weights, probabilities, aliases);
+    }
+
+    private static boolean uniform(double @NotNull [] weights) {
+        for (double weight : weights) if (weight != weights[0]) return false;
+        return true;
+    }
+
+    // Vose's alias method: each column holds the probability of its own result, and the result that fills the rest.
+    private static void buildAliasTable(double @NotNull [] weights, double @NotNull [] probabilities, int @NotNull [] aliases) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) total += Math.max(0, weight);
+        var scaled = new double[n];
+        var small = new ArrayDeque<Integer>();
+        var large = new ArrayDeque<Integer>();
+
+        for (int i = 0; i < n; ++i) {
+            scaled[i] = total <= 0 ? 1 : Math.max(0, weights[i]) * n / total;
+            (scaled[i] < 1 ? small : large).add(i);
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.poll();
+            int more = large.poll();
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            (scaled[more] < 1 ? small : large).add(more);
+        }
+        // Left overs are only off from 1 by rounding errors.
+        while (!large.isEmpty()) probabilities[large.poll()] = 1;
+        while (!small.isEmpty()) probabilities[small.poll()] = 1;
+    }
+
+    public @NotNull Mode mode() {
+        return mode;
+    }
+
+    /**
+     * @param index The index of the result.
+     * @return The weight of the result in random picks.
+     */
+    public double weight(int index) {
+        return weights == null || index >= weights.length ? 1 : weights[index];
+    }
+
+    /**
+     * @return The index of the next result of the rotation.
+     */
+    public int rotation() {
+        return rotation.get();
+    }
+
+    /**
+     * @param size The amount of results to pick from.
+     * @return The index of the next result picked, for the modes that pick a single result.
+     */
+    public int next(int size) {
+        if (mode == Mode.ROTATION) {
+            return Math.floorMod(rotation.getAndUpdate(i -> Math.floorMod(i + 1, size)), size);
+        }
+        var random = ThreadLocalRandom.current();
+        // The table no longer matches if results were added without weights.
+        if (probabilities == null || aliases == null || probabilities.length != size) return random.nextInt(size);
+        int column = random.nextInt(size);
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+
+    /**
+     * @param results The results to pick from.
+     * @return All results if the mode is {@link Mode#ALL}, or a single result otherwise.
+     */
+    public @NotNull List<Result> pick(@NotNull List<Result> results) {
+        if (mode == Mode.ALL || results.isEmpty()) return results;
+        return Collections.singletonList(results.get(next(results.size())));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Picker other && mode == other.mode && Arrays.equals(weights, other.weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mode.hashCode() + Arrays.hashCode(weights);
+    }
+
+    public enum Mode {
+        /**
+         * All results are performed.
+         */
+        ALL,
+        /**
+         * A single random result is performed to all targets.
+         */
+        RANDOM,
+        /**
+         * Each target gets their own random result.
+         */
+        RANDOM_PER_PLAYER,
+        /**
+         * Results are performed one at a time in order, going back to the first after the last.
+         */
+        ROTATION
+    }
+}
@@ -30,5 +30,12 @@ public interface Result {
 
     void perform();
 
+    /**
+     * @return A short description of what this result does, to be shown in chat.
+     */
+    default @NotNull String summary() {
+        return resultName();
+    }
+
     void set(@NotNull ConfigurationSection section);
 }
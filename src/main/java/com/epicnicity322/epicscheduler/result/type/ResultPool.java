@@ -0,0 +1,147 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import com.epicnicity322.epicscheduler.Schedule;
+import org.bukkit.ChatColor;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * Shares a single instance between results with the same content, so schedules copied around many times don't keep
+ * a copy of their results and texts each. Only records are pooled, since their equality is defined by their content
+ * and they can't be changed once created.
+ * <p>
+ * Pooled instances are held weakly, so they are forgotten once no schedule uses them anymore. The pool is also cleared
+ * on '/es reset'. Instances already shared stay valid, they just stop being handed out.
+ */
+public final class ResultPool {
+    private static final @NotNull WeakHashMap<Object, WeakReference<Object>> pool = new WeakHashMap<>();
+    private static final @NotNull WeakHashMap<String, WeakReference<String>> colored = new WeakHashMap<>();
+
+    private ResultPool() {
+    }
+
+    /**
+     * @param value The value to share.
+     * @param <T>   The type of the value.
+     * @return The pooled instance equal to the value, or the value itself if it is the first of its content.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> @NotNull T intern(@NotNull T value) {
+        synchronized (pool) {
+            WeakReference<Object> reference = pool.get(value);
+            Object pooled = reference == null ? null : reference.get();
+            if (pooled != null) return (T) pooled;
+            pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    /**
+     * Translates the '&amp;' color codes of the text, translating each text only once.
+     *
+     * @param text The text with '&amp;' color codes.
+     * @return The shared colored text.
+     */
+    public static @NotNull String color(@NotNull String text) {
+        synchronized (colored) {
+            WeakReference<String> reference = colored.get(text);
+            String translated = reference == null ? null : reference.get();
+            if (translated != null) return translated;
+        }
+
+        String translated = intern(ChatColor.translateAlternateColorCodes('&', text));
+        synchronized (colored) {
+            colored.put(text, new WeakReference<>(translated));
+        }
+        return translated;
+    }
+
+    /**
+     * @param result The result to share.
+     * @return The pooled result equal to this one, or the result itself if it is not a record.
+     */
+    public static @NotNull Result result(@NotNull Result result) {
+        return result.getClass().isRecord() ? intern(result) : result;
+    }
+
+    /**
+     * @param scheduleResult The schedule result whose results should be shared.
+     * @return A schedule result with pooled results, or the same schedule result if they were pooled already.
+     */
+    public static @NotNull ScheduleResult results(@NotNull ScheduleResult scheduleResult) {
+        if (!(scheduleResult instanceof ScheduleResult.Record record)) return scheduleResult;
+        List<Result> results = record.results();
+        var pooled = new ArrayList<Result>(results.size());
+        boolean changed = false;
+
+        for (Result result : results) {
+            Result shared = result(result);
+            if (shared != result) changed = true;
+            pooled.add(shared);
+        }
+        if (!changed) return record;
+        return new ScheduleResult.Record(record.resultName(), record.picker(), Collections.unmodifiableList(pooled), record.target());
+    }
+
+    /**
+     * @param schedule The schedule whose results should be shared.
+     * @return A schedule with pooled results, or the same schedule if they were pooled already.
+     */
+    public static @NotNull Schedule results(@NotNull Schedule schedule) {
+        List<ScheduleResult> scheduleResults = schedule.scheduleResults();
+        var pooled = new ArrayList<ScheduleResult>(scheduleResults.size());
+        boolean changed = false;
+
+        for (ScheduleResult scheduleResult : scheduleResults) {
+            ScheduleResult shared = results(scheduleResult);
+            if (shared != scheduleResult) changed = true;
+            pooled.add(shared);
+        }
+        if (!changed) return schedule;
+        return new Schedule(schedule.dueDate(), Collections.unmodifiableList(pooled), schedule.repeat(), schedule.skipMissedRepeats(), schedule.tags(), schedule.priority(), schedule.splay());
+    }
+
+    /**
+     * Forgets every pooled instance.
+     */
+    public static void clear() {
+        synchronized (pool) {
+            pool.clear();
+        }
+        synchronized (colored) {
+            colored.clear();
+        }
+    }
+
+    /**
+     * @return The number of pooled instances still used somewhere.
+     */
+    static int size() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+}
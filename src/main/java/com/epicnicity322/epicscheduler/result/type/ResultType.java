@@ -0,0 +1,79 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A kind of result that can be set in schedule sections, like 'Titles' or 'Commands'. Types are registered in
+ * {@link ResultTypes}, so other plugins can add their own.
+ * <p>
+ * Results are parsed by their type, and saved back to config by {@link Result#set(ConfigurationSection)}, which should
+ * write the same keys the parser reads. Results must be {@link java.io.Serializable} to be stored in the database.
+ */
+public interface ResultType {
+    /**
+     * Creates a result type from a parser.
+     *
+     * @param name       The name of the section of this type in schedules.
+     * @param targetable Whether the results of this type require a target.
+     * @param parser     The parser of the results of this type.
+     * @return The result type.
+     */
+    static @NotNull ResultType of(@NotNull String name, boolean targetable, @NotNull Parser parser) {
+        return new Record(name, targetable, parser);
+    }
+
+    /**
+     * @return The name of the section of this type in schedules, like 'Titles'. Names are case-insensitive.
+     */
+    @NotNull
+    String name();
+
+    /**
+     * @return Whether the results of this type are {@link TargetableResult}s, and require a 'Target' to be set.
+     */
+    boolean targetable();
+
+    /**
+     * Parses one of the numbered results of a section of this type.
+     *
+     * @param scheduleName The name of the schedule, for logging.
+     * @param key          The key of the result in the section of this type.
+     * @param section      The section of the result.
+     * @return The result, or null if the section is invalid and should be ignored.
+     */
+    @Nullable
+    Result parse(@NotNull String scheduleName, @NotNull String key, @NotNull ConfigurationSection section);
+
+    @FunctionalInterface
+    interface Parser {
+        @Nullable
+        Result parse(@NotNull String scheduleName, @NotNull String key, @NotNull ConfigurationSection section);
+    }
+
+    record Record(@NotNull String name, boolean targetable, @NotNull Parser parser) implements ResultType {
+        @Override
+        public @Nullable Result parse(@NotNull String scheduleName, @NotNull String key, @NotNull ConfigurationSection section) {
+            return parser.parse(scheduleName, key, section);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import com.epicnicity322.epicscheduler.result.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The result types that can be used in schedules. Types registered by other plugins are only used by schedules loaded
+ * after they were registered, so they should be registered on load, or followed by '/es reset'.
+ */
+public final class ResultTypes {
+    private static final @NotNull ConcurrentHashMap<String, ResultType> types = new ConcurrentHashMap<>();
+
+    static {
+        register(ActionBar.TYPE);
+        register(BossBar.TYPE);
+        register(ChatMessage.TYPE);
+        register(Command.TYPE);
+        register(Title.TYPE);
+    }
+
+    private ResultTypes() {
+    }
+
+    /**
+     * Registers a result type, replacing any type with the same name.
+     *
+     * @param type The type to register.
+     */
+    public static void register(@NotNull ResultType type) {
+        types.put(type.name().toLowerCase(Locale.ROOT), type);
+    }
+
+    /**
+     * @param name The name of the type to unregister.
+     * @return Whether there was a type with the name.
+     */
+    public static boolean unregister(@NotNull String name) {
+        return types.remove(name.toLowerCase(Locale.ROOT)) != null;
+    }
+
+    /**
+     * @param name The name of the section of the type, case-insensitive.
+     * @return The type with the name, or null if there is none.
+     */
+    public static @Nullable ResultType get(@NotNull String name) {
+        return types.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public static @NotNull Collection<ResultType> types() {
+        return Collections.unmodifiableCollection(types.values());
+    }
+
+    /**
+     * @return The class loaders of the registered types, which can find the classes of their results.
+     */
+    public static @NotNull Set<ClassLoader> classLoaders() {
+        var loaders = new LinkedHashSet<ClassLoader>();
+        for (ResultType type : types.values()) {
+            // Types made with ResultType#of are of this plugin, but their parser is of the plugin that made them.
+            Object source = type instanceof ResultType.Record record ? record.parser() : type;
+            ClassLoader loader = source.getClass().getClassLoader();
+            if (loader != null) loaders.add(loader);
+        }
+        return loaders;
+    }
+}
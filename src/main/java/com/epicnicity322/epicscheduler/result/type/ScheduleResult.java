@@ -18,6 +18,11 @@
 
 package com.epicnicity322.epicscheduler.result.type;
 
+import com.epicnicity322.epicscheduler.mailbox.Mailbox;
+import com.epicnicity322.epicscheduler.metrics.LoadMonitor;
+import com.epicnicity322.epicscheduler.metrics.ScheduleMetrics;
+import com.epicnicity322.epicscheduler.metrics.SchedulerEvents;
+import com.epicnicity322.epicscheduler.metrics.Watchdog;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -30,41 +35,105 @@ import java.util.Collections;
 import java.util.List;
 
 public interface ScheduleResult extends Result {
-    boolean pickRandom();
+    /**
+     * @return How the results to perform are picked.
+     */
+    @NotNull
+    Picker picker();
 
     @NotNull
     List<Result> results();
 
     /**
-     * Who this result will be executed to. The options are:
-     * <ul>
-     *     <li>"!EVERYONE" - Everyone online in the server at the moment.</li>
-     *     <li>{@literal <world>} - A world's name.</li>
-     *     <li>{@literal <player>} - A player's {@link java.util.UUID}.</li>
-     * </ul>
-     *
-     * @return "!EVERYONE", a world name, or an {@link java.util.UUID} of a player.
+     * @return Who this result will be executed to, or null if it has no target.
+     * @see Target
      */
     @Nullable
-    String target();
+    Target target();
 
     @Override
     default void perform() {
-        Collection<? extends Player> targets = TargetableResult.findTarget(target());
+        long watchdogStart = Watchdog.start();
+        // Thinned while the server is overloaded, if the schedule is set to be thinned.
+        Collection<? extends Player> targets = LoadMonitor.thin(TargetableResult.findTarget(target()));
         List<Result> results = results();
-        if (pickRandom() && !results.isEmpty()) {
-            results = new ArrayList<>(results);
-            Collections.shuffle(results);
-            results = Collections.singletonList(results.stream().findAny().orElseThrow());
+
+        if (picker().mode() == Picker.Mode.RANDOM_PER_PLAYER && results.size() > 1 && !targets.isEmpty()
+                && results.get(0) instanceof TargetableResult) {
+            performPerPlayer(results, targets);
+            Watchdog.checkScheduleResult(this, Watchdog.elapsed(watchdogStart));
+            return;
+        }
+        results = pick();
+        // Players that are offline get the results once they join.
+        if (Mailbox.isEnabled()) Mailbox.post(target(), results);
+        if (Watchdog.shouldSlice()) {
+            Watchdog.slice(this, results, targets);
+            return;
+        }
+        boolean delivered = performAll(results, targets);
+        if (delivered && ScheduleMetrics.isEnabled()) ScheduleMetrics.TARGETS_PER_FIRE.record(targets.size());
+        Watchdog.checkScheduleResult(this, Watchdog.elapsed(watchdogStart));
+    }
+
+    private void performPerPlayer(@NotNull List<Result> results, @NotNull Collection<? extends Player> targets) {
+        // Players are grouped by their pick, so each result is still performed to its players in a single batch.
+        var groups = new ArrayList<List<Player>>(Collections.nCopies(results.size(), null));
+        for (Player player : targets) {
+            int index = picker().next(results.size());
+            List<Player> group = groups.get(index);
+            if (group == null) groups.set(index, group = new ArrayList<>());
+            group.add(player);
+        }
+        if (Mailbox.isEnabled()) Mailbox.post(target(), pick());
+
+        boolean slice = Watchdog.shouldSlice();
+        boolean delivered = false;
+        for (int i = 0; i < groups.size(); ++i) {
+            List<Player> group = groups.get(i);
+            if (group == null) continue;
+            List<Result> picked = Collections.singletonList(results.get(i));
+            if (slice) Watchdog.slice(this, picked, group);
+            else delivered |= performAll(picked, group);
         }
+        if (delivered && ScheduleMetrics.isEnabled()) ScheduleMetrics.TARGETS_PER_FIRE.record(targets.size());
+    }
+
+    private boolean performAll(@NotNull List<Result> results, @NotNull Collection<? extends Player> targets) {
+        boolean delivered = false;
         for (Result result : results) {
+            long start = ScheduleMetrics.start();
+            var event = new SchedulerEvents.ResultPerformed();
+            event.begin();
             if (result instanceof TargetableResult targetable) {
                 if (targets.isEmpty()) continue;
-                for (Player player : targets) targetable.perform(player);
+                SchedulerEvents.beginPlaceholderBatch(result.resultName());
+                long slowest = Watchdog.performAll(targetable, targets);
+                SchedulerEvents.commitPlaceholderBatch();
+                Watchdog.checkResult(this, result, slowest);
+                delivered = true;
             } else {
+                long resultStart = Watchdog.start();
                 result.perform();
+                Watchdog.checkResult(this, result, Watchdog.elapsed(resultStart));
+            }
+            ScheduleMetrics.recordResult(result.resultName(), start);
+            if (event.shouldCommit()) {
+                event.scheduleResult = resultName();
+                event.result = result.resultName();
+                event.type = result.getClass();
+                event.targets = result instanceof TargetableResult ? targets.size() : 0;
+                event.commit();
             }
         }
+        return delivered;
+    }
+
+    /**
+     * @return The results picked by the {@link #picker()}. Picking advances rotations.
+     */
+    default @NotNull List<Result> pick() {
+        return picker().pick(results());
     }
 
     @Override
@@ -72,21 +141,29 @@ public interface ScheduleResult extends Result {
         List<Result> results = results();
         if (results.isEmpty()) return;
 
-        String target = target();
+        Target target = target();
+        Picker picker = picker();
 
         if (target != null) {
-            section.set("Target", target.equals("!EVERYONE") ? "EVERYONE" : target);
+            section.set("Target", target.text());
+        }
+        if (picker.mode() != Picker.Mode.ALL) {
+            section.set("Pick", picker.mode().name());
         }
-        if (pickRandom()) {
-            section.set("Pick", "RANDOM");
+        if (picker.mode() == Picker.Mode.ROTATION) {
+            section.set("Rotation", picker.rotation());
         }
         int i = 1;
         for (Result result : results) {
-            result.set(section.createSection(Integer.toString(i++)));
+            ConfigurationSection resultSection = section.createSection(Integer.toString(i));
+            result.set(resultSection);
+            double weight = picker.weight(i - 1);
+            if (weight != 1) resultSection.set("Weight", weight);
+            ++i;
         }
     }
 
-    record Record(@NotNull String resultName, boolean pickRandom, @NotNull List<Result> results,
-                  @Nullable String target) implements ScheduleResult, Serializable {
+    record Record(@NotNull String resultName, @NotNull Picker picker, @NotNull List<Result> results,
+                  @Nullable Target target) implements ScheduleResult, Serializable {
     }
 }
@@ -0,0 +1,406 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Who a result is performed to, compiled once when the result is parsed. Targets are written as a comma separated
+ * list of elements, where each element is one of:
+ * <ul>
+ *     <li>"EVERYONE" - Everyone online in the server at the moment.</li>
+ *     <li>{@literal <world>} - The name of a world, for the players in it.</li>
+ *     <li>{@literal <player>} - The {@link UUID} of a player.</li>
+ *     <li>{@literal perm:<permission>} - The players that have the permission, kept in {@link PermissionIndex}.</li>
+ * </ul>
+ * Elements starting with '-' are excluded, so {@literal "EVERYONE,-world_nether"} targets everyone who is not in the
+ * nether.
+ * <p>
+ * Targets are resolved on the main thread. The collection returned by {@link #resolve()} is reused by the next
+ * resolution of the same target, so it must be copied to be kept.
+ */
+public sealed interface Target extends Serializable permits Target.Everyone, Target.Worlds, Target.Players, Target.Permission, Target.Union, Target.Exclusion {
+    @NotNull Everyone EVERYONE = new Everyone();
+
+    /**
+     * Compiles a target from its text.
+     *
+     * @param text The comma separated elements of the target.
+     * @return The target, or null if the text has no elements.
+     */
+    static @Nullable Target parse(@NotNull String text) {
+        boolean everyone = false;
+        var worlds = new LinkedHashSet<String>();
+        var players = new LinkedHashSet<UUID>();
+        var excludedWorlds = new LinkedHashSet<String>();
+        var excludedPlayers = new LinkedHashSet<UUID>();
+        var permissions = new LinkedHashSet<String>();
+        var excludedPermissions = new LinkedHashSet<String>();
+
+        for (String element : text.split(",")) {
+            element = element.trim();
+            boolean excluded = element.startsWith("-");
+            if (excluded) element = element.substring(1).trim();
+            if (element.isEmpty()) continue;
+
+            if (element.equals("EVERYONE") || element.equals("!EVERYONE")) {
+                // Excluding everyone would target no one.
+                if (!excluded) everyone = true;
+                continue;
+            }
+            if (element.regionMatches(true, 0, "perm:", 0, 5)) {
+                String permission = element.substring(5).trim().toLowerCase(Locale.ROOT);
+                if (!permission.isEmpty()) (excluded ? excludedPermissions : permissions).add(permission);
+                continue;
+            }
+            try {
+                (excluded ? excludedPlayers : players).add(UUID.fromString(element));
+            } catch (IllegalArgumentException e) {
+                (excluded ? excludedWorlds : worlds).add(element);
+            }
+        }
+
+        Target base = everyone ? EVERYONE : union(worlds, players, permissions);
+        Target exclusion = union(excludedWorlds, excludedPlayers, excludedPermissions);
+        if (exclusion == null) return base;
+        // Only exclusions were given, so everyone else is targeted.
+        return new Exclusion(base == null ? EVERYONE : base, exclusion);
+    }
+
+    private static @Nullable Target union(@NotNull Set<String> worlds, @NotNull Set<UUID> players, @NotNull Set<String> permissions) {
+        var targets = new ArrayList<Target>();
+        if (!worlds.isEmpty()) targets.add(new Worlds(worlds));
+        if (!players.isEmpty()) targets.add(new Players(players));
+        for (String permission : permissions) targets.add(new Permission(permission));
+        if (targets.isEmpty()) return null;
+        return targets.size() == 1 ? targets.get(0) : new Union(targets);
+    }
+
+    /**
+     * @return The online players targeted, each only once. The collection is reused by the next resolution.
+     */
+    @NotNull
+    Collection<? extends Player> resolve();
+
+    /**
+     * @param player An online player.
+     * @return Whether the player is targeted.
+     */
+    boolean matches(@NotNull Player player);
+
+    /**
+     * @return The players that are targeted by their {@link UUID}, whether they are online or not.
+     */
+    default @NotNull Set<UUID> players() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * @return The elements of this target, as they are written in config.
+     */
+    @NotNull
+    List<String> elements();
+
+    /**
+     * @return The text of this target, as it is written in config.
+     */
+    default @NotNull String text() {
+        return String.join(",", elements());
+    }
+
+    final class Everyone implements Target {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private Everyone() {
+        }
+
+        @Override
+        public @NotNull Collection<? extends Player> resolve() {
+            return Bukkit.getOnlinePlayers();
+        }
+
+        @Override
+        public boolean matches(@NotNull Player player) {
+            return true;
+        }
+
+        @Override
+        public @NotNull List<String> elements() {
+            return Collections.singletonList("EVERYONE");
+        }
+
+        @Serial
+        private Object readResolve() {
+            return EVERYONE;
+        }
+    }
+
+    final class Worlds implements Target {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final @NotNull Set<String> names;
+        private transient ArrayList<Player> buffer;
+
+        public Worlds(@NotNull Set<String> names) {
+            this.names = Collections.unmodifiableSet(new LinkedHashSet<>(names));
+        }
+
+        public @NotNull Set<String> names() {
+            return names;
+        }
+
+        @Override
+        public @NotNull Collection<? extends Player> resolve() {
+            if (buffer == null) buffer = new ArrayList<>();
+            buffer.clear();
+            // A player is only in one world at a time, so there are no duplicates.
+            for (String name : names) {
+                World world = Bukkit.getWorld(name);
+                if (world != null) buffer.addAll(world.getPlayers());
+            }
+            return buffer;
+        }
+
+        @Override
+        public boolean matches(@NotNull Player player) {
+            return names.contains(player.getWorld().getName());
+        }
+
+        @Override
+        public @NotNull List<String> elements() {
+            return new ArrayList<>(names);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Worlds other && names.equals(other.names);
+        }
+
+        @Override
+        public int hashCode() {
+            return names.hashCode();
+        }
+    }
+
+    final class Players implements Target {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final @NotNull Set<UUID> uuids;
+        private transient ArrayList<Player> buffer;
+
+        public Players(@NotNull Set<UUID> uuids) {
+            this.uuids = Collections.unmodifiableSet(new LinkedHashSet<>(uuids));
+        }
+
+        @Override
+        public @NotNull Collection<? extends Player> resolve() {
+            if (buffer == null) buffer = new ArrayList<>(uuids.size());
+            buffer.clear();
+            for (UUID uuid : uuids) {
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null) buffer.add(player);
+            }
+            return buffer;
+        }
+
+        @Override
+        public boolean matches(@NotNull Player player) {
+            return uuids.contains(player.getUniqueId());
+        }
+
+        @Override
+        public @NotNull Set<UUID> players() {
+            return uuids;
+        }
+
+        @Override
+        public @NotNull List<String> elements() {
+            return uuids.stream().map(UUID::toString).toList();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Players other && uuids.equals(other.uuids);
+        }
+
+        @Override
+        public int hashCode() {
+            return uuids.hashCode();
+        }
+    }
+
+    final class Permission implements Target {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final @NotNull String permission;
+
+        public Permission(@NotNull String permission) {
+            this.permission = permission.toLowerCase(Locale.ROOT);
+            PermissionIndex.watch(this.permission);
+        }
+
+        public @NotNull String permission() {
+            return permission;
+        }
+
+        @Override
+        public @NotNull Collection<? extends Player> resolve() {
+            // Members are kept by the index, so no permission is checked here.
+            return PermissionIndex.members(permission);
+        }
+
+        @Override
+        public boolean matches(@NotNull Player player) {
+            return PermissionIndex.has(permission, player);
+        }
+
+        @Override
+        public @NotNull List<String> elements() {
+            return Collections.singletonList("perm:" + permission);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Permission other && permission.equals(other.permission);
+        }
+
+        @Override
+        public int hashCode() {
+            return permission.hashCode();
+        }
+
+        @Serial
+        private Object readResolve() {
+            // Deserialized targets are indexed as well.
+            PermissionIndex.watch(permission);
+            return this;
+        }
+    }
+
+    final class Union implements Target {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final @NotNull List<Target> targets;
+        private transient LinkedHashSet<Player> buffer;
+
+        public Union(@NotNull List<Target> targets) {
+            this.targets = List.copyOf(targets);
+        }
+
+        @Override
+        public @NotNull Collection<? extends Player> resolve() {
+            if (buffer == null) buffer = new LinkedHashSet<>();
+            buffer.clear();
+            // Players targeted by more than one target are only added once.
+            for (Target target : targets) buffer.addAll(target.resolve());
+            return buffer;
+        }
+
+        @Override
+        public boolean matches(@NotNull Player player) {
+            for (Target target : targets) if (target.matches(player)) return true;
+            return false;
+        }
+
+        @Override
+        public @NotNull Set<UUID> players() {
+            var players = new HashSet<UUID>();
+            for (Target target : targets) players.addAll(target.players());
+            return players;
+        }
+
+        @Override
+        public @NotNull List<String> elements() {
+            var elements = new ArrayList<String>();
+            for (Target target : targets) elements.addAll(target.elements());
+            return elements;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Union other && targets.equals(other.targets);
+        }
+
+        @Override
+        public int hashCode() {
+            return targets.hashCode();
+        }
+    }
+
+    final class Exclusion implements Target {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final @NotNull Target base;
+        private final @NotNull Target excluded;
+        private transient ArrayList<Player> buffer;
+
+        public Exclusion(@NotNull Target base, @NotNull Target excluded) {
+            this.base = base;
+            this.excluded = excluded;
+        }
+
+        @Override
+        public @NotNull Collection<? extends Player> resolve() {
+            if (buffer == null) buffer = new ArrayList<>();
+            buffer.clear();
+            for (Player player : base.resolve()) {
+                if (!excluded.matches(player)) buffer.add(player);
+            }
+            return buffer;
+        }
+
+        @Override
+        public boolean matches(@NotNull Player player) {
+            return base.matches(player) && !excluded.matches(player);
+        }
+
+        @Override
+        public @NotNull Set<UUID> players() {
+            var players = new HashSet<>(base.players());
+            players.removeAll(excluded.players());
+            return players;
+        }
+
+        @Override
+        public @NotNull List<String> elements() {
+            var elements = new ArrayList<>(base.elements());
+            for (String element : excluded.elements()) elements.add('-' + element);
+            return elements;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Exclusion other && base.equals(other.base) && excluded.equals(other.excluded);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * base.hashCode() + excluded.hashCode();
+        }
+    }
+}
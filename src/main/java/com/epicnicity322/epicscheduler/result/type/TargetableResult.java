@@ -19,16 +19,15 @@
 package com.epicnicity322.epicscheduler.result.type;
 
 import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.metrics.ScheduleMetrics;
+import com.epicnicity322.epicscheduler.metrics.SchedulerEvents;
 import me.clip.placeholderapi.PlaceholderAPI;
-import org.bukkit.Bukkit;
-import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.UUID;
 
 /**
  * A result that will be executed for every target.
@@ -36,32 +35,23 @@ import java.util.UUID;
 public interface TargetableResult extends Result {
     static @NotNull String format(@NotNull Player player, @NotNull String text) {
         if (EpicScheduler.hasPlaceholderAPI()) {
-            return PlaceholderAPI.setPlaceholders(player, text);
+            long start = System.nanoTime();
+            String formatted = PlaceholderAPI.setPlaceholders(player, text);
+            long elapsed = System.nanoTime() - start;
+            if (ScheduleMetrics.isEnabled()) ScheduleMetrics.PLACEHOLDER_EVALUATION.record(elapsed);
+            SchedulerEvents.addPlaceholderEvaluation(elapsed);
+            return formatted;
         } else {
             return text;
         }
     }
 
-    static @NotNull Collection<? extends Player> findTarget(@Nullable String target) {
-        if (target == null || target.isBlank()) return Collections.emptyList();
-        if (target.equals("!EVERYONE")) {
-            return Bukkit.getOnlinePlayers();
-        } else {
-            for (World w : Bukkit.getWorlds()) {
-                // Looking for matching world name.
-                if (target.equals(w.getName())) {
-                    return w.getPlayers();
-                }
-            }
-            // World name not found, so it could be a UUID of a player.
-            try {
-                Player p = Bukkit.getPlayer(UUID.fromString(target));
-                return p != null ? Collections.singleton(p) : Collections.emptyList();
-            } catch (IllegalArgumentException e) {
-                // Unknown target, returning empty collection.
-                return Collections.emptyList();
-            }
-        }
+    /**
+     * @param target The target to resolve.
+     * @return The online players targeted. The collection is reused by the next resolution of the target.
+     */
+    static @NotNull Collection<? extends Player> findTarget(@Nullable Target target) {
+        return target == null ? Collections.emptyList() : target.resolve();
     }
 
     /**
@@ -72,4 +62,16 @@ public interface TargetableResult extends Result {
     }
 
     void perform(@NotNull Player player);
+
+    /**
+     * Performs this result to all targets at once. Override this to share work between the targets, like sending a
+     * single packet or running a single query, instead of doing it once for each player.
+     *
+     * @param players The players to perform this result to.
+     */
+    default void performAll(@NotNull Collection<? extends Player> players) {
+        for (Player player : players) {
+            perform(player);
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.storage;
+
+import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.result.type.Result;
+import com.epicnicity322.epicscheduler.result.type.ScheduleResult;
+import com.epicnicity322.epicscheduler.result.type.Target;
+import com.epicnicity322.epicscheduler.result.type.TargetableResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schedules that only perform to a single player, stored in a file for each player like
+ * {@literal players/<uuid>.yml}. Files are only kept in memory while needed, and the schedules of a player are only
+ * armed while they are online, since their results would go nowhere otherwise.
+ */
+public final class PlayerStore {
+    private final @NotNull ShardedStorage storage;
+    private final @NotNull Path folder;
+    private final @NotNull ConcurrentHashMap<UUID, Shard> shards = new ConcurrentHashMap<>();
+    private final @NotNull Set<UUID> armed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param storage The storage of the other schedules, to follow its file locking setting.
+     * @param folder  The folder to keep the player files in.
+     */
+    public PlayerStore(@NotNull ShardedStorage storage, @NotNull Path folder) {
+        this.storage = storage;
+        this.folder = folder;
+    }
+
+    /**
+     * Finds the player a schedule belongs to. A schedule belongs to a player when all its results are targetable and
+     * target the {@link UUID} of the same player, so it has nothing to do while they are offline.
+     *
+     * @param schedule The schedule to check.
+     * @return The player the schedule belongs to, or null if it should run regardless of who is online.
+     */
+    public static @Nullable UUID owner(@NotNull Schedule schedule) {
+        UUID owner = null;
+
+        for (ScheduleResult scheduleResult : schedule.scheduleResults()) {
+            if (!(scheduleResult.target() instanceof Target.Players target) || target.players().size() != 1) return null;
+            for (Result result : scheduleResult.results()) {
+                if (!(result instanceof TargetableResult)) return null;
+            }
+            UUID player = target.players().iterator().next();
+            if (owner == null) owner = player;
+            else if (!owner.equals(player)) return null;
+        }
+        return owner;
+    }
+
+    public @NotNull Path folder() {
+        return folder;
+    }
+
+    /**
+     * @param player The player of the schedules.
+     * @return The shard that keeps the schedules of the player. The shard might not be loaded yet.
+     */
+    public @NotNull Shard shard(@NotNull UUID player) {
+        return shards.computeIfAbsent(player, uuid -> new Shard(storage, uuid.toString(), folder.resolve(uuid + ".yml"), true));
+    }
+
+    /**
+     * @param shard A shard.
+     * @return Whether the shard keeps the schedules of a player.
+     */
+    public boolean owns(@NotNull Shard shard) {
+        return shard.path().getParent().equals(folder);
+    }
+
+    /**
+     * @param player The player to check.
+     * @return Whether the schedules of the player should be running, because they are online.
+     */
+    public boolean isArmed(@NotNull UUID player) {
+        return armed.contains(player);
+    }
+
+    /**
+     * @return The players whose schedules should be running.
+     */
+    public @NotNull Set<UUID> armed() {
+        return Collections.unmodifiableSet(armed);
+    }
+
+    public void arm(@NotNull UUID player) {
+        armed.add(player);
+    }
+
+    /**
+     * Disarms the player and forgets their shard, so it is loaded from the file again next time it is needed.
+     *
+     * @param player The player that went offline.
+     */
+    public void disarm(@NotNull UUID player) {
+        armed.remove(player);
+        unload(player);
+    }
+
+    /**
+     * Forgets the shard of the player, unless they are armed.
+     *
+     * @param player The player whose shard is not needed anymore.
+     */
+    public void unload(@NotNull UUID player) {
+        // Checked atomically with the lookup, so a player arming at the same time gets the shard that stays in memory.
+        shards.computeIfPresent(player, (uuid, shard) -> armed.contains(uuid) ? shard : null);
+    }
+}
@@ -0,0 +1,507 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.storage;
+
+import com.epicnicity322.epicpluginlib.core.config.ConfigurationHolder;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.util.Csv;
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import com.google.gson.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Imports and exports schedules from and to files of CSV or JSON lines, a record for each schedule. Each record has
+ * the 'Date' of the schedule and the same keys its section has in config: JSON lines keep sections as objects, while
+ * CSV has a column for each key, named by its path with dots, and lists in columns ending with '[]', one element per
+ * line.
+ * <p>
+ * Files are read and written a record at a time. Imported records are validated in parallel, a chunk at a time, and
+ * the valid schedules are set with a single write, so a failed import does not leave half of the file applied.
+ */
+public final class ScheduleTransfer {
+    private static final int CHUNK_SIZE = 1024;
+    private static final int MAX_ERRORS = 10;
+    private static final @NotNull Gson gson = new Gson();
+
+    private ScheduleTransfer() {
+    }
+
+    /**
+     * @return An empty section, not tied to any file.
+     */
+    public static @NotNull ConfigurationSection newSection() {
+        return new ConfigurationHolder(Path.of("schedule.yml"), "").getDefaultConfiguration();
+    }
+
+    /**
+     * @param section The section of a schedule.
+     * @return The section as a single line of JSON, the same way it is exported to JSON lines.
+     */
+    public static @NotNull String toJson(@NotNull ConfigurationSection section) {
+        JsonObject object = new JsonObject();
+        toJson(section, object);
+        return gson.toJson(object);
+    }
+
+    /**
+     * @param json A section written by {@link #toJson(ConfigurationSection)}.
+     * @return The section read from the JSON.
+     * @throws JsonParseException If the text is not a JSON object.
+     */
+    @SuppressWarnings("unchecked")
+    public static @NotNull ConfigurationSection fromJson(@NotNull String json) {
+        JsonElement element = JsonParser.parseString(json);
+        if (!element.isJsonObject()) throw new JsonParseException("Not a JSON object.");
+        ConfigurationSection section = newSection();
+        fill(section, (Map<String, Object>) fromJson(element));
+        return section;
+    }
+
+    /**
+     * Reads the schedules in the file, and sets the valid ones unless this is a dry run.
+     *
+     * @param file     The file to read, in CSV or JSON lines.
+     * @param dryRun   Whether the schedules should only be validated, and not set.
+     * @param progress Receives the progress after each chunk of records is validated.
+     * @return The result of the import.
+     * @throws IOException If failed to read the file or to save the schedules.
+     */
+    public static @NotNull ImportResult importFile(@NotNull Path file, boolean dryRun, @NotNull Consumer<ImportResult> progress) throws IOException {
+        Format format = Format.of(file);
+        if (format == null) throw new IllegalArgumentException("Unknown format of '" + file.getFileName() + "'.");
+        // Later records with the same date replace the previous ones. Dry runs only keep the dates, to count them.
+        var schedules = new LinkedHashMap<LocalDateTime, Validated>();
+        var dates = new HashSet<LocalDateTime>();
+        var errors = new ArrayList<String>(MAX_ERRORS);
+        long read = 0, valid = 0, invalid = 0;
+
+        try (RecordReader reader = format == Format.CSV ? new CsvReader(file) : new JsonLinesReader(file)) {
+            var chunk = new ArrayList<RawRecord>(CHUNK_SIZE);
+            boolean done = false;
+
+            while (!done) {
+                chunk.clear();
+                while (chunk.size() < CHUNK_SIZE) {
+                    RawRecord record;
+                    try {
+                        record = reader.next();
+                    } catch (JsonParseException | IllegalStateException e) {
+                        record = new RawRecord(reader.line(), null, e.getMessage());
+                    }
+                    if (record == null) {
+                        done = true;
+                        break;
+                    }
+                    chunk.add(record);
+                }
+                read += chunk.size();
+
+                for (Validated validated : chunk.parallelStream().map(ScheduleTransfer::validate).toList()) {
+                    if (validated.schedule == null) {
+                        ++invalid;
+                        if (errors.size() < MAX_ERRORS) errors.add("Record " + validated.line + ": " + validated.error);
+                        continue;
+                    }
+                    ++valid;
+                    if (dryRun) dates.add(validated.schedule.dueDate());
+                    else schedules.put(validated.schedule.dueDate(), validated);
+                }
+                progress.accept(new ImportResult(read, valid, invalid, 0, errors));
+            }
+        }
+
+        if (dryRun) return new ImportResult(read, valid, invalid, dates.size(), errors);
+
+        var toSet = new LinkedHashMap<Schedule, Boolean>((int) (schedules.size() / .75f) + 1);
+        for (Validated validated : schedules.values()) toSet.put(validated.schedule, validated.paused);
+        return new ImportResult(read, valid, invalid, EpicScheduler.importSchedules(toSet), errors);
+    }
+
+    private static @NotNull Validated validate(@NotNull RawRecord record) {
+        if (record.values == null) return new Validated(record.line, null, false, record.error);
+        if (!(record.values.remove("Date") instanceof String date)) {
+            return new Validated(record.line, null, false, "missing 'Date'.");
+        }
+        LocalDateTime dueDate;
+        try {
+            dueDate = LocalDateTime.parse(date, EpicScheduler.TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return new Validated(record.line, null, false, "'" + date + "' is not a date in 'yyyy-MM-dd HH:mm:ss' format.");
+        }
+        if (!dueDate.isAfter(LocalDateTime.now())) {
+            return new Validated(record.line, null, false, "'" + date + "' is already due.");
+        }
+
+        ConfigurationSection section = newSection();
+        fill(section, record.values);
+        Schedule schedule = EpicScheduler.parseSchedule(date, dueDate, section);
+        if (schedule.scheduleResults().isEmpty()) {
+            return new Validated(record.line, null, false, "schedule '" + date + "' has no valid results.");
+        }
+        return new Validated(record.line, schedule, section.getBoolean("Paused").orElse(false), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void fill(@NotNull ConfigurationSection section, @NotNull Map<String, Object> values) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() instanceof Map<?, ?> map) {
+                fill(section.createSection(entry.getKey()), (Map<String, Object>) map);
+            } else {
+                section.set(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes every stored schedule to the file. The file is only replaced once all schedules were written.
+     *
+     * @param file     The file to write, in CSV or JSON lines.
+     * @param progress Receives the amount of schedules written so far, every {@value #CHUNK_SIZE} schedules.
+     * @return A future completed with the amount of schedules written, or completed exceptionally if failed to read
+     * the schedules or to write the file.
+     */
+    public static @NotNull CompletableFuture<Long> exportFile(@NotNull Path file, @NotNull LongConsumer progress) {
+        Format format = Format.of(file);
+        if (format == null) throw new IllegalArgumentException("Unknown format of '" + file.getFileName() + "'.");
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        BufferedWriter writer;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long[] written = {0};
+        CompletableFuture<Void> future;
+
+        if (format == Format.CSV) {
+            // The header must list every column, so the schedules are read twice instead of kept in memory.
+            var columns = new LinkedHashMap<String, Integer>();
+            columns.put("Date", 0);
+            future = EpicScheduler.forEachStoredSchedule((date, section) -> columns(section, "", columns)).thenCompose(ignored -> {
+                write(() -> Csv.writeRow(writer, new ArrayList<>(columns.keySet())));
+
+                var row = new String[columns.size()];
+                return EpicScheduler.forEachStoredSchedule((date, section) -> {
+                    Arrays.fill(row, "");
+                    row[0] = date;
+                    cells(section, "", columns, row);
+                    write(() -> Csv.writeRow(writer, Arrays.asList(row)));
+                    if (++written[0] % CHUNK_SIZE == 0) progress.accept(written[0]);
+                });
+            });
+        } else {
+            future = EpicScheduler.forEachStoredSchedule((date, section) -> {
+                JsonObject object = new JsonObject();
+                object.addProperty("Date", date);
+                toJson(section, object);
+                write(() -> {
+                    writer.write(gson.toJson(object));
+                    writer.write('\n');
+                });
+                if (++written[0] % CHUNK_SIZE == 0) progress.accept(written[0]);
+            });
+        }
+
+        return future.handle((ignored, throwable) -> {
+            try {
+                writer.close();
+                if (throwable == null) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    return written[0];
+                }
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            throw throwable instanceof CompletionException completion ? completion : new CompletionException(throwable);
+        });
+    }
+
+    private static void write(@NotNull IORunnable runnable) {
+        try {
+            runnable.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void columns(@NotNull ConfigurationSection section, @NotNull String path, @NotNull Map<String, Integer> columns) {
+        for (Map.Entry<String, Object> node : section.getNodes().entrySet()) {
+            String key = path + node.getKey();
+            if (node.getValue() instanceof ConfigurationSection subsection) {
+                columns(subsection, key + '.', columns);
+            } else {
+                columns.putIfAbsent(node.getValue() instanceof Collection<?> ? key + "[]" : key, columns.size());
+            }
+        }
+    }
+
+    private static void cells(@NotNull ConfigurationSection section, @NotNull String path, @NotNull Map<String, Integer> columns, @NotNull String[] row) {
+        for (Map.Entry<String, Object> node : section.getNodes().entrySet()) {
+            String key = path + node.getKey();
+            Object value = node.getValue();
+            if (value instanceof ConfigurationSection subsection) {
+                cells(subsection, key + '.', columns, row);
+            } else if (value instanceof Collection<?> collection) {
+                var joiner = new StringJoiner("\n");
+                for (Object element : collection) joiner.add(String.valueOf(element));
+                row[columns.get(key + "[]")] = joiner.toString();
+            } else {
+                row[columns.get(key)] = String.valueOf(value);
+            }
+        }
+    }
+
+    private static void toJson(@NotNull ConfigurationSection section, @NotNull JsonObject object) {
+        for (Map.Entry<String, Object> node : section.getNodes().entrySet()) {
+            Object value = node.getValue();
+            if (value instanceof ConfigurationSection subsection) {
+                JsonObject child = new JsonObject();
+                toJson(subsection, child);
+                object.add(node.getKey(), child);
+            } else if (value instanceof Collection<?> collection) {
+                JsonArray array = new JsonArray(collection.size());
+                for (Object element : collection) array.add(toJson(element));
+                object.add(node.getKey(), array);
+            } else {
+                object.add(node.getKey(), toJson(value));
+            }
+        }
+    }
+
+    private static @NotNull JsonElement toJson(@Nullable Object value) {
+        if (value == null) return JsonNull.INSTANCE;
+        if (value instanceof Boolean bool) return new JsonPrimitive(bool);
+        if (value instanceof Number number) return new JsonPrimitive(number);
+        return new JsonPrimitive(value.toString());
+    }
+
+    private static @Nullable Object fromJson(@NotNull JsonElement element) {
+        if (element.isJsonObject()) {
+            var map = new LinkedHashMap<String, Object>();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                Object value = fromJson(entry.getValue());
+                if (value != null) map.put(entry.getKey(), value);
+            }
+            return map;
+        }
+        if (element.isJsonArray()) {
+            var list = new ArrayList<Object>();
+            for (JsonElement child : element.getAsJsonArray()) {
+                Object value = fromJson(child);
+                if (value != null) list.add(value);
+            }
+            return list;
+        }
+        if (element.isJsonNull()) return null;
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isBoolean()) return primitive.getAsBoolean();
+        if (primitive.isNumber()) {
+            Object number = number(primitive.getAsString());
+            return number == null ? primitive.getAsDouble() : number;
+        }
+        return primitive.getAsString();
+    }
+
+    /**
+     * @param text The text of a CSV cell.
+     * @return The number or boolean the text is, or the text itself.
+     */
+    private static @NotNull Object scalar(@NotNull String text) {
+        if (text.equals("true") || text.equals("false")) return Boolean.parseBoolean(text);
+        Object number = number(text);
+        return number == null ? text : number;
+    }
+
+    private static @Nullable Object number(@NotNull String text) {
+        try {
+            long value = Long.parseLong(text);
+            return value == (int) value ? (Object) (int) value : (Object) value;
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            double value = Double.parseDouble(text);
+            // Texts like 'NaN' or '1e5' are kept as texts.
+            return Double.isFinite(value) && text.indexOf('e') == -1 && text.indexOf('E') == -1 ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public enum Format {
+        CSV, JSON_LINES;
+
+        /**
+         * @param file The file to import or export.
+         * @return The format of the file by its extension, or null if it is not '.csv', '.jsonl', '.ndjson' or '.json'.
+         */
+        public static @Nullable Format of(@NotNull Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) return CSV;
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) return JSON_LINES;
+            return null;
+        }
+    }
+
+    /**
+     * @param read     The amount of records read.
+     * @param valid    The amount of records that are valid schedules.
+     * @param invalid  The amount of records skipped because they are not valid.
+     * @param imported The amount of schedules set, or that would be set in a dry run. Zero while in progress.
+     * @param errors   The errors of the first invalid records.
+     */
+    public record ImportResult(long read, long valid, long invalid, int imported, @NotNull List<String> errors) {
+    }
+
+    private record RawRecord(long line, @Nullable Map<String, Object> values, @Nullable String error) {
+    }
+
+    private record Validated(long line, @Nullable Schedule schedule, boolean paused, @Nullable String error) {
+    }
+
+    @FunctionalInterface
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+
+    private interface RecordReader extends Closeable {
+        /**
+         * @return The next record, or null if there are no records left.
+         */
+        @Nullable RawRecord next() throws IOException;
+
+        /**
+         * @return The number of the last record read.
+         */
+        long line();
+    }
+
+    private static final class JsonLinesReader implements RecordReader {
+        private final @NotNull BufferedReader reader;
+        private long line = 0;
+
+        JsonLinesReader(@NotNull Path file) throws IOException {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nullable RawRecord next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) return null;
+                ++line;
+            } while (text.isBlank());
+
+            JsonElement element = JsonParser.parseString(text);
+            if (!element.isJsonObject()) return new RawRecord(line, null, "not a JSON object.");
+            return new RawRecord(line, (Map<String, Object>) fromJson(element), null);
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class CsvReader implements RecordReader {
+        private final @NotNull BufferedReader reader;
+        private final @NotNull List<String> header;
+        private long line = 1;
+
+        CsvReader(@NotNull Path file) throws IOException {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            List<String> header = Csv.readRow(reader);
+            if (header == null || !header.contains("Date")) {
+                reader.close();
+                throw new IOException("'" + file.getFileName() + "' has no header with a 'Date' column.");
+            }
+            this.header = header;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nullable RawRecord next() throws IOException {
+            List<String> row;
+            do {
+                row = Csv.readRow(reader);
+                if (row == null) return null;
+                ++line;
+            } while (row.size() == 1 && row.get(0).isEmpty());
+
+            if (row.size() > header.size()) return new RawRecord(line, null, "has more cells than the header.");
+            var values = new LinkedHashMap<String, Object>();
+            for (int i = 0; i < row.size(); ++i) {
+                String cell = row.get(i);
+                if (cell.isEmpty()) continue;
+                String path = header.get(i);
+                boolean list = path.endsWith("[]");
+                if (list) path = path.substring(0, path.length() - 2);
+                if (path.equals("Date")) {
+                    values.put(path, cell);
+                    continue;
+                }
+
+                // Paths with dots are nested sections.
+                Map<String, Object> parent = values;
+                String[] keys = path.split("\\.");
+                for (int k = 0; k < keys.length - 1; ++k) {
+                    Object child = parent.computeIfAbsent(keys[k], key -> new LinkedHashMap<String, Object>());
+                    if (!(child instanceof Map<?, ?>)) return new RawRecord(line, null, "'" + path + "' is inside a value that is not a section.");
+                    parent = (Map<String, Object>) child;
+                }
+                parent.put(keys[keys.length - 1], list ? new ArrayList<>(Arrays.asList(cell.split("\n", -1))) : scalar(cell));
+            }
+            return new RawRecord(line, values, null);
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.storage;
+
+import com.epicnicity322.epicpluginlib.core.config.ConfigurationHolder;
+import com.epicnicity322.epicpluginlib.core.config.ConfigurationLoader;
+import com.epicnicity322.epicscheduler.SchedulesWatcher;
+import com.epicnicity322.yamlhandler.Configuration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A file holding the schedules due in a month. Each shard is loaded, locked and saved on its own, so writing a schedule
+ * only rewrites the file of its month.
+ */
+public final class Shard {
+    private final @NotNull ShardedStorage storage;
+    private final @NotNull String name;
+    private final boolean deleteWhenEmpty;
+    private final @NotNull ConfigurationHolder holder;
+    private final @NotNull ConfigurationLoader loader = new ConfigurationLoader();
+    private final @NotNull ReentrantLock lock = new ReentrantLock();
+    private volatile boolean loaded = false;
+    private volatile boolean dirty = false;
+    private @Nullable FileChannel lockChannel;
+    private @Nullable FileLock fileLock;
+    private int fileLockHolds = 0;
+
+    Shard(@NotNull ShardedStorage storage, @NotNull String name, @NotNull Path path) {
+        this(storage, name, path, false);
+    }
+
+    Shard(@NotNull ShardedStorage storage, @NotNull String name, @NotNull Path path, boolean deleteWhenEmpty) {
+        this.storage = storage;
+        this.name = name;
+        this.deleteWhenEmpty = deleteWhenEmpty;
+        this.holder = new ConfigurationHolder(path, "");
+        loader.registerConfiguration(holder);
+    }
+
+    /**
+     * @return The month of the schedules in this shard, in 'yyyy-MM' format, or the UUID of the player of the schedules.
+     */
+    public @NotNull String name() {
+        return name;
+    }
+
+    public @NotNull Path path() {
+        return holder.getPath();
+    }
+
+    /**
+     * The lock that must be held while reading or changing the configuration of this shard.
+     *
+     * @return The lock of this shard.
+     */
+    public @NotNull ReentrantLock lock() {
+        return lock;
+    }
+
+    /**
+     * Locks the file of this shard for other processes, if {@link ShardedStorage#isFileLocking()}. This prevents servers
+     * sharing the folder from overwriting each other's changes, as long as they check for external changes after
+     * locking. The {@link #lock()} must be held, and each call must be followed by {@link #unlockFile()}.
+     *
+     * @throws IOException If failed to lock the file.
+     */
+    public void lockFile() throws IOException {
+        if (fileLockHolds == 0) {
+            if (!storage.isFileLocking()) return;
+            Path lockPath = holder.getPath().resolveSibling(holder.getPath().getFileName() + ".lock");
+            Files.createDirectories(lockPath.getParent());
+            FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                fileLock = channel.lock();
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            lockChannel = channel;
+        }
+        fileLockHolds++;
+    }
+
+    /**
+     * Releases the file lock taken by {@link #lockFile()} once every call to it was matched.
+     */
+    public void unlockFile() {
+        if (fileLockHolds == 0 || --fileLockHolds != 0) return;
+        try {
+            if (fileLock != null) fileLock.release();
+            if (lockChannel != null) lockChannel.close();
+        } catch (IOException ignored) {
+        }
+        fileLock = null;
+        lockChannel = null;
+    }
+
+    /**
+     * @return The last successfully loaded configuration of this shard.
+     */
+    public @NotNull Configuration configuration() {
+        return holder.getConfiguration();
+    }
+
+    /**
+     * @return Whether this shard was loaded successfully at least once, and the last load did not fail.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Loads this shard from its file, creating an empty file if there is none.
+     *
+     * @return The exception that made the shard fail to load, or null if it was loaded successfully.
+     */
+    public @Nullable Exception load() {
+        lock.lock();
+        try {
+            Exception exception = loader.loadConfigurations().get(holder);
+            loaded = exception == null;
+            if (loaded) {
+                dirty = false;
+                SchedulesWatcher.written(holder.getPath());
+            }
+            return exception;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks this shard as changed, so it is written on the next {@link #save()}.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Writes this shard to its file, if it was changed since it was last loaded or saved. The shard is written to a
+     * temporary file that then replaces the file, so a crash while writing leaves the previous file intact. Shards of
+     * players have their file deleted instead once they have no schedules.
+     *
+     * @return Whether the shard was written.
+     * @throws IOException If failed to write the file.
+     */
+    public boolean save() throws IOException {
+        lock.lock();
+        try {
+            if (!dirty) return false;
+            Path path = holder.getPath();
+            Files.createDirectories(path.getParent());
+            if (deleteWhenEmpty && holder.getConfiguration().getNodes().isEmpty()) {
+                Files.deleteIfExists(path);
+            } else {
+                Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+                try {
+                    Files.deleteIfExists(temporary);
+                    holder.getConfiguration().save(temporary);
+                    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    Files.deleteIfExists(temporary);
+                    throw e;
+                }
+            }
+            dirty = false;
+            SchedulesWatcher.written(path);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
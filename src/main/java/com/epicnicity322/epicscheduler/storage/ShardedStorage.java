@@ -0,0 +1,184 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.storage;
+
+import com.epicnicity322.epicpluginlib.core.config.ConfigurationHolder;
+import com.epicnicity322.epicpluginlib.core.config.ConfigurationLoader;
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Schedules stored in YAML files split by the month they are due, like {@literal schedules/2025-11.yml}.
+ */
+public final class ShardedStorage {
+    private static final @NotNull DateTimeFormatter SHARD_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final @NotNull Pattern SHARD_FILE = Pattern.compile("\\d{4}-\\d{2}\\.yml");
+    private final @NotNull Path folder;
+    private final @NotNull ConcurrentHashMap<String, Shard> shards = new ConcurrentHashMap<>();
+    private volatile boolean fileLocking = false;
+
+    /**
+     * @param folder The folder to keep the shard files in.
+     */
+    public ShardedStorage(@NotNull Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * @param dueDate The due date of a schedule.
+     * @return The name of the shard that keeps schedules due in this date.
+     */
+    public static @NotNull String shardName(@NotNull LocalDateTime dueDate) {
+        return dueDate.format(SHARD_FORMATTER);
+    }
+
+    public @NotNull Path folder() {
+        return folder;
+    }
+
+    /**
+     * @return Whether shard files are locked while they are written, because other servers write to the same folder.
+     */
+    public boolean isFileLocking() {
+        return fileLocking;
+    }
+
+    public void setFileLocking(boolean fileLocking) {
+        this.fileLocking = fileLocking;
+    }
+
+    /**
+     * @param dueDate The due date of a schedule.
+     * @return The shard that keeps schedules due in this date. The shard might not be loaded yet.
+     */
+    public @NotNull Shard shard(@NotNull LocalDateTime dueDate) {
+        return shards.computeIfAbsent(shardName(dueDate), name -> new Shard(this, name, folder.resolve(name + ".yml")));
+    }
+
+    /**
+     * @param file A file in the shards folder.
+     * @return The shard of the file, or null if the file is not named as a shard.
+     */
+    public @Nullable Shard shard(@NotNull Path file) {
+        String fileName = file.getFileName().toString();
+        if (!SHARD_FILE.matcher(fileName).matches()) return null;
+        String name = fileName.substring(0, fileName.length() - 4);
+        return shards.computeIfAbsent(name, k -> new Shard(this, name, folder.resolve(fileName)));
+    }
+
+    /**
+     * @return The shards known by this storage, loaded or not.
+     */
+    public @NotNull Collection<Shard> shards() {
+        return Collections.unmodifiableCollection(shards.values());
+    }
+
+    /**
+     * Finds the shard files in the folder and loads them in parallel.
+     *
+     * @return The shards that failed to load, and the exception that caused each failure.
+     * @throws IOException If failed to list the files in the shards folder.
+     */
+    public @NotNull Map<Shard, Exception> loadAll() throws IOException {
+        Files.createDirectories(folder);
+        // Forgetting shards whose files were deleted, instead of creating them again empty.
+        shards.values().removeIf(shard -> !Files.exists(shard.path()));
+        try (Stream<Path> files = Files.list(folder)) {
+            files.forEach(this::shard);
+        }
+        var failures = new ConcurrentHashMap<Shard, Exception>();
+        shards.values().parallelStream().forEach(shard -> {
+            Exception exception = shard.load();
+            if (exception != null) failures.put(shard, exception);
+        });
+        return failures;
+    }
+
+    /**
+     * Moves the schedules of the single schedules file used by previous versions to their shards. The file is
+     * renamed to {@literal <name>.migrated} once all schedules are saved to their shards.
+     *
+     * @param legacy The holder of the single schedules file.
+     * @return Whether the file was found and migrated.
+     * @throws IOException If failed to save the shards or to rename the file.
+     */
+    public boolean migrate(@NotNull ConfigurationHolder legacy) throws IOException {
+        Path legacyPath = legacy.getPath();
+        if (!Files.exists(legacyPath)) return false;
+
+        var loader = new ConfigurationLoader();
+        loader.registerConfiguration(legacy);
+        Exception exception = loader.loadConfigurations().get(legacy);
+        if (exception != null) throw new IOException("Unable to load " + legacyPath.getFileName() + " to migrate it.", exception);
+
+        var touched = new HashSet<Shard>();
+        for (Map.Entry<String, Object> node : legacy.getConfiguration().getNodes().entrySet()) {
+            if (!(node.getValue() instanceof ConfigurationSection section)) continue;
+            LocalDateTime dueDate;
+            try {
+                dueDate = LocalDateTime.parse(node.getKey(), EpicScheduler.TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                EpicScheduler.getConsoleLogger().log("Schedule '" + node.getKey() + "' has an unknown date and was not migrated.", ConsoleLogger.Level.WARN);
+                continue;
+            }
+            Shard shard = shard(dueDate);
+            shard.lock().lock();
+            try {
+                if (!shard.isLoaded()) {
+                    Exception shardException = shard.load();
+                    if (shardException != null) throw new IOException("Unable to load shard " + shard.path().getFileName() + ".", shardException);
+                }
+                copy(section, shard.configuration().createSection(node.getKey()));
+                shard.markDirty();
+                touched.add(shard);
+            } finally {
+                shard.lock().unlock();
+            }
+        }
+
+        for (Shard shard : touched) shard.save();
+        Files.move(legacyPath, legacyPath.resolveSibling(legacyPath.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    private static void copy(@NotNull ConfigurationSection from, @NotNull ConfigurationSection to) {
+        for (Map.Entry<String, Object> node : from.getNodes().entrySet()) {
+            if (node.getValue() instanceof ConfigurationSection section) {
+                copy(section, to.createSection(node.getKey()));
+            } else {
+                to.set(node.getKey(), node.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.storage;
+
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.epicscheduler.EpicScheduler;
+import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.result.type.ResultInputStream;
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules stored in an embedded SQLite database, using the driver bundled with the server. Schedules are kept keyed
+ * by their due time, so finding the schedules due in a window is a range lookup in the primary key index. All
+ * statements run on a single thread owned by this storage.
+ * <p>
+ * Each schedule is stored as its config section in JSON, the same way it is exported to JSON lines, so rows don't
+ * depend on the classes of results. Rows serialized by earlier versions are converted to JSON when loaded, if they
+ * can still be read.
+ */
+public final class SqliteStorage implements AutoCloseable {
+    private final @NotNull Path file;
+    private final @NotNull ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EpicScheduler SQLite");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Connection connection;
+
+    /**
+     * @param file The database file.
+     */
+    public SqliteStorage(@NotNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return Whether the server bundles the SQLite driver. Some servers and forks leave it out.
+     */
+    public static boolean isDriverAvailable() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static long seconds(@NotNull LocalDateTime dueDate) {
+        // Due dates are local, so they are stored as seconds of the local date time.
+        return dueDate.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public @NotNull Path file() {
+        return file;
+    }
+
+    /**
+     * Opens the database, creating the file and table if they don't exist.
+     *
+     * @return A future completed once the database is open.
+     */
+    public @NotNull CompletableFuture<Void> open() {
+        return run(() -> {
+            if (!isDriverAvailable()) throw new SQLException("The SQLite driver is not bundled with this server.");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                // The due time is the primary key, so it is indexed and there is only one schedule per date.
+                statement.execute("CREATE TABLE IF NOT EXISTS schedules (due INTEGER PRIMARY KEY, paused INTEGER NOT NULL, data BLOB NOT NULL)");
+                statement.execute("CREATE INDEX IF NOT EXISTS schedules_paused ON schedules (paused) WHERE paused = 1");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Saves and removes schedules in a single transaction, with batched statements.
+     *
+     * @param toSave   The schedules to save, and whether they are paused.
+     * @param toRemove The schedules to remove.
+     * @return A future completed once the transaction is committed.
+     */
+    public @NotNull CompletableFuture<Void> write(@NotNull Map<Schedule, Boolean> toSave, @NotNull Collection<Schedule> toRemove) {
+        // Serializing on the caller thread, so later changes to the collections don't affect what is written.
+        var rows = new ArrayList<Object[]>(toSave.size());
+        for (Map.Entry<Schedule, Boolean> entry : toSave.entrySet()) {
+            rows.add(new Object[]{seconds(entry.getKey().dueDate()), entry.getValue() ? 1 : 0, serialize(entry.getKey())});
+        }
+        long[] removals = toRemove.stream().mapToLong(schedule -> seconds(schedule.dueDate())).toArray();
+
+        return run(() -> {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM schedules WHERE due = ?");
+                 PreparedStatement insert = connection.prepareStatement("INSERT OR REPLACE INTO schedules (due, paused, data) VALUES (?, ?, ?)")) {
+                for (long due : removals) {
+                    delete.setLong(1, due);
+                    delete.addBatch();
+                }
+                if (removals.length != 0) delete.executeBatch();
+                for (Object[] row : rows) {
+                    insert.setLong(1, (long) row[0]);
+                    insert.setInt(2, (int) row[1]);
+                    insert.setBytes(3, (byte[]) row[2]);
+                    insert.addBatch();
+                }
+                if (!rows.isEmpty()) insert.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Loads the schedules due up to a date, and all paused schedules.
+     *
+     * @param until The date to load schedules up to, inclusive.
+     * @return A future completed with the schedules, sorted by due date.
+     */
+    public @NotNull CompletableFuture<List<Stored>> load(@NotNull LocalDateTime until) {
+        return run(() -> {
+            try (PreparedStatement select = connection.prepareStatement("SELECT due, paused, data FROM schedules WHERE due <= ? OR paused = 1 ORDER BY due")) {
+                select.setLong(1, seconds(until));
+                return read(select);
+            }
+        });
+    }
+
+    /**
+     * @return A future completed with every schedule in the database, sorted by due date.
+     */
+    public @NotNull CompletableFuture<List<Stored>> loadAll() {
+        return run(() -> {
+            try (PreparedStatement select = connection.prepareStatement("SELECT due, paused, data FROM schedules ORDER BY due")) {
+                return read(select);
+            }
+        });
+    }
+
+    private @NotNull List<Stored> read(@NotNull PreparedStatement select) throws SQLException {
+        var stored = new ArrayList<Stored>();
+        var converted = new ArrayList<Object[]>();
+
+        try (ResultSet result = select.executeQuery()) {
+            while (result.next()) {
+                long due = result.getLong(1);
+                LocalDateTime dueDate = LocalDateTime.ofEpochSecond(due, 0, ZoneOffset.UTC);
+                byte[] data = result.getBytes(3);
+                Schedule schedule;
+
+                if (isSerialized(data)) {
+                    schedule = readSerialized(dueDate, data);
+                    if (schedule != null) converted.add(new Object[]{due, serialize(schedule)});
+                } else {
+                    schedule = readJson(dueDate, data);
+                }
+                if (schedule != null) stored.add(new Stored(schedule, result.getInt(2) == 1));
+            }
+        }
+
+        if (!converted.isEmpty()) {
+            try (PreparedStatement update = connection.prepareStatement("UPDATE schedules SET data = ? WHERE due = ?")) {
+                for (Object[] row : converted) {
+                    update.setBytes(1, (byte[]) row[1]);
+                    update.setLong(2, (long) row[0]);
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+        }
+        return stored;
+    }
+
+    private static boolean isSerialized(byte @NotNull [] data) {
+        return data.length >= 2 && (short) ((data[0] & 0xFF) << 8 | data[1] & 0xFF) == ObjectStreamConstants.STREAM_MAGIC;
+    }
+
+    private static @Nullable Schedule readJson(@NotNull LocalDateTime dueDate, byte @NotNull [] data) {
+        String date = dueDate.format(EpicScheduler.TIME_FORMATTER);
+        ConfigurationSection section;
+        try {
+            section = ScheduleTransfer.fromJson(new String(data, StandardCharsets.UTF_8));
+        } catch (JsonParseException e) {
+            EpicScheduler.getConsoleLogger().log("Schedule '" + date + "' in the database is not valid JSON, so it was not loaded: " + e.getMessage(), ConsoleLogger.Level.ERROR);
+            return null;
+        }
+        return EpicScheduler.parseSchedule(date, dueDate, section);
+    }
+
+    /**
+     * @return The schedule serialized by an earlier version, or null if its classes changed since.
+     */
+    private static @Nullable Schedule readSerialized(@NotNull LocalDateTime dueDate, byte @NotNull [] data) {
+        try (var in = new ResultInputStream(new ByteArrayInputStream(data))) {
+            return (Schedule) in.readObject();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            EpicScheduler.getConsoleLogger().log("Schedule '" + dueDate.format(EpicScheduler.TIME_FORMATTER)
+                    + "' in the database was saved by an older version in a format that can not be read anymore, so it was not loaded. Set it again, or import it from a YAML backup: " + e, ConsoleLogger.Level.ERROR);
+            return null;
+        }
+    }
+
+    /**
+     * Closes the database once the statements already submitted are done, waiting up to 10 seconds for them.
+     */
+    @Override
+    public void close() {
+        executor.execute(() -> {
+            try {
+                if (connection != null) connection.close();
+            } catch (SQLException ignored) {
+            }
+        });
+        executor.shutdown();
+        try {
+            // Waiting for the writes already submitted, so they are not lost when the server stops.
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte @NotNull [] serialize(@NotNull Schedule schedule) {
+        ConfigurationSection section = ScheduleTransfer.newSection();
+        // Paused is kept in its own column.
+        EpicScheduler.writeSchedule(section, schedule, false);
+        return ScheduleTransfer.toJson(section).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private <T> @NotNull CompletableFuture<T> run(@NotNull Query<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return query.run();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface Query<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * @param schedule The stored schedule.
+     * @param paused   Whether the schedule is paused.
+     */
+    public record Stored(@NotNull Schedule schedule, boolean paused) {
+    }
+}
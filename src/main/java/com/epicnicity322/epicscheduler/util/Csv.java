@@ -0,0 +1,102 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes rows of comma separated values, one row at a time. Fields with commas, quotes or line breaks are
+ * quoted, with quotes doubled inside them, so a row can span more than one line.
+ */
+public final class Csv {
+    private Csv() {
+    }
+
+    /**
+     * @param reader The reader of the values, buffered, since it is read a character at a time.
+     * @return The fields of the next row, or null if there are no rows left.
+     * @throws IOException If failed to read, or if a quoted field is never closed.
+     */
+    public static @Nullable List<String> readRow(@NotNull Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) return null;
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("A quoted field was not closed before the end of the file.");
+                if (c == '"') {
+                    c = reader.read();
+                    // Doubled quotes are a quote in the field, anything else closes it.
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    c = reader.read();
+                    if (c != '\n' && c != -1) throw new IOException("Line breaks must be '\\n' or '\\r\\n'.");
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * Writes the fields as a row, ending with a line break.
+     *
+     * @param writer The writer of the values.
+     * @param fields The fields of the row.
+     * @throws IOException If failed to write.
+     */
+    public static void writeRow(@NotNull Writer writer, @NotNull List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); ++i) {
+            if (i != 0) writer.write(',');
+            String field = fields.get(i);
+            if (field.indexOf(',') == -1 && field.indexOf('"') == -1 && field.indexOf('\n') == -1 && field.indexOf('\r') == -1) {
+                writer.write(field);
+            } else {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+}
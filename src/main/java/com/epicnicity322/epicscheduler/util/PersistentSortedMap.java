@@ -0,0 +1,205 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable sorted map, kept as an AVL tree. Adding or removing an entry returns a new map that shares every node
+ * but the O(log n) nodes in the path to the entry, so keeping a version of the map per change costs O(log n) instead of
+ * a copy of the map.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public final class PersistentSortedMap<K extends Comparable<? super K>, V> {
+    private static final @NotNull PersistentSortedMap<?, ?> EMPTY = new PersistentSortedMap<>(null);
+    private final @Nullable Node<K, V> root;
+
+    private PersistentSortedMap(@Nullable Node<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<? super K>, V> @NotNull PersistentSortedMap<K, V> empty() {
+        return (PersistentSortedMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public @Nullable V get(@NotNull K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison == 0) return node.value;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(@NotNull K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key   The key of the entry.
+     * @param value The value of the entry.
+     * @return A map with the entry, replacing any entry with the same key. This map does not change.
+     */
+    public @NotNull PersistentSortedMap<K, V> plus(@NotNull K key, @NotNull V value) {
+        Node<K, V> root = put(this.root, key, value);
+        return root == this.root ? this : new PersistentSortedMap<>(root);
+    }
+
+    /**
+     * @param key The key of the entry to remove.
+     * @return A map without the entry of the key. This map does not change.
+     */
+    public @NotNull PersistentSortedMap<K, V> minus(@NotNull K key) {
+        Node<K, V> root = remove(this.root, key);
+        if (root == this.root) return this;
+        return root == null ? empty() : new PersistentSortedMap<>(root);
+    }
+
+    /**
+     * Passes every entry to the consumer, in the order of their keys.
+     *
+     * @param consumer The consumer of the entries.
+     */
+    public void forEach(@NotNull BiConsumer<? super K, ? super V> consumer) {
+        forEach(root, consumer);
+    }
+
+    /**
+     * @return The values of this map, in the order of their keys.
+     */
+    public @NotNull List<V> values() {
+        var values = new ArrayList<V>(size());
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    /**
+     * @return A copy of this map as a navigable map. Costs O(n), so it should be kept instead of made again.
+     */
+    public @NotNull NavigableMap<K, V> toNavigableMap() {
+        var map = new TreeMap<K, V>();
+        forEach(map::put);
+        return map;
+    }
+
+    private static int size(@Nullable Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(@Nullable Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <K extends Comparable<? super K>, V> void forEach(@Nullable Node<K, V> node, @NotNull BiConsumer<? super K, ? super V> consumer) {
+        // The tree is balanced, so the recursion is at most about 1.44 log n deep.
+        if (node == null) return;
+        forEach(node.left, consumer);
+        consumer.accept(node.key, node.value);
+        forEach(node.right, consumer);
+    }
+
+    private static <K extends Comparable<? super K>, V> @NotNull Node<K, V> put(@Nullable Node<K, V> node, @NotNull K key, @NotNull V value) {
+        if (node == null) return new Node<>(key, value, null, null);
+        int comparison = key.compareTo(node.key);
+        if (comparison == 0) return node.value == value ? node : new Node<>(key, value, node.left, node.right);
+        if (comparison < 0) return balance(node.key, node.value, put(node.left, key, value), node.right);
+        return balance(node.key, node.value, node.left, put(node.right, key, value));
+    }
+
+    private static <K extends Comparable<? super K>, V> @Nullable Node<K, V> remove(@Nullable Node<K, V> node, @NotNull K key) {
+        if (node == null) return null;
+        int comparison = key.compareTo(node.key);
+        if (comparison < 0) {
+            Node<K, V> left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        if (comparison > 0) {
+            Node<K, V> right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+        Node<K, V> successor = node.right;
+        while (successor.left != null) successor = successor.left;
+        return balance(successor.key, successor.value, node.left, removeFirst(node.right));
+    }
+
+    private static <K extends Comparable<? super K>, V> @Nullable Node<K, V> removeFirst(@NotNull Node<K, V> node) {
+        if (node.left == null) return node.right;
+        return balance(node.key, node.value, removeFirst(node.left), node.right);
+    }
+
+    private static <K extends Comparable<? super K>, V> @NotNull Node<K, V> balance(@NotNull K key, @NotNull V value, @Nullable Node<K, V> left, @Nullable Node<K, V> right) {
+        int leftHeight = height(left), rightHeight = height(right);
+
+        if (leftHeight > rightHeight + 1) {
+            assert left != null;
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> pivot = left.right;
+            assert pivot != null;
+            return new Node<>(pivot.key, pivot.value, new Node<>(left.key, left.value, left.left, pivot.left), new Node<>(key, value, pivot.right, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            assert right != null;
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> pivot = right.left;
+            assert pivot != null;
+            return new Node<>(pivot.key, pivot.value, new Node<>(key, value, left, pivot.left), new Node<>(right.key, right.value, pivot.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static final class Node<K, V> {
+        private final @NotNull K key;
+        private final @NotNull V value;
+        private final @Nullable Node<K, V> left;
+        private final @Nullable Node<K, V> right;
+        private final int height;
+        private final int size;
+
+        private Node(@NotNull K key, @NotNull V value, @Nullable Node<K, V> left, @Nullable Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A sorted index of strings for tab completion. Finding the strings that start with a prefix is a range lookup in the
+ * sorted keys, so it costs O(log n + results) and only allocates the lookup key.
+ */
+public final class PrefixIndex {
+    private final @NotNull ConcurrentSkipListMap<String, String> entries = new ConcurrentSkipListMap<>();
+    private final boolean ignoreCase;
+
+    /**
+     * @param ignoreCase Whether prefixes should match entries regardless of case.
+     */
+    public PrefixIndex(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    private @NotNull String key(@NotNull String value) {
+        // The value is appended to the key so entries that only differ in case don't replace each other.
+        return ignoreCase ? value.toLowerCase(Locale.ROOT) + '\0' + value : value;
+    }
+
+    public void add(@NotNull String value) {
+        entries.put(key(value), value);
+    }
+
+    public void remove(@NotNull String value) {
+        entries.remove(key(value));
+    }
+
+    /**
+     * @param value The value to look for.
+     * @return Whether the value is in this index, ignoring case if this index ignores case.
+     */
+    public boolean contains(@NotNull String value) {
+        if (!ignoreCase) return entries.containsKey(value);
+        String key = value.toLowerCase(Locale.ROOT) + '\0';
+        return !entries.subMap(key, true, key + Character.MAX_VALUE, false).isEmpty();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds every entry that starts with the prefix to the collection, in order.
+     *
+     * @param prefix     The prefix the entries must start with.
+     * @param suffix     A suffix to append to each entry added, or an empty string.
+     * @param collection The collection to add the entries to.
+     */
+    public void complete(@NotNull String prefix, @NotNull String suffix, @NotNull Collection<String> collection) {
+        String from = ignoreCase ? prefix.toLowerCase(Locale.ROOT) : prefix;
+        for (String value : entries.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            collection.add(suffix.isEmpty() ? value : value + suffix);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Digests the contents of schedule sections, so reloads only parse the sections that changed since the last one.
+ */
+public final class SectionDigest {
+    private SectionDigest() {
+    }
+
+    /**
+     * Digests the contents of a schedule section with SHA-256. Keys are digested in sorted order and every key and value
+     * is digested with its length, so the digest only matches sections with the same contents. Scalar values are
+     * digested by their string form, so a section digests the same whether it was written by the plugin or read back
+     * from the file.
+     *
+     * @param section The section to digest.
+     * @return The digest of the keys and values of the section and its subsections, regardless of their order.
+     */
+    public static @NotNull String digest(@NotNull ConfigurationSection section) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+        digest(section, digest);
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static void digest(@NotNull ConfigurationSection section, @NotNull MessageDigest digest) {
+        digest.update((byte) '{');
+        for (Map.Entry<String, Object> node : new TreeMap<>(section.getNodes()).entrySet()) {
+            digest(node.getKey(), digest);
+            Object value = node.getValue();
+            if (value instanceof ConfigurationSection subsection) {
+                digest(subsection, digest);
+            } else if (value instanceof Collection<?> collection) {
+                digest.update((byte) '[');
+                for (Object element : collection) digest(String.valueOf(element), digest);
+                digest.update((byte) ']');
+            } else {
+                digest.update((byte) '=');
+                digest(String.valueOf(value), digest);
+            }
+        }
+        digest.update((byte) '}');
+    }
+
+    private static void digest(@NotNull String text, @NotNull MessageDigest digest) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
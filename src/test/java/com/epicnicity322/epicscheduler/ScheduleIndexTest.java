@@ -0,0 +1,179 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2022, 1, 1, 0, 0);
+    private static final List<String> TAGS = List.of("a", "b", "c", "d");
+    private static final UUID OWNER = new UUID(0, 1);
+
+    private static Schedule schedule(int second, int tag) {
+        return new Schedule(START.plusSeconds(second), Collections.emptyList(), 0, false, Set.of(TAGS.get(tag)));
+    }
+
+    private static UUID owner(Schedule schedule) {
+        return schedule.tags().contains("a") ? OWNER : null;
+    }
+
+    @Test
+    void replacedAndRemovedTasksAreReturned() {
+        var index = new ScheduleIndex<String>(ScheduleIndexTest::owner);
+        Schedule first = schedule(0, 0), second = schedule(0, 1);
+
+        assertNull(index.add(first, "first"));
+        assertEquals(List.of(first), index.owned(OWNER));
+        assertEquals("first", index.add(second, "second"));
+        assertTrue(index.owned(OWNER).isEmpty());
+        assertNull(index.remove(first));
+        assertEquals("second", index.remove(second));
+        assertNull(index.add(first, null));
+        assertTrue(index.isPaused(first));
+        assertNull(index.remove(first));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void snapshotChangesOnlyWhenPublished() {
+        var index = new ScheduleIndex<String>(ScheduleIndexTest::owner);
+        Schedule schedule = schedule(0, 0);
+
+        index.add(schedule, "task");
+        assertEquals(0, index.snapshot().size());
+        index.publish();
+        ScheduleSnapshot snapshot = index.snapshot();
+        assertTrue(snapshot.contains(schedule));
+        index.publish();
+        assertSame(snapshot, index.snapshot());
+
+        index.remove(schedule);
+        index.publish();
+        assertTrue(snapshot.contains(schedule));
+        assertEquals(Set.of(schedule), snapshot.tagged("a"));
+        assertFalse(index.snapshot().contains(schedule));
+        assertTrue(index.snapshot().tagged().isEmpty());
+    }
+
+    /**
+     * Writers change the index under its lock while readers check every snapshot they see is consistent, then the
+     * index is compared to a model of the changes.
+     */
+    @Test
+    void concurrentWritersAndReaders() throws Exception {
+        var index = new ScheduleIndex<Integer>(ScheduleIndexTest::owner);
+        var model = new HashMap<LocalDateTime, Schedule>();
+        var tasks = new HashMap<LocalDateTime, Integer>();
+        var done = new AtomicBoolean();
+        int writers = 4, readers = 4, operations = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+
+        try {
+            var readerFutures = new ArrayList<Future<Integer>>();
+            for (int r = 0; r < readers; r++) {
+                readerFutures.add(executor.submit(() -> {
+                    int checked = 0;
+                    while (!done.get()) {
+                        checkSnapshot(index.snapshot());
+                        checked++;
+                    }
+                    return checked;
+                }));
+            }
+
+            var writerFutures = new ArrayList<Future<?>>();
+            for (int w = 0; w < writers; w++) {
+                int seed = w;
+                writerFutures.add(executor.submit(() -> {
+                    var random = new Random(seed);
+                    for (int i = 0; i < operations; i++) {
+                        Schedule schedule = schedule(random.nextInt(512), random.nextInt(TAGS.size()));
+                        synchronized (index) {
+                            if (random.nextInt(3) == 0) {
+                                Schedule current = model.get(schedule.dueDate());
+                                if (current == null) continue;
+                                assertEquals(tasks.remove(current.dueDate()), index.remove(current));
+                                model.remove(current.dueDate());
+                            } else {
+                                Integer task = random.nextInt(4) == 0 ? null : i;
+                                assertEquals(tasks.remove(schedule.dueDate()), index.add(schedule, task));
+                                model.put(schedule.dueDate(), schedule);
+                                if (task != null) tasks.put(schedule.dueDate(), task);
+                            }
+                            index.publish();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : writerFutures) future.get(1, TimeUnit.MINUTES);
+            done.set(true);
+            for (Future<Integer> future : readerFutures) assertTrue(future.get(1, TimeUnit.MINUTES) > 0);
+        } finally {
+            done.set(true);
+            executor.shutdownNow();
+        }
+
+        ScheduleSnapshot snapshot = index.snapshot();
+        checkSnapshot(snapshot);
+        assertEquals(new TreeMap<>(model), snapshot.sorted());
+        for (Schedule schedule : model.values()) {
+            assertEquals(!tasks.containsKey(schedule.dueDate()), snapshot.isPaused(schedule));
+        }
+        List<Schedule> owned = model.values().stream().filter(schedule -> owner(schedule) != null).toList();
+        assertEquals(new HashSet<>(owned), new HashSet<>(index.owned(OWNER)));
+    }
+
+    private static void checkSnapshot(ScheduleSnapshot snapshot) {
+        int size = snapshot.size();
+        NavigableMap<LocalDateTime, Schedule> sorted = snapshot.sorted();
+
+        assertEquals(size, sorted.size());
+        assertEquals(size, snapshot.schedules().size());
+        sorted.forEach((dueDate, schedule) -> {
+            assertEquals(dueDate, schedule.dueDate());
+            assertSame(schedule, snapshot.get(dueDate));
+        });
+        for (Schedule paused : snapshot.paused()) {
+            assertTrue(snapshot.contains(paused));
+            assertTrue(snapshot.isPaused(paused));
+        }
+        int tagged = 0;
+        for (Map.Entry<String, Set<Schedule>> entry : snapshot.tagged().entrySet()) {
+            assertFalse(entry.getValue().isEmpty());
+            for (Schedule schedule : entry.getValue()) {
+                assertTrue(snapshot.contains(schedule));
+                assertTrue(schedule.tags().contains(entry.getKey()));
+                tagged++;
+            }
+        }
+        assertEquals(size, tagged);
+        // Snapshots never change after being published.
+        assertEquals(size, snapshot.size());
+        assertEquals(sorted, snapshot.sorted());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+    @Test
+    void smallValuesHaveTheirOwnBucket() {
+        for (int value = 0; value < Histogram.SUB_BUCKET_COUNT; value++) {
+            assertEquals(value, Histogram.bucketIndex(value));
+            assertEquals(value, Histogram.bucketUpperBound(value));
+        }
+    }
+
+    @Test
+    void boundsIncreaseUpToTheLargestLong() {
+        for (int index = 1; index < Histogram.BUCKET_COUNT; index++) {
+            assertTrue(Histogram.bucketUpperBound(index) > Histogram.bucketUpperBound(index - 1), "Bucket " + index);
+        }
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, Histogram.bucketUpperBound(Histogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    void valuesFallInTheirBucketWithinTheRelativeError() {
+        var random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            // Spread over every power of two.
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int index = Histogram.bucketIndex(value);
+            long upper = Histogram.bucketUpperBound(index);
+
+            assertTrue(value <= upper, value + " is over the bound " + upper);
+            if (index > 0) assertTrue(value > Histogram.bucketUpperBound(index - 1), value + " belongs to a lower bucket");
+            // 12.5% at most.
+            assertTrue(upper - value <= value / Histogram.SUB_BUCKET_COUNT, value + " is too far from the bound " + upper);
+        }
+    }
+
+    @Test
+    void bucketEdges() {
+        for (int shift = 0; shift < 60; shift++) {
+            long lower = (long) Histogram.SUB_BUCKET_COUNT << shift;
+            int index = Histogram.bucketIndex(lower);
+            assertEquals(lower - 1, Histogram.bucketUpperBound(index - 1));
+            assertEquals(index, Histogram.bucketIndex(Histogram.bucketUpperBound(index)));
+            assertEquals(index + 1, Histogram.bucketIndex(Histogram.bucketUpperBound(index) + 1));
+        }
+    }
+
+    @Test
+    void percentiles() {
+        var histogram = new Histogram();
+        assertEquals(0, histogram.percentile(50));
+
+        for (int value = 1; value <= 1000; value++) histogram.record(value);
+        histogram.record(-5);
+
+        assertEquals(1001, histogram.count());
+        assertEquals(500_500, histogram.sum());
+        assertEquals(1000, histogram.max());
+        assertEquals(0, histogram.percentile(0));
+        long median = histogram.percentile(50);
+        assertTrue(median >= 500 && median <= 500 + 500 / Histogram.SUB_BUCKET_COUNT, "Median " + median);
+        assertEquals(1000, histogram.percentile(100));
+        assertEquals(1001, Arrays.stream(histogram.bucketCounts()).sum());
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures what metrics cost the main thread each time a schedule fires: {@link ScheduleMetrics#start()}, a result
+ * recorded with {@link ScheduleMetrics#recordResult(String, long)}, and the fire recorded with
+ * {@link ScheduleMetrics#recordFire(LocalDateTime, LocalDateTime, long)} in the histograms and the run history.
+ * <p>
+ * The threshold is {@value #MAX_NANOS_PER_FIRE}ns per fire on average, so a thousand schedules firing in the same tick
+ * add at most 2ms of its 50ms.
+ */
+class ScheduleMetricsTest {
+    private static final long MAX_NANOS_PER_FIRE = 2_000;
+    private static final int FIRES = 1_000_000;
+    private static final LocalDateTime DUE = LocalDateTime.of(2022, 1, 1, 0, 0);
+
+    private static long nanosPerFire() {
+        long begin = System.nanoTime();
+        for (int i = 0; i < FIRES; i++) {
+            long start = ScheduleMetrics.start();
+            ScheduleMetrics.recordResult("Chat Message", start);
+            // A thousand schedules, so histories are added to as well as created.
+            ScheduleMetrics.recordFire(DUE.plusSeconds(i % 1000), DUE, start);
+        }
+        return (System.nanoTime() - begin) / FIRES;
+    }
+
+    @AfterEach
+    void reset() {
+        ScheduleMetrics.setEnabled(true);
+        ScheduleMetrics.reset();
+    }
+
+    @Test
+    void overheadPerFire() {
+        ScheduleMetrics.setEnabled(true);
+        // Warming up, so the measurement is not of the interpreter.
+        nanosPerFire();
+        ScheduleMetrics.reset();
+
+        long enabled = nanosPerFire();
+        assertEquals(FIRES, ScheduleMetrics.FIRE_DURATION.count());
+        assertEquals(FIRES, ScheduleMetrics.resultFires().get("Chat Message").sum());
+        RunHistory history = ScheduleMetrics.history(DUE);
+        assertNotNull(history);
+        assertFalse(history.runs().isEmpty());
+
+        ScheduleMetrics.setEnabled(false);
+        long disabled = nanosPerFire();
+        assertEquals(FIRES, ScheduleMetrics.FIRE_DURATION.count());
+
+        System.out.printf("Metrics cost %dns per fire when enabled, and %dns when disabled.%n", enabled, disabled);
+        assertTrue(enabled <= MAX_NANOS_PER_FIRE, "Metrics cost " + enabled + "ns per fire, over the " + MAX_NANOS_PER_FIRE + "ns threshold.");
+        assertTrue(disabled <= MAX_NANOS_PER_FIRE, "Disabled metrics cost " + disabled + "ns per fire, over the " + MAX_NANOS_PER_FIRE + "ns threshold.");
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PickerTest {
+    private static final int SAMPLES = 200_000;
+
+    private static double[] frequencies(Picker picker, int size) {
+        var frequencies = new double[size];
+        for (int i = 0; i < SAMPLES; ++i) frequencies[picker.next(size)] += 1.0 / SAMPLES;
+        return frequencies;
+    }
+
+    private static void assertFrequencies(double[] expected, double[] frequencies) {
+        assertEquals(expected.length, frequencies.length);
+        for (int i = 0; i < expected.length; ++i) {
+            // Several standard deviations away for this many samples.
+            assertTrue(Math.abs(expected[i] - frequencies[i]) < 0.01, "Result " + i + " was picked " + frequencies[i] + " of the time, expected " + expected[i]);
+        }
+    }
+
+    @Test
+    void weightedPicksFollowWeights() {
+        var picker = new Picker(Picker.Mode.RANDOM, new double[]{1, 2, 3, 4}, 0);
+        assertFrequencies(new double[]{0.1, 0.2, 0.3, 0.4}, frequencies(picker, 4));
+
+        picker = new Picker(Picker.Mode.RANDOM_PER_PLAYER, new double[]{0.5, 10, 0.5, 89}, 0);
+        assertFrequencies(new double[]{0.005, 0.1, 0.005, 0.89}, frequencies(picker, 4));
+    }
+
+    @Test
+    void zeroAndNegativeWeightsAreNeverPicked() {
+        var picker = new Picker(Picker.Mode.RANDOM, new double[]{0, 1, -5, 1, 0}, 0);
+        double[] frequencies = frequencies(picker, 5);
+
+        assertEquals(0.0, frequencies[0]);
+        assertEquals(0.0, frequencies[2]);
+        assertEquals(0.0, frequencies[4]);
+        assertFrequencies(new double[]{0, 0.5, 0, 0.5, 0}, frequencies);
+    }
+
+    @Test
+    void uniformWeightsNeedNoTable() {
+        var picker = new Picker(Picker.Mode.RANDOM, new double[]{3, 3, 3}, 0);
+        assertEquals(new Picker(Picker.Mode.RANDOM, null, 0), picker);
+        assertEquals(1.0, picker.weight(1));
+        assertFrequencies(new double[]{1 / 3.0, 1 / 3.0, 1 / 3.0}, frequencies(picker, 3));
+
+        // All weights being zero is as good as no weights.
+        picker = new Picker(Picker.Mode.RANDOM, new double[]{0, 0}, 0);
+        assertFrequencies(new double[]{0.5, 0.5}, frequencies(picker, 2));
+    }
+
+    @Test
+    void tableIsIgnoredWhenResultsChange() {
+        var picker = new Picker(Picker.Mode.RANDOM, new double[]{0, 1}, 0);
+        assertEquals(0.0, picker.weight(0));
+        // Results added without weights are as likely as any other.
+        assertEquals(1.0, picker.weight(2));
+        assertFrequencies(new double[]{1 / 3.0, 1 / 3.0, 1 / 3.0}, frequencies(picker, 3));
+    }
+
+    @Test
+    void rotationWraps() {
+        var picker = new Picker(Picker.Mode.ROTATION, null, 2);
+        assertEquals(2, picker.next(3));
+        assertEquals(0, picker.next(3));
+        assertEquals(1, picker.next(3));
+        assertEquals(2, picker.rotation());
+
+        // A rotation saved with more results than there are now starts over within range.
+        picker = new Picker(Picker.Mode.ROTATION, null, 7);
+        assertEquals(1, picker.next(3));
+        assertEquals(2, picker.rotation());
+        assertEquals(0, new Picker(Picker.Mode.ROTATION, null, -4).rotation());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import com.epicnicity322.epicscheduler.Schedule;
+import com.epicnicity322.epicscheduler.result.ChatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultPoolTest {
+    private static final int SCHEDULES = 50_000;
+    private static final int TEXTS = 20;
+
+    /**
+     * @return Schedules with three chat messages each, out of {@link #TEXTS} texts, all with their own instances.
+     */
+    private static List<Schedule> schedules() {
+        LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+        var schedules = new ArrayList<Schedule>(SCHEDULES);
+
+        for (int i = 0; i < SCHEDULES; i++) {
+            var results = new ArrayList<Result>(3);
+            for (int j = 0; j < 3; j++) results.add(new ChatMessage.Record(new String("Message number " + (i + j) % TEXTS)));
+            ScheduleResult scheduleResult = new ScheduleResult.Record("Chat Messages", Picker.ALL, results, null);
+            schedules.add(new Schedule(start.plusSeconds(i), Collections.singletonList(scheduleResult), 0, false));
+        }
+        return schedules;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // The lowest of a few collections, since a single System.gc() is only a hint.
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static void awaitCollection(int maxSize) throws InterruptedException {
+        for (int i = 0; i < 100 && ResultPool.size() > maxSize; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    @BeforeEach
+    void clear() {
+        ResultPool.clear();
+    }
+
+    @Test
+    void equalRecordsAreShared() {
+        Result first = ResultPool.result(new ChatMessage.Record(new String("text")));
+        Result second = ResultPool.result(new ChatMessage.Record(new String("text")));
+
+        assertSame(first, second);
+        assertNotSame(first, ResultPool.result(new ChatMessage.Record("other")));
+    }
+
+    @Test
+    void unusedInstancesAreForgotten() throws InterruptedException {
+        for (int i = 0; i < 10_000; i++) ResultPool.intern("Unused " + i);
+        awaitCollection(0);
+
+        assertTrue(ResultPool.size() < 10_000, "Pool kept " + ResultPool.size() + " unused instances.");
+    }
+
+    /**
+     * Measures the heap used by {@link #SCHEDULES} schedules with and without pooling their results, and checks the
+     * pool forgets them once the schedules are gone.
+     */
+    @Test
+    void heapOfPooledSchedules() throws InterruptedException {
+        long baseline = usedHeap();
+        List<Schedule> schedules = schedules();
+        long unpooled = usedHeap() - baseline;
+        assertEquals(SCHEDULES, schedules.size());
+        schedules = null;
+
+        baseline = usedHeap();
+        schedules = schedules();
+        schedules.replaceAll(ResultPool::results);
+        long pooled = usedHeap() - baseline;
+        assertEquals(SCHEDULES, schedules.size());
+        assertEquals(TEXTS, ResultPool.size());
+
+        System.out.printf("Heap used by %d schedules: %d bytes unpooled, %d bytes pooled (%d and %d bytes per schedule).%n",
+                SCHEDULES, unpooled, pooled, unpooled / SCHEDULES, pooled / SCHEDULES);
+        assertTrue(pooled < unpooled, "Pooled schedules used " + pooled + " bytes, unpooled " + unpooled + " bytes.");
+
+        schedules = null;
+        awaitCollection(0);
+        assertEquals(0, ResultPool.size());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.result.type;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TargetTest {
+    private static final UUID PLAYER = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+    private static final UUID OTHER = UUID.fromString("853c80ef-3c37-49fd-aa49-938b674adae6");
+
+    @Test
+    void everyone() {
+        assertSame(Target.EVERYONE, Target.parse("EVERYONE"));
+        assertSame(Target.EVERYONE, Target.parse(" !EVERYONE "));
+        // Everyone already covers the other elements.
+        assertSame(Target.EVERYONE, Target.parse("EVERYONE,world," + PLAYER));
+    }
+
+    @Test
+    void blankTextHasNoTarget() {
+        assertNull(Target.parse(""));
+        assertNull(Target.parse(" , ,"));
+        assertNull(Target.parse("-"));
+        assertNull(Target.parse("perm:"));
+        // Excluding everyone would target no one, so the element is ignored.
+        assertNull(Target.parse("-EVERYONE"));
+    }
+
+    @Test
+    void worldsAndPlayers() {
+        assertEquals(new Target.Worlds(Set.of("world")), Target.parse("world"));
+        assertEquals(new Target.Players(Set.of(PLAYER)), Target.parse(PLAYER.toString()));
+        // Anything that is not a UUID is a world name.
+        assertEquals(new Target.Worlds(Set.of("069a79f4")), Target.parse("069a79f4"));
+
+        Target target = Target.parse("world, " + PLAYER + ", world_nether, " + OTHER);
+        assertEquals(new Target.Union(List.of(new Target.Worlds(Set.of("world", "world_nether")), new Target.Players(Set.of(PLAYER, OTHER)))), target);
+        assertEquals(Set.of(PLAYER, OTHER), target.players());
+    }
+
+    @Test
+    void permissions() {
+        assertEquals(new Target.Permission("epicscheduler.vip"), Target.parse("PERM: EpicScheduler.VIP"));
+        assertEquals("epicscheduler.vip", ((Target.Permission) Target.parse("perm:EpicScheduler.VIP")).permission());
+        assertEquals(new Target.Union(List.of(new Target.Permission("a"), new Target.Permission("b"))), Target.parse("perm:a,perm:b"));
+    }
+
+    @Test
+    void exclusions() {
+        assertEquals(new Target.Exclusion(Target.EVERYONE, new Target.Worlds(Set.of("world_nether"))), Target.parse("EVERYONE,-world_nether"));
+        // Only exclusions were given, so everyone else is targeted.
+        assertEquals(new Target.Exclusion(Target.EVERYONE, new Target.Players(Set.of(PLAYER))), Target.parse("- " + PLAYER));
+
+        Target target = Target.parse(PLAYER + "," + OTHER + ",-" + OTHER);
+        assertEquals(new Target.Exclusion(new Target.Players(Set.of(PLAYER, OTHER)), new Target.Players(Set.of(OTHER))), target);
+        assertEquals(Set.of(PLAYER), target.players());
+    }
+
+    @Test
+    void textRoundTrips() {
+        for (String text : List.of("EVERYONE", "world,world_nether", PLAYER.toString(), "perm:a.b",
+                "world," + PLAYER + ",perm:a.b", "EVERYONE,-world_nether,-perm:a.b", "world,-" + OTHER)) {
+            Target target = Target.parse(text);
+            assertNotNull(target, text);
+            assertEquals(text, target.text());
+            assertEquals(target, Target.parse(target.text()));
+        }
+
+        assertEquals(List.of("EVERYONE", "-" + PLAYER), Target.parse("-" + PLAYER).elements());
+    }
+}
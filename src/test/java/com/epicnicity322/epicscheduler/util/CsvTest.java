@@ -0,0 +1,100 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTest {
+    private static List<List<String>> read(String text) throws IOException {
+        var reader = new StringReader(text);
+        var rows = new ArrayList<List<String>>();
+        List<String> row;
+        while ((row = Csv.readRow(reader)) != null) rows.add(row);
+        return rows;
+    }
+
+    private static String write(List<String> fields) throws IOException {
+        var writer = new StringWriter();
+        Csv.writeRow(writer, fields);
+        return writer.toString();
+    }
+
+    @Test
+    void plainRows() throws IOException {
+        assertEquals(List.of(List.of("Date", "Chat Messages.1.Text"), List.of("2030-01-01 00:00:00", "Hi")),
+                read("Date,Chat Messages.1.Text\n2030-01-01 00:00:00,Hi\n"));
+        // The last line break is optional, and empty fields are kept.
+        assertEquals(List.of(List.of("a", "", "c"), List.of("", "")), read("a,,c\n,"));
+        assertEquals(List.of(List.of("")), read("\n"));
+        assertEquals(List.of(), read(""));
+    }
+
+    @Test
+    void quotedFields() throws IOException {
+        assertEquals(List.of(List.of("a,b", "say \"hi\"", "")), read("\"a,b\",\"say \"\"hi\"\"\",\"\"\n"));
+        // Quotes are only special at the start of a field.
+        assertEquals(List.of(List.of("5\" tall", "x")), read("5\" tall,x\n"));
+    }
+
+    @Test
+    void quotedFieldsSpanLines() throws IOException {
+        assertEquals(List.of(List.of("first\nsecond", "x"), List.of("y", "z")), read("\"first\nsecond\",x\ny,z\n"));
+        // Line breaks inside quotes are kept as written.
+        assertEquals(List.of(List.of("first\r\nsecond")), read("\"first\r\nsecond\"\r\n"));
+    }
+
+    @Test
+    void crlfLineBreaks() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), read("a,b\r\nc,d\r\n"));
+        assertEquals(List.of(List.of("a", "b")), read("a,b\r"));
+        assertThrows(IOException.class, () -> read("a\rb\n"));
+    }
+
+    @Test
+    void unclosedQuoteFails() {
+        assertThrows(IOException.class, () -> read("a,\"b\nc,d\n"));
+        assertThrows(IOException.class, () -> read("\"say \"\"hi\"\""));
+    }
+
+    @Test
+    void writtenFieldsAreQuotedOnlyWhenNeeded() throws IOException {
+        assertEquals("a,b c,\n", write(List.of("a", "b c", "")));
+        assertEquals("\"a,b\",\"say \"\"hi\"\"\",\"1\n2\",\"1\r2\"\n", write(List.of("a,b", "say \"hi\"", "1\n2", "1\r2")));
+    }
+
+    @Test
+    void rowsRoundTrip() throws IOException {
+        List<List<String>> rows = List.of(List.of("Date", "Commands.1.Values[]", "Titles.1.Title"),
+                List.of("2030-01-01 00:00:00", "EVERYONE;CONSOLE;say \"hi\", all\nEVERYONE;CONSOLE;say bye", ""),
+                List.of("", "\"", "\r\n,"),
+                List.of(""));
+
+        var writer = new StringWriter();
+        for (List<String> row : rows) Csv.writeRow(writer, row);
+        assertEquals(rows, read(writer.toString()));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedMapTest {
+    @Test
+    void matchesTreeMap() {
+        var random = new Random(1);
+        var expected = new TreeMap<Integer, Integer>();
+        var map = PersistentSortedMap.<Integer, Integer>empty();
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            } else {
+                expected.remove(key);
+                map = map.minus(key);
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        assertEquals(expected, map.toNavigableMap());
+        assertEquals(new ArrayList<>(expected.values()), map.values());
+        var keys = new ArrayList<Integer>();
+        map.forEach((key, value) -> keys.add(key));
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    void oldVersionsAreUnchanged() {
+        var random = new Random(2);
+        var versions = new ArrayList<PersistentSortedMap<Integer, Integer>>();
+        var expected = new ArrayList<TreeMap<Integer, Integer>>();
+        var map = PersistentSortedMap.<Integer, Integer>empty();
+        var current = new TreeMap<Integer, Integer>();
+
+        for (int i = 0; i < 2_000; i++) {
+            int key = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                current.remove(key);
+            } else {
+                map = map.plus(key, i);
+                current.put(key, i);
+            }
+            versions.add(map);
+            expected.add(new TreeMap<>(current));
+        }
+
+        for (int i = 0; i < versions.size(); i++) assertEquals(expected.get(i), versions.get(i).toNavigableMap());
+    }
+
+    @Test
+    void unchangedMapIsReturned() {
+        var map = PersistentSortedMap.<String, String>empty().plus("a", "1");
+
+        assertSame(map, map.minus("b"));
+        assertTrue(map.minus("a").isEmpty());
+        assertFalse(map.containsKey("b"));
+        assertTrue(map.containsKey("a"));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+    private static List<String> complete(PrefixIndex index, String prefix, String suffix) {
+        var completions = new ArrayList<String>();
+        index.complete(prefix, suffix, completions);
+        return completions;
+    }
+
+    @Test
+    void completesInOrder() {
+        var index = new PrefixIndex(false);
+        index.add("2022-01-02 10:00:00");
+        index.add("2023-01-01 00:00:00");
+        index.add("2022-01-01 10:00:00");
+
+        assertEquals(List.of("2022-01-01 10:00:00", "2022-01-02 10:00:00"), complete(index, "2022-01", ""));
+        assertEquals(List.of("2023-01-01 00:00:00 "), complete(index, "2023", " "));
+        assertEquals(3, complete(index, "", "").size());
+        assertTrue(complete(index, "2024", "").isEmpty());
+
+        index.remove("2022-01-01 10:00:00");
+        assertEquals(List.of("2022-01-02 10:00:00"), complete(index, "2022", ""));
+        assertEquals(2, index.size());
+        index.clear();
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void caseSensitiveIndexKeepsCase() {
+        var index = new PrefixIndex(false);
+        index.add("Notch");
+
+        assertTrue(complete(index, "no", "").isEmpty());
+        assertTrue(index.contains("Notch"));
+        assertFalse(index.contains("notch"));
+    }
+
+    @Test
+    void ignoringCaseKeepsEntriesThatOnlyDifferInCase() {
+        var index = new PrefixIndex(true);
+        index.add("Notch");
+        index.add("notch");
+        index.add("NoName");
+        index.add("jeb_");
+
+        assertEquals(List.of("NoName", "Notch", "notch"), complete(index, "NO", ""));
+        assertTrue(index.contains("NOTCH"));
+        assertFalse(index.contains("Note"));
+
+        index.remove("notch");
+        assertEquals(List.of("Notch"), complete(index, "not", ""));
+        assertTrue(index.contains("notch"));
+        index.remove("Notch");
+        assertFalse(index.contains("notch"));
+        // A prefix of an entry is not the entry.
+        assertFalse(index.contains("No"));
+    }
+
+    @Test
+    void matchesLinearSearch() {
+        var random = new Random(1);
+        var index = new PrefixIndex(true);
+        var values = new TreeSet<String>();
+        String letters = "aAbB-_1";
+
+        for (int i = 0; i < 2_000; i++) {
+            var value = new StringBuilder();
+            for (int j = random.nextInt(6); j >= 0; j--) value.append(letters.charAt(random.nextInt(letters.length())));
+            index.add(value.toString());
+            values.add(value.toString());
+        }
+        var list = new ArrayList<>(values);
+        for (int i = 0; i < 500; i++) {
+            String sample = list.get(random.nextInt(list.size()));
+            // Prefixes of entries, in either case.
+            String prefix = sample.substring(0, random.nextInt(sample.length() + 1));
+            prefix = random.nextBoolean() ? prefix.toUpperCase(Locale.ROOT) : prefix;
+            var expected = new HashSet<String>();
+            for (String value : values) {
+                if (value.toLowerCase(Locale.ROOT).startsWith(prefix.toLowerCase(Locale.ROOT))) expected.add(value);
+            }
+            List<String> completions = complete(index, prefix, "");
+            assertEquals(expected.size(), completions.size());
+            assertEquals(expected, new HashSet<>(completions));
+        }
+    }
+}
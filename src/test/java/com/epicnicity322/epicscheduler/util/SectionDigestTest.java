@@ -0,0 +1,73 @@
+/*
+ * EpicScheduler - Minecraft Spigot plugin that schedules results to happen in specified dates.
+ * Copyright (C) 2022  Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.epicscheduler.util;
+
+import com.epicnicity322.epicscheduler.storage.ScheduleTransfer;
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionDigestTest {
+    private static String digest(String json) {
+        return SectionDigest.digest(ScheduleTransfer.fromJson(json));
+    }
+
+    @Test
+    void orderOfKeysIsIgnored() {
+        assertEquals(digest("{\"Repeat\": \"1 day\", \"Chat Messages\": {\"1\": {\"Text\": \"Hi\"}, \"2\": {\"Text\": \"Bye\"}}}"),
+                digest("{\"Chat Messages\": {\"2\": {\"Text\": \"Bye\"}, \"1\": {\"Text\": \"Hi\"}}, \"Repeat\": \"1 day\"}"));
+    }
+
+    @Test
+    void scalarsAreDigestedByTheirText() {
+        ConfigurationSection written = ScheduleTransfer.newSection();
+        written.createSection("Titles").createSection("1").set("Stay", 20);
+        written.set("Skip Missed Repeats", true);
+
+        assertEquals(SectionDigest.digest(written), digest("{\"Skip Missed Repeats\": \"true\", \"Titles\": {\"1\": {\"Stay\": \"20\"}}}"));
+    }
+
+    @Test
+    void changesAreDetected() {
+        String digest = digest("{\"Chat Messages\": {\"1\": {\"Text\": \"Hi\"}}, \"Tags\": [\"a\", \"b\"]}");
+
+        assertNotEquals(digest, digest("{\"Chat Messages\": {\"1\": {\"Text\": \"Hi!\"}}, \"Tags\": [\"a\", \"b\"]}"));
+        assertNotEquals(digest, digest("{\"Chat Messages\": {\"2\": {\"Text\": \"Hi\"}}, \"Tags\": [\"a\", \"b\"]}"));
+        assertNotEquals(digest, digest("{\"Chat Messages\": {\"1\": {\"Text\": \"Hi\"}}, \"Tags\": [\"b\", \"a\"]}"));
+        assertNotEquals(digest, digest("{\"Chat Messages\": {\"1\": {\"Text\": \"Hi\"}}, \"Tags\": [\"a\"]}"));
+        assertNotEquals(digest, digest("{\"Chat Messages\": {\"1\": {\"Text\": \"Hi\"}}}"));
+    }
+
+    @Test
+    void boundariesAreNotAmbiguous() {
+        // Every key and value is digested with its length, and lists, scalars and sections are told apart.
+        assertNotEquals(digest("{\"ab\": \"c\"}"), digest("{\"a\": \"bc\"}"));
+        assertNotEquals(digest("{\"a\": [\"b\", \"c\"]}"), digest("{\"a\": [\"bc\"]}"));
+        assertNotEquals(digest("{\"a\": [\"b\"]}"), digest("{\"a\": \"b\"}"));
+        assertNotEquals(digest("{\"a\": {\"b\": \"c\"}}"), digest("{\"a\": {}, \"b\": \"c\"}"));
+        assertNotEquals(digest("{\"a\": {}}"), digest("{}"));
+    }
+
+    @Test
+    void digestsAreStable() {
+        var json = "{\"Priority\": \"CRITICAL\", \"Commands\": {\"1\": {\"Values\": [\"EVERYONE;CONSOLE;say hi\"]}}}";
+        assertEquals(digest(json), digest(json));
+    }
+}